@@ -10,10 +10,10 @@ import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
@@ -23,22 +23,24 @@ import models.Attendance;
 import models.Department;
 import models.Position;
 import models.Shift;
-import database.DatabaseConnection;
+import utils.AttendanceImporter;
+import utils.AttendanceScanner;
+import utils.ChangeEventBus;
+import utils.DateTimeHelper;
 import utils.ImageHelper;
+import utils.ScanJournal;
 
 import java.io.File;
 import java.io.FileWriter;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
 import java.util.List;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
 
-public class AttendanceController {
+public class AttendanceController implements RefreshableView {
 
     @FXML private TextField qrCodeField;
     @FXML private TextField searchNameField;
@@ -53,6 +55,7 @@ public class AttendanceController {
     @FXML private Label currentTimeLabel;
     @FXML private Label attendanceStatusLabel;
     @FXML private Label dateLabel;
+    @FXML private Label syncStatusLabel;
 
     // MERGED BUTTON - Single button for both Time In and Time Out
     @FXML private Button recordAttendanceButton;
@@ -73,6 +76,8 @@ public class AttendanceController {
     private Employee selectedEmployee;
     private ObservableList<AttendanceDisplay> attendanceList = FXCollections.observableArrayList();
     private Timeline clockTimeline;
+    private ScanJournal scanJournal;
+    private AttendanceScanner scanner;
 
     private boolean hasTimedInToday = false;  // Track if employee has timed in
 
@@ -84,6 +89,13 @@ public class AttendanceController {
         updateDateLabel();
         setupSearchListener();
         setupListClickHandler();
+        ChangeEventBus.subscribeOnFxThread(this::onDataChanged);
+
+        try {
+            scanJournal = ScanJournal.get();
+        } catch (IOException e) {
+            showError("Failed to open the scan journal: " + e.getMessage());
+        }
 
         // Initialize profile picture view as circular
         if (empProfileImageView != null) {
@@ -91,6 +103,15 @@ public class AttendanceController {
         }
     }
 
+    /**
+     * Reload the screen's data when it is shown again
+     */
+    @Override
+    public void refresh() {
+        loadTodayAttendance();
+        updateDateLabel();
+    }
+
     private void setupTableColumns() {
         timeColumn.setCellValueFactory(new PropertyValueFactory<>("time"));
         qrCodeColumn.setCellValueFactory(new PropertyValueFactory<>("qrCode"));
@@ -105,11 +126,32 @@ public class AttendanceController {
         clockTimeline = new Timeline(new KeyFrame(Duration.seconds(1), event -> {
             LocalTime now = LocalTime.now();
             currentTimeLabel.setText(now.format(DateTimeFormatter.ofPattern("hh:mm:ss a")));
+            updateSyncStatus();
         }));
         clockTimeline.setCycleCount(Animation.INDEFINITE);
         clockTimeline.play();
     }
 
+    // Scans waiting in the journal for the database, and how long the oldest has waited
+    private void updateSyncStatus() {
+        if (syncStatusLabel == null || scanJournal == null) return;
+
+        int pending = scanJournal.getPendingCount();
+        if (pending == 0) {
+            syncStatusLabel.setText("✓ All scans saved");
+            syncStatusLabel.setStyle("-fx-text-fill: #4CAF50;");
+            return;
+        }
+
+        String text = "⏳ " + pending + " scan(s) waiting to be saved (" +
+                scanJournal.getLagMillis() / 1000 + "s behind)";
+        if (scanJournal.getLastError() != null) {
+            text += " - " + scanJournal.getLastError();
+        }
+        syncStatusLabel.setText(text);
+        syncStatusLabel.setStyle("-fx-text-fill: #FF9800;");
+    }
+
     private void updateDateLabel() {
         LocalDate today = LocalDate.now();
         dateLabel.setText("Today's Attendance Log - " +
@@ -228,19 +270,10 @@ public class AttendanceController {
             empDepartmentLabel.setText(dept != null ? dept.getName() : "Unknown");
 
             // NEW - Display profile picture
-            if (employee.hasProfilePicture()) {
-                Image profileImage = ImageHelper.loadProfilePicture(employee.getProfilePicturePath());
-                empProfileImageView.setImage(profileImage);
-            } else {
-                empProfileImageView.setImage(ImageHelper.getDefaultProfileImage());
-            }
-            ImageHelper.makeCircular(empProfileImageView);
+            ImageHelper.loadProfilePictureIntoView(empProfileImageView, employee.getProfilePicturePath());
 
-            // Check today's attendance
-            Attendance todayRecord = attendanceDAO.getAttendanceByEmployeeAndDate(
-                    employee.getId(),
-                    LocalDate.now().toString()
-            );
+            // Check today's attendance, counting scans still waiting in the journal
+            Attendance todayRecord = todayRecord(employee.getId(), LocalDate.now().toString());
 
             if (todayRecord != null) {
                 // Already has attendance today
@@ -326,64 +359,18 @@ public class AttendanceController {
         }
 
         try {
-            String today = LocalDate.now().toString();
             LocalTime now = LocalTime.now();
-            String timeIn = now.format(DateTimeFormatter.ofPattern("HH:mm:ss"));
-
-            Position pos = positionDAO.getPositionById(selectedEmployee.getPositionId());
-            Shift employeeShift = null;
-
-            if (pos != null && pos.hasShift()) {
-                employeeShift = shiftDAO.getShiftById(pos.getShiftId());
-            }
-
-            if (employeeShift == null) {
-                employeeShift = shiftDAO.findShiftForTimeIn(now);
-            }
-
-            String status;
-            String shiftInfo = "";
-
-            if (employeeShift != null) {
-                status = employeeShift.isLate(now) ? "late" : "on-time";
-                shiftInfo = " (" + employeeShift.getName() + ")";
-            } else {
-                LocalTime cutoff = LocalTime.of(8, 30);
-                status = now.isBefore(cutoff) || now.equals(cutoff) ? "on-time" : "late";
-                shiftInfo = " (Default schedule)";
-            }
-
-            Attendance attendance = new Attendance(
-                    selectedEmployee.getId(),
-                    today,
-                    timeIn,
-                    null,
-                    status
-            );
-
-            attendanceDAO.addAttendance(attendance);
-
-            if (employeeShift != null) {
-                Connection conn = DatabaseConnection.getConnection();
-                String updateSql = "UPDATE attendance SET shift_id = ? WHERE id = (SELECT MAX(id) FROM attendance WHERE employee_id = ?)";
-                PreparedStatement stmt = conn.prepareStatement(updateSql);
-                stmt.setInt(1, employeeShift.getId());
-                stmt.setInt(2, selectedEmployee.getId());
-                stmt.executeUpdate();
-                stmt.close();
-                conn.close();
-            }
+            AttendanceScanner.ScanResult result = scanner().timeIn(selectedEmployee, LocalDate.now(), now);
 
             showInfo("✓ Time In Recorded!\n\n" +
                     selectedEmployee.getName() + "\n" +
                     now.format(DateTimeFormatter.ofPattern("hh:mm a")) + "\n" +
-                    "Status: " + (status.equals("on-time") ? "ON TIME" : "LATE") +
-                    shiftInfo);
+                    "Status: " + (result.status.equals("on-time") ? "ON TIME" : "LATE") +
+                    (result.shiftName != null ? " (" + result.shiftName + ")" : " (Default schedule)"));
 
-            loadTodayAttendance();
             displayEmployee(selectedEmployee);
 
-        } catch (SQLException e) {
+        } catch (SQLException | IOException e) {
             showError("Failed to record time in: " + e.getMessage());
         }
     }
@@ -395,43 +382,43 @@ public class AttendanceController {
         }
 
         try {
-            String today = LocalDate.now().toString();
-            Attendance attendance = attendanceDAO.getAttendanceByEmployeeAndDate(
-                    selectedEmployee.getId(),
-                    today
-            );
-
-            if (attendance != null && (attendance.getTimeOut() == null || attendance.getTimeOut().isEmpty())) {
-                String timeOut = LocalTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
-                attendance.setTimeOut(timeOut);
-
-                double hoursWorked = calculateHours(attendance.getTimeIn(), timeOut);
-
-                attendanceDAO.updateAttendance(attendance);
+            LocalTime now = LocalTime.now();
+            AttendanceScanner.ScanResult result = scanner().timeOut(selectedEmployee, LocalDate.now(), now);
 
+            if (result != null) {
                 showInfo("✓ Time Out Recorded!\n\n" +
                         selectedEmployee.getName() + "\n" +
-                        LocalTime.now().format(DateTimeFormatter.ofPattern("hh:mm a")) + "\n" +
-                        String.format("Hours worked: %.2f", hoursWorked));
+                        now.format(DateTimeFormatter.ofPattern("hh:mm a")) + "\n" +
+                        String.format("Hours worked: %.2f", result.hoursWorked));
 
-                loadTodayAttendance();
                 displayEmployee(selectedEmployee);
             }
 
-        } catch (SQLException e) {
+        } catch (SQLException | IOException e) {
             showError("Failed to record time out: " + e.getMessage());
         }
     }
 
-    private double calculateHours(String timeIn, String timeOut) {
-        try {
-            LocalTime in = LocalTime.parse(timeIn);
-            LocalTime out = LocalTime.parse(timeOut);
-            long minutes = ChronoUnit.MINUTES.between(in, out);
-            return minutes / 60.0;
-        } catch (Exception e) {
-            return 0.0;
+    // Today's record as the kiosk sees it: the database row plus any journaled scans not applied yet
+    private Attendance todayRecord(int employeeId, String today) throws SQLException {
+        if (scanJournal == null) {
+            return attendanceDAO.getAttendanceByEmployeeAndDate(employeeId, today);
+        }
+        return scanJournal.getRecord(employeeId, today);
+    }
+
+    private AttendanceScanner scanner() throws IOException {
+        if (scanJournal == null) {
+            scanJournal = ScanJournal.get();
+        }
+        if (scanner == null) {
+            scanner = new AttendanceScanner(scanJournal);
         }
+        return scanner;
+    }
+
+    private double calculateHours(String timeIn, String timeOut) {
+        return DateTimeHelper.calculateHoursWorked(timeIn, timeOut);
     }
 
     @FXML
@@ -448,9 +435,8 @@ public class AttendanceController {
         attendanceStatusLabel.setText("---");
         attendanceStatusLabel.setStyle("");
 
-        // Reset profile picture
-        empProfileImageView.setImage(ImageHelper.getDefaultProfileImage());
-        ImageHelper.makeCircular(empProfileImageView);
+        // Reset profile picture (also drops a thumbnail still loading for the last employee)
+        ImageHelper.loadProfilePictureIntoView(empProfileImageView, null);
 
         hasTimedInToday = false;
         recordAttendanceButton.setText("⏰ RECORD TIME IN");
@@ -466,30 +452,84 @@ public class AttendanceController {
             for (Attendance att : records) {
                 Employee emp = employeeDAO.getEmployeeById(att.getEmployeeId());
                 if (emp != null) {
-                    String time = att.getTimeIn();
-                    String action = "In";
-
-                    if (att.getTimeOut() != null && !att.getTimeOut().isEmpty()) {
-                        time = att.getTimeOut();
-                        action = "Out";
-                    }
+                    attendanceList.add(toDisplay(att, emp));
+                }
+            }
+        } catch (SQLException e) {
+            showError("Failed to load attendance log: " + e.getMessage());
+        }
+    }
 
-                    String status = formatStatus(att.getStatus());
+    /**
+     * Apply a batch of change events to today's log, one employee row at a time
+     * Scans add or replace a single row; bulk imports reload the log.
+     */
+    private void onDataChanged(List<ChangeEventBus.ChangeEvent> events) {
+        String today = LocalDate.now().toString();
+        boolean reload = false;
 
-                    attendanceList.add(new AttendanceDisplay(
-                            time.substring(0, 5),
-                            emp.getQrCode(),
-                            emp.getName(),
-                            action,
-                            status
-                    ));
+        try {
+            for (ChangeEventBus.ChangeEvent event : events) {
+                if (event.type == ChangeEventBus.Type.ATTENDANCE_IMPORTED) {
+                    reload = true;
+                } else if (event.isAttendance() && today.equals(event.date)) {
+                    showTodayRow(event.employeeId, today, true);
+                } else if (event.isEmployee()) {
+                    // Only rows already in the log can show a changed name or QR code
+                    showTodayRow(event.employeeId, today, false);
                 }
             }
         } catch (SQLException e) {
-            showError("Failed to load attendance log: " + e.getMessage());
+            reload = true;
+        }
+
+        if (reload) {
+            loadTodayAttendance();
+        }
+    }
+
+    // Replace, add or remove the log row of one employee
+    private void showTodayRow(int employeeId, String today, boolean addIfMissing) throws SQLException {
+        int index = -1;
+        for (int i = 0; i < attendanceList.size(); i++) {
+            if (attendanceList.get(i).getEmployeeId() == employeeId) {
+                index = i;
+                break;
+            }
+        }
+        if (index < 0 && !addIfMissing) return;
+
+        Attendance att = attendanceDAO.getAttendanceByEmployeeAndDate(employeeId, today);
+        Employee emp = att != null ? employeeDAO.getEmployeeById(employeeId) : null;
+
+        if (att == null || emp == null) {
+            if (index >= 0) attendanceList.remove(index);
+        } else if (index >= 0) {
+            attendanceList.set(index, toDisplay(att, emp));
+        } else {
+            attendanceList.add(toDisplay(att, emp)); // newest time in goes last, as in the loaded log
         }
     }
 
+    private AttendanceDisplay toDisplay(Attendance att, Employee emp) {
+        String time = att.getTimeIn();
+        String action = "In";
+
+        if (att.getTimeOut() != null && !att.getTimeOut().isEmpty()) {
+            time = att.getTimeOut();
+            action = "Out";
+        }
+
+        return new AttendanceDisplay(
+                emp.getId(),
+                time.substring(0, 5),
+                emp.getQrCode(),
+                emp.getName(),
+                action,
+                formatStatus(att.getStatus())
+        );
+    }
+
     private String formatStatus(String status) {
         switch (status.toLowerCase()) {
             case "on-time": return "On Time";
@@ -633,6 +673,50 @@ public class AttendanceController {
         }
     }
 
+    /**
+     * Import a time clock / biometric export (CSV or fixed-width) in the background
+     */
+    @FXML
+    private void handleImportDeviceLog() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Import Device Log");
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Device Logs", "*.csv", "*.txt", "*.dat"),
+                new FileChooser.ExtensionFilter("All Files", "*.*")
+        );
+
+        Stage stage = (Stage) attendanceLogTable.getScene().getWindow();
+        File file = fileChooser.showOpenDialog(stage);
+        if (file == null) {
+            return;
+        }
+
+        Task<AttendanceImporter.ImportResult> importTask = new Task<>() {
+            @Override
+            protected AttendanceImporter.ImportResult call() throws Exception {
+                return AttendanceImporter.importFile(file.toPath());
+            }
+        };
+
+        importTask.setOnSucceeded(event -> {
+            AttendanceImporter.ImportResult result = importTask.getValue();
+            String message = "✓ Import Complete!\n\n" +
+                    String.format("Imported: %,d\nRejected: %,d\nTime: %,d ms (%,.0f rows/sec)",
+                            result.imported, result.rejected, result.elapsedMillis, result.getRowsPerSecond());
+            if (result.rejectFile != null) {
+                message += "\n\nRejected rows saved to:\n" + result.rejectFile.toAbsolutePath();
+            }
+            showInfo(message);
+        });
+
+        importTask.setOnFailed(event ->
+                showError("Import failed: " + importTask.getException().getMessage()));
+
+        Thread thread = new Thread(importTask, "attendance-import");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
     @FXML
     private void handleShowShiftInfo() {
         try {
@@ -705,14 +789,16 @@ public class AttendanceController {
     }
 
     public static class AttendanceDisplay {
+        private final int employeeId;
         private final String time;
         private final String qrCode;
         private final String employeeName;
         private final String action;
         private final String status;
 
-        public AttendanceDisplay(String time, String qrCode, String employeeName,
+        public AttendanceDisplay(int employeeId, String time, String qrCode, String employeeName,
                                  String action, String status) {
+            this.employeeId = employeeId;
             this.time = time;
             this.qrCode = qrCode;
             this.employeeName = employeeName;
@@ -720,6 +806,7 @@ public class AttendanceController {
             this.status = status;
         }
 
+        public int getEmployeeId() { return employeeId; }
         public String getTime() { return time; }
         public String getQrCode() { return qrCode; }
         public String getEmployeeName() { return employeeName; }
@@ -7,12 +7,13 @@ import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import models.*;
+import utils.ChangeEventBus;
 import utils.DateTimeHelper;
 
 import java.sql.SQLException;
 import java.util.List;
 
-public class DashboardController {
+public class DashboardController implements RefreshableView {
 
     @FXML private Label totalEmployeesLabel;
     @FXML private Label activeEmployeesLabel;
@@ -33,12 +34,28 @@ public class DashboardController {
 
     private ObservableList<ActivityDisplay> activityList = FXCollections.observableArrayList();
 
+    // Today's counts behind the labels, so a single scan can adjust them
+    private int activeCount;
+    private int recordedToday;
+    private int presentCount;
+    private int lateCount;
+
     @FXML
     public void initialize() {
         setupTableColumns();
         setupStatusColoring();     // <-- ADD THIS
         loadStatistics();
         loadRecentActivity();
+        ChangeEventBus.subscribeOnFxThread(this::onDataChanged);
+    }
+
+    /**
+     * Reload the screen's data when it is shown again
+     */
+    @Override
+    public void refresh() {
+        loadStatistics();
+        loadRecentActivity();
     }
 
     private void setupTableColumns() {
@@ -105,26 +122,104 @@ public class DashboardController {
             String today = DateTimeHelper.getCurrentDate();
             List<Attendance> todayRecords = attendanceDAO.getAttendanceByDate(today);
 
-            int presentCount = 0;
-            int lateCount = 0;
+            activeCount = activeEmployees.size();
+            recordedToday = todayRecords.size();
+            presentCount = 0;
+            lateCount = 0;
 
             for (Attendance att : todayRecords) {
-                if ("on-time".equals(att.getStatus())) {
-                    presentCount++;
-                } else if ("late".equals(att.getStatus())) {
-                    lateCount++;
-                }
+                countStatus(att.getStatus());
             }
+            updateTodayLabels();
+
+        } catch (SQLException e) {
+            System.err.println("Failed to load statistics: " + e.getMessage());
+        }
+    }
+
+    private void countStatus(String status) {
+        if ("on-time".equals(status)) {
+            presentCount++;
+        } else if ("late".equals(status)) {
+            lateCount++;
+        }
+    }
 
-            presentTodayLabel.setText(String.valueOf(presentCount));
-            lateTodayLabel.setText(String.valueOf(lateCount));
+    private void updateTodayLabels() {
+        presentTodayLabel.setText(String.valueOf(presentCount));
+        lateTodayLabel.setText(String.valueOf(lateCount));
+        absentTodayLabel.setText(String.valueOf(Math.max(0, activeCount - recordedToday)));
+    }
 
-            int absentCount = activeEmployees.size() - todayRecords.size();
-            absentTodayLabel.setText(String.valueOf(Math.max(0, absentCount)));
+    /**
+     * Apply a batch of change events: a scan adjusts today's counts and adds
+     * its activity rows; anything broader (imports, deletions, employee
+     * changes) reloads the dashboard once for the whole batch.
+     */
+    private void onDataChanged(List<ChangeEventBus.ChangeEvent> events) {
+        String today = DateTimeHelper.getCurrentDate();
+        boolean reload = false;
 
+        try {
+            for (ChangeEventBus.ChangeEvent event : events) {
+                if (event.type == ChangeEventBus.Type.ATTENDANCE_RECORDED && today.equals(event.date)) {
+                    Attendance att = attendanceDAO.getAttendanceByEmployeeAndDate(event.employeeId, today);
+                    Employee emp = employeeDAO.getEmployeeById(event.employeeId);
+                    if (att != null && emp != null) {
+                        recordedToday++;
+                        countStatus(att.getStatus());
+                        activityList.add(timeInActivity(att, emp));
+                    }
+                } else if (event.type == ChangeEventBus.Type.ATTENDANCE_UPDATED && today.equals(event.date)) {
+                    Attendance att = attendanceDAO.getAttendanceByEmployeeAndDate(event.employeeId, today);
+                    Employee emp = employeeDAO.getEmployeeById(event.employeeId);
+                    if (att != null && emp != null && att.getTimeOut() != null && !att.getTimeOut().isEmpty()) {
+                        addTimeOutActivity(att, emp);
+                    }
+                } else if (event.type == ChangeEventBus.Type.ATTENDANCE_DELETED
+                        || event.type == ChangeEventBus.Type.ATTENDANCE_IMPORTED
+                        || event.isEmployee()) {
+                    reload = true;
+                }
+            }
         } catch (SQLException e) {
-            System.err.println("Failed to load statistics: " + e.getMessage());
+            reload = true;
+        }
+
+        if (reload) {
+            refresh();
+        } else {
+            updateTodayLabels();
+        }
+    }
+
+    private ActivityDisplay timeInActivity(Attendance att, Employee emp) {
+        String time = DateTimeHelper.formatTimeForDisplay(att.getTimeIn());
+        String status = "on-time".equals(att.getStatus()) ? "On Time" : "Late";
+        return new ActivityDisplay(emp.getId(), time, emp.getName(), "Time In", status);
+    }
+
+    private ActivityDisplay timeOutActivity(Attendance att, Employee emp) {
+        String time = DateTimeHelper.formatTimeForDisplay(att.getTimeOut());
+        return new ActivityDisplay(emp.getId(), time, emp.getName(), "Time Out", "Complete");
+    }
+
+    // Time out goes right after the employee's time in, as in the loaded list
+    private void addTimeOutActivity(Attendance att, Employee emp) {
+        for (int i = 0; i < activityList.size(); i++) {
+            ActivityDisplay row = activityList.get(i);
+            if (row.getEmployeeId() == emp.getId()) {
+                if ("Time Out".equals(row.getAction())) {
+                    activityList.set(i, timeOutActivity(att, emp));
+                    return;
+                }
+                if (i + 1 == activityList.size() || activityList.get(i + 1).getEmployeeId() != emp.getId()) {
+                    activityList.add(i + 1, timeOutActivity(att, emp));
+                    return;
+                }
+            }
         }
+        activityList.add(timeOutActivity(att, emp));
     }
 
     private void loadRecentActivity() {
@@ -136,15 +231,10 @@ public class DashboardController {
             for (Attendance att : records) {
                 Employee emp = employeeDAO.getEmployeeById(att.getEmployeeId());
                 if (emp != null) {
-                    String time = DateTimeHelper.formatTimeForDisplay(att.getTimeIn());
-                    String action = "Time In";
-                    String status = "on-time".equals(att.getStatus()) ? "On Time" : "Late";
-
-                    activityList.add(new ActivityDisplay(time, emp.getName(), action, status));
+                    activityList.add(timeInActivity(att, emp));
 
                     if (att.getTimeOut() != null && !att.getTimeOut().isEmpty()) {
-                        time = DateTimeHelper.formatTimeForDisplay(att.getTimeOut());
-                        activityList.add(new ActivityDisplay(time, emp.getName(), "Time Out", "Complete"));
+                        activityList.add(timeOutActivity(att, emp));
                     }
                 }
             }
@@ -155,18 +245,21 @@ public class DashboardController {
     }
 
     public static class ActivityDisplay {
+        private final int employeeId;
         private final String time;
         private final String employee;
         private final String action;
         private final String status;
 
-        public ActivityDisplay(String time, String employee, String action, String status) {
+        public ActivityDisplay(int employeeId, String time, String employee, String action, String status) {
+            this.employeeId = employeeId;
             this.time = time;
             this.employee = employee;
             this.action = action;
             this.status = status;
         }
 
+        public int getEmployeeId() { return employeeId; }
         public String getTime() { return time; }
         public String getEmployee() { return employee; }
         public String getAction() { return action; }
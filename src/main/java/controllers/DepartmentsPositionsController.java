@@ -17,7 +17,7 @@ import java.sql.SQLException;
 import java.util.List;
 import java.util.Optional;
 
-public class DepartmentsPositionsController {
+public class DepartmentsPositionsController implements RefreshableView {
 
     // Departments Table
     @FXML private TableView<DepartmentDisplay> departmentsTable;
@@ -25,6 +25,8 @@ public class DepartmentsPositionsController {
     @FXML private TableColumn<DepartmentDisplay, String> deptNameColumn;
     @FXML private TableColumn<DepartmentDisplay, String> deptDescColumn;
     @FXML private TableColumn<DepartmentDisplay, Integer> deptEmpCountColumn;
+    @FXML private TableColumn<DepartmentDisplay, Integer> deptPosCountColumn;
+    @FXML private TableColumn<DepartmentDisplay, Double> deptLaborCostColumn;
 
     // Positions Table
     @FXML private TableView<PositionDisplay> positionsTable;
@@ -52,11 +54,35 @@ public class DepartmentsPositionsController {
         setupFilterCombo();
     }
 
+    /**
+     * Reload the screen's data when it is shown again
+     */
+    @Override
+    public void refresh() {
+        loadDepartments();
+        loadPositions();
+    }
+
     private void setupDepartmentsTable() {
         deptIdColumn.setCellValueFactory(new PropertyValueFactory<>("id"));
         deptNameColumn.setCellValueFactory(new PropertyValueFactory<>("name"));
         deptDescColumn.setCellValueFactory(new PropertyValueFactory<>("description"));
         deptEmpCountColumn.setCellValueFactory(new PropertyValueFactory<>("employeeCount"));
+        deptPosCountColumn.setCellValueFactory(new PropertyValueFactory<>("positionCount"));
+        deptLaborCostColumn.setCellValueFactory(new PropertyValueFactory<>("totalLaborCost"));
+
+        // Format labor cost column
+        deptLaborCostColumn.setCellFactory(column -> new TableCell<DepartmentDisplay, Double>() {
+            @Override
+            protected void updateItem(Double item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || item == null) {
+                    setText(null);
+                } else {
+                    setText(String.format("₱%,.2f/mo", item));
+                }
+            }
+        });
 
         departmentsTable.setItems(departmentList);
     }
@@ -107,17 +133,19 @@ public class DepartmentsPositionsController {
             departmentList.clear();
             departmentFilterList.clear();
 
-            List<Department> departments = departmentDAO.getAllDepartments();
+            // Headcount, positions and labor cost for every department in one query
+            List<DepartmentDAO.DepartmentSummary> summaries = departmentDAO.getDepartmentSummaries();
 
-            for (Department dept : departments) {
-                // Get employee count for this department
-                int empCount = departmentDAO.getEmployeeCountByDepartment(dept.getId());
+            for (DepartmentDAO.DepartmentSummary summary : summaries) {
+                Department dept = summary.department;
 
                 departmentList.add(new DepartmentDisplay(
                         dept.getId(),
                         dept.getName(),
                         dept.getDescription(),
-                        empCount
+                        summary.employeeCount,
+                        summary.positionCount,
+                        summary.totalLaborCost
                 ));
 
                 departmentFilterList.add(dept);
@@ -130,16 +158,15 @@ public class DepartmentsPositionsController {
     private void loadPositions() {
         try {
             positionList.clear();
-            List<Position> positions = positionDAO.getAllPositions();
+            List<PositionDAO.PositionWithDepartment> positions = positionDAO.getAllPositionsWithDepartment();
 
-            for (Position pos : positions) {
-                Department dept = departmentDAO.getDepartmentById(pos.getDepartmentId());
-                String deptName = (dept != null) ? dept.getName() : "Unknown";
+            for (PositionDAO.PositionWithDepartment row : positions) {
+                Position pos = row.position;
 
                 positionList.add(new PositionDisplay(
                         pos.getId(),
                         pos.getTitle(),
-                        deptName,
+                        row.departmentName,
                         pos.getHourlyRate(),
                         pos.getDescription(),
                         pos.getDepartmentId()
@@ -440,18 +467,25 @@ public class DepartmentsPositionsController {
         private final String name;
         private final String description;
         private final int employeeCount;
+        private final int positionCount;
+        private final double totalLaborCost;
 
-        public DepartmentDisplay(int id, String name, String description, int employeeCount) {
+        public DepartmentDisplay(int id, String name, String description, int employeeCount,
+                                 int positionCount, double totalLaborCost) {
             this.id = id;
             this.name = name;
             this.description = description;
             this.employeeCount = employeeCount;
+            this.positionCount = positionCount;
+            this.totalLaborCost = totalLaborCost;
         }
 
         public int getId() { return id; }
         public String getName() { return name; }
         public String getDescription() { return description; }
         public int getEmployeeCount() { return employeeCount; }
+        public int getPositionCount() { return positionCount; }
+        public double getTotalLaborCost() { return totalLaborCost; }
     }
 
     public static class PositionDisplay {
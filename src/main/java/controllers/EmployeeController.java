@@ -1,10 +1,9 @@
 package controllers;
 
 import dao.EmployeeDAO;
-import dao.DepartmentDAO;
-import dao.PositionDAO;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -14,20 +13,25 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Stage;
 import javafx.stage.Modality;
 import javafx.stage.FileChooser;
+import javafx.stage.DirectoryChooser;
 import models.Employee;
-import models.Department;
-import models.Position;
+import models.EmployeeDisplay;
+import utils.BadgeSheetGenerator;
+import utils.ChangeEventBus;
+import utils.PagedList;
 
 import java.io.File;
 import java.io.FileWriter;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
-public class EmployeeController {
+public class EmployeeController implements RefreshableView {
 
     @FXML private TableView<EmployeeDisplay> employeeTable;
     @FXML private TableColumn<EmployeeDisplay, String> qrColumn;
@@ -41,10 +45,12 @@ public class EmployeeController {
     @FXML private Label paginationLabel;
 
     private EmployeeDAO employeeDAO = new EmployeeDAO();
-    private DepartmentDAO departmentDAO = new DepartmentDAO();
-    private PositionDAO positionDAO = new PositionDAO();
+
+    private static final int PAGE_SIZE = 100;
+    private static final int MAX_CACHED_PAGES = 20;
 
     private ObservableList<EmployeeDisplay> employeeList = FXCollections.observableArrayList();
+    private PagedList<EmployeeDisplay> employeePages;
 
     @FXML
     public void initialize() {
@@ -54,6 +60,62 @@ public class EmployeeController {
         setupTableDoubleClick();
         makeQRColumnCopyable();
         updatePaginationLabel();
+        ChangeEventBus.subscribeOnFxThread(this::onDataChanged);
+    }
+
+    /**
+     * Reload the screen's data when it is shown again
+     */
+    @Override
+    public void refresh() {
+        String searchTerm = searchField.getText();
+        if (searchTerm == null || searchTerm.isEmpty()) {
+            loadEmployees();
+        } else {
+            searchEmployees(searchTerm);
+        }
+    }
+
+    /**
+     * Apply a batch of employee changes: an edited employee's row is read
+     * again in place (keeping the scroll position); adds and deletes change
+     * the row count, so the list is rebuilt once for the batch.
+     */
+    private void onDataChanged(List<ChangeEventBus.ChangeEvent> events) {
+        boolean rebuild = false;
+
+        for (ChangeEventBus.ChangeEvent event : events) {
+            if (event.type == ChangeEventBus.Type.EMPLOYEE_UPDATED) {
+                if (employeeTable.getItems() == employeePages) {
+                    employeePages.invalidate(event.id);
+                } else {
+                    rebuild |= !replaceSearchRow(event.id);
+                }
+            } else if (event.isEmployee()) {
+                rebuild = true;
+            }
+        }
+
+        if (rebuild) {
+            refresh();
+        }
+    }
+
+    // Re-read one row of the search results; false if it could not be read
+    private boolean replaceSearchRow(int employeeId) {
+        for (int i = 0; i < employeeList.size(); i++) {
+            if (employeeList.get(i).getId() == employeeId) {
+                try {
+                    List<EmployeeDisplay> rows = employeeDAO.getEmployeeDisplaysAfter(employeeId - 1, 1);
+                    if (rows.isEmpty() || rows.get(0).getId() != employeeId) return false;
+                    employeeList.set(i, rows.get(0));
+                } catch (SQLException e) {
+                    return false;
+                }
+                return true;
+            }
+        }
+        return true; // not in the results
     }
 
     private void setupTableColumns() {
@@ -77,32 +139,28 @@ public class EmployeeController {
             }
         });
 
-        employeeTable.setItems(employeeList);
+        // The paged list can't be sorted in memory (the default policy would copy every
+        // page on the FX thread and then fail); it stays in id order. Search results sort.
+        employeeTable.setSortPolicy(table -> {
+            if (table.getItems() == employeePages) {
+                return false;
+            }
+            return TableView.DEFAULT_SORT_POLICY.call(table);
+        });
     }
 
     private void loadEmployees() {
         try {
-            employeeList.clear();
-            List<Employee> employees = employeeDAO.getAllEmployees();
-
-            for (Employee emp : employees) {
-                Department dept = departmentDAO.getDepartmentById(emp.getDepartmentId());
-                Position pos = positionDAO.getPositionById(emp.getPositionId());
-
-                String deptName = (dept != null) ? dept.getName() : "Unknown";
-                String posTitle = (pos != null) ? pos.getTitle() : "Unknown";
-                double hourlyRate = (pos != null) ? pos.getHourlyRate() : 0.0;
-
-                employeeList.add(new EmployeeDisplay(
-                        emp.getId(),
-                        emp.getQrCode(),
-                        emp.getName(),
-                        posTitle,
-                        deptName,
-                        emp.getStatus(),
-                        hourlyRate
-                ));
+            if (employeePages != null) {
+                employeePages.dispose();
             }
+
+            // Rows are fetched a page at a time as the table scrolls
+            int total = employeeDAO.getEmployeeCount();
+            employeePages = new PagedList<>(employeeDAO::getEmployeeDisplaysAfter, EmployeeDisplay::getId,
+                    total, PAGE_SIZE, MAX_CACHED_PAGES);
+            employeeTable.getSortOrder().clear();
+            employeeTable.setItems(employeePages);
             updatePaginationLabel();
         } catch (SQLException e) {
             showError("Failed to load employees: " + e.getMessage());
@@ -111,7 +169,7 @@ public class EmployeeController {
     }
 
     private void updatePaginationLabel() {
-        int count = employeeList.size();
+        int count = employeeTable.getItems().size();
         paginationLabel.setText("Showing " + count + " employee(s)");
     }
 
@@ -127,27 +185,8 @@ public class EmployeeController {
 
     private void searchEmployees(String searchTerm) {
         try {
-            employeeList.clear();
-            List<Employee> employees = employeeDAO.searchEmployeesByName(searchTerm);
-
-            for (Employee emp : employees) {
-                Department dept = departmentDAO.getDepartmentById(emp.getDepartmentId());
-                Position pos = positionDAO.getPositionById(emp.getPositionId());
-
-                String deptName = (dept != null) ? dept.getName() : "Unknown";
-                String posTitle = (pos != null) ? pos.getTitle() : "Unknown";
-                double hourlyRate = (pos != null) ? pos.getHourlyRate() : 0.0;
-
-                employeeList.add(new EmployeeDisplay(
-                        emp.getId(),
-                        emp.getQrCode(),
-                        emp.getName(),
-                        posTitle,
-                        deptName,
-                        emp.getStatus(),
-                        hourlyRate
-                ));
-            }
+            employeeList.setAll(employeeDAO.searchEmployeeDisplaysByName(searchTerm));
+            employeeTable.setItems(employeeList);
             updatePaginationLabel();
         } catch (SQLException e) {
             showError("Search failed: " + e.getMessage());
@@ -193,7 +232,6 @@ public class EmployeeController {
             try {
                 employeeDAO.deleteEmployee(selected.getId());
                 showInfo("Employee deleted successfully");
-                loadEmployees();
             } catch (SQLException e) {
                 showError("Failed to delete employee: " + e.getMessage());
             }
@@ -211,8 +249,6 @@ public class EmployeeController {
                 controller.setEmployee(employee);
             }
 
-            controller.setOnSaveCallback(() -> loadEmployees());
-
             Stage stage = new Stage();
             stage.setTitle(employee == null ? "Add New Employee" : "Edit Employee");
             stage.setScene(new Scene(root));
@@ -227,7 +263,8 @@ public class EmployeeController {
 
     @FXML
     private void handleExport() {
-        if (employeeList.isEmpty()) {
+        List<EmployeeDisplay> rows = employeeTable.getItems();
+        if (rows.isEmpty()) {
             showWarning("No employees to export!");
             return;
         }
@@ -242,32 +279,113 @@ public class EmployeeController {
 
         Stage stage = (Stage) employeeTable.getScene().getWindow();
         File file = fileChooser.showSaveDialog(stage);
+        if (file == null) {
+            return;
+        }
 
-        if (file != null) {
-            try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
-                // Write CSV header
-                writer.println("QR Code,Name,Position,Department,Hourly Rate,Status");
-
-                // Write employee data
-                for (EmployeeDisplay emp : employeeList) {
-                    writer.printf("%s,%s,%s,%s,%.2f,%s%n",
-                            emp.getQrCode(),
-                            emp.getName(),
-                            emp.getPositionTitle(),
-                            emp.getDepartmentName(),
-                            emp.getHourlyRate(),
-                            emp.getStatus()
-                    );
+        // The full directory is read page by page off the FX thread rather than through the
+        // paged list, which would load each page synchronously; search results are in memory.
+        List<EmployeeDisplay> searchResults = rows == employeePages ? null : new ArrayList<>(rows);
+
+        Task<Integer> exportTask = new Task<>() {
+            @Override
+            protected Integer call() throws Exception {
+                try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+                    // Write CSV header
+                    writer.println("QR Code,Name,Position,Department,Hourly Rate,Status");
+
+                    int written = 0;
+                    if (searchResults != null) {
+                        written = writeExportRows(writer, searchResults);
+                    } else {
+                        int afterId = 0;
+                        List<EmployeeDisplay> page;
+                        while (!(page = employeeDAO.getEmployeeDisplaysAfter(afterId, PAGE_SIZE)).isEmpty()) {
+                            written += writeExportRows(writer, page);
+                            afterId = page.get(page.size() - 1).getId();
+                        }
+                    }
+
+                    // PrintWriter swallows write errors; surface them instead of reporting success
+                    if (writer.checkError()) {
+                        throw new IOException("Could not write " + file.getName());
+                    }
+                    return written;
                 }
+            }
+        };
 
+        exportTask.setOnSucceeded(event ->
                 showInfo("Export successful!\n\n" +
-                        employeeList.size() + " employees exported to:\n" +
-                        file.getAbsolutePath());
+                        exportTask.getValue() + " employees exported to:\n" +
+                        file.getAbsolutePath()));
 
-            } catch (Exception e) {
-                showError("Export failed: " + e.getMessage());
-            }
+        exportTask.setOnFailed(event ->
+                showError("Export failed: " + exportTask.getException().getMessage()));
+
+        Thread thread = new Thread(exportTask, "employee-export");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static int writeExportRows(PrintWriter writer, List<EmployeeDisplay> rows) {
+        int written = 0;
+        for (EmployeeDisplay emp : rows) {
+            if (emp == null) continue;
+
+            writer.printf("%s,%s,%s,%s,%.2f,%s%n",
+                    emp.getQrCode(),
+                    emp.getName(),
+                    emp.getPositionTitle(),
+                    emp.getDepartmentName(),
+                    emp.getHourlyRate(),
+                    emp.getStatus()
+            );
+            written++;
         }
+        return written;
+    }
+
+    @FXML
+    private void handlePrintBadges() {
+        DirectoryChooser directoryChooser = new DirectoryChooser();
+        directoryChooser.setTitle("Choose Folder for Badge Sheets");
+
+        Stage stage = (Stage) employeeTable.getScene().getWindow();
+        File directory = directoryChooser.showDialog(stage);
+        if (directory == null) {
+            return;
+        }
+
+        Task<BadgeSheetGenerator.BadgeResult> badgeTask = new Task<>() {
+            @Override
+            protected BadgeSheetGenerator.BadgeResult call() throws Exception {
+                List<EmployeeDisplay> active = new ArrayList<>();
+                for (EmployeeDisplay emp : employeeDAO.getAllEmployeeDisplays()) {
+                    if ("active".equals(emp.getStatus())) {
+                        active.add(emp);
+                    }
+                }
+                return BadgeSheetGenerator.generateSheets(active, directory, null);
+            }
+        };
+
+        badgeTask.setOnSucceeded(event -> {
+            BadgeSheetGenerator.BadgeResult result = badgeTask.getValue();
+            if (result.badges == 0) {
+                showWarning("No active employees to print badges for!");
+                return;
+            }
+            showInfo(String.format("Badge sheets saved!\n\n%,d badges on %,d sheets (%,d ms)\n\n%s",
+                    result.badges, result.sheets, result.elapsedMillis, directory.getAbsolutePath()));
+        });
+
+        badgeTask.setOnFailed(event ->
+                showError("Badge generation failed: " + badgeTask.getException().getMessage()));
+
+        Thread thread = new Thread(badgeTask, "badge-print");
+        thread.setDaemon(true);
+        thread.start();
     }
 
     @FXML
@@ -366,36 +484,4 @@ public class EmployeeController {
         alert.setContentText(message);
         alert.showAndWait();
     }
-
-    /**
-     * Display class for TableView
-     */
-    public static class EmployeeDisplay {
-        private final int id;
-        private final String qrCode;
-        private final String name;
-        private final String positionTitle;
-        private final String departmentName;
-        private final String status;
-        private final double hourlyRate;
-
-        public EmployeeDisplay(int id, String qrCode, String name, String positionTitle,
-                               String departmentName, String status, double hourlyRate) {
-            this.id = id;
-            this.qrCode = qrCode;
-            this.name = name;
-            this.positionTitle = positionTitle;
-            this.departmentName = departmentName;
-            this.status = status;
-            this.hourlyRate = hourlyRate;
-        }
-
-        public int getId() { return id; }
-        public String getQrCode() { return qrCode; }
-        public String getName() { return name; }
-        public String getPositionTitle() { return positionTitle; }
-        public String getDepartmentName() { return departmentName; }
-        public String getStatus() { return status; }
-        public double getHourlyRate() { return hourlyRate; }
-    }
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import dao.DepartmentDAO;
 import dao.PositionDAO;
 import dao.ShiftDAO;
 import javafx.collections.FXCollections;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.image.Image;
@@ -16,8 +17,10 @@ import models.Position;
 import models.Shift;
 import utils.QRCodeGenerator;
 import utils.ImageHelper;
+import utils.ImageIngestor;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.List;
@@ -123,22 +126,47 @@ public class EmployeeFormController {
     @FXML
     private void handleUploadPhoto() {
         Stage stage = (Stage) uploadPhotoButton.getScene().getWindow();
-        String qrForFilename = generatedQRCode != null ? generatedQRCode : "TEMP_" + System.currentTimeMillis();
 
-        String picturePath = ImageHelper.selectAndSaveProfilePicture(stage, qrForFilename);
+        File selectedFile = ImageHelper.chooseProfilePicture(stage);
+        if (selectedFile == null) {
+            return;
+        }
 
-        if (picturePath != null) {
-            currentProfilePicturePath = picturePath;
-            Image image = ImageHelper.loadProfilePicture(picturePath);
-            profilePictureView.setImage(image);
-            ImageHelper.makeCircular(profilePictureView);
+        // Decoding and downscaling a large photo takes a moment; keep the form responsive
+        Task<ImageIngestor.IngestResult> saveTask = new Task<>() {
+            @Override
+            protected ImageIngestor.IngestResult call() throws Exception {
+                return ImageHelper.saveProfilePicture(selectedFile);
+            }
+        };
 
-            photoStatusLabel.setText("✓ Photo selected");
+        saveTask.setOnSucceeded(event -> {
+            ImageIngestor.IngestResult result = saveTask.getValue();
+            currentProfilePicturePath = result.path;
+            ImageHelper.loadProfilePictureIntoView(profilePictureView, result.path);
+
+            photoStatusLabel.setText("✓ Photo selected (" + result.getSavingsText() + ")");
             photoStatusLabel.setStyle("-fx-text-fill: #4CAF50;");
             removePhotoButton.setDisable(false);
+            uploadPhotoButton.setDisable(false);
 
-            System.out.println("✓ Profile picture selected: " + picturePath);
-        }
+            System.out.println("✓ Profile picture selected: " + result.path);
+        });
+
+        saveTask.setOnFailed(event -> {
+            photoStatusLabel.setText("✗ Photo could not be saved");
+            photoStatusLabel.setStyle("-fx-text-fill: #F44336;");
+            uploadPhotoButton.setDisable(false);
+            showError("Could not save profile picture: " + saveTask.getException().getMessage());
+        });
+
+        photoStatusLabel.setText("Processing photo...");
+        photoStatusLabel.setStyle("-fx-text-fill: #757575;");
+        uploadPhotoButton.setDisable(true);
+
+        Thread thread = new Thread(saveTask, "profile-picture-save");
+        thread.setDaemon(true);
+        thread.start();
     }
 
     @FXML
@@ -240,9 +268,7 @@ public class EmployeeFormController {
 
             if (employee.hasProfilePicture()) {
                 currentProfilePicturePath = employee.getProfilePicturePath();
-                Image image = ImageHelper.loadProfilePicture(currentProfilePicturePath);
-                profilePictureView.setImage(image);
-                ImageHelper.makeCircular(profilePictureView);
+                ImageHelper.loadProfilePictureIntoView(profilePictureView, currentProfilePicturePath);
                 photoStatusLabel.setText("✓ Photo loaded");
                 photoStatusLabel.setStyle("-fx-text-fill: #4CAF50;");
                 removePhotoButton.setDisable(false);
@@ -23,6 +23,9 @@ public class LoginController {
 
     private UserDAO userDAO = new UserDAO();
 
+    // Off while the startup database check (and any migration) is still running
+    private boolean loginEnabled = true;
+
     @FXML
     public void initialize() {
         // Set up Enter key listener for password field
@@ -32,11 +35,25 @@ public class LoginController {
         usernameField.setOnAction(event -> passwordField.requestFocus());
     }
 
+    /**
+     * Allow or block logging in; the whole form is disabled while blocked
+     */
+    public void setLoginEnabled(boolean enabled) {
+        loginEnabled = enabled;
+        usernameField.setDisable(!enabled);
+        passwordField.setDisable(!enabled);
+        loginButton.setDisable(!enabled);
+    }
+
     /**
      * Handle login button click
      */
     @FXML
     private void handleLogin() {
+        if (!loginEnabled) {
+            return;
+        }
+
         String username = usernameField.getText().trim();
         String password = passwordField.getText().trim();
 
@@ -11,9 +11,20 @@ import models.User;
 import utils.ResponsiveUI;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public class MainController {
 
+    private static final String DASHBOARD_VIEW = "/fxml/dashboard.fxml";
+    private static final String EMPLOYEES_VIEW = "/fxml/employees.fxml";
+    private static final String ATTENDANCE_VIEW = "/fxml/attendance.fxml";
+    private static final String PAYROLL_VIEW = "/fxml/payroll.fxml";
+    private static final String DEPARTMENTS_VIEW = "/fxml/departments-positions.fxml";
+
     @FXML private StackPane contentArea;
 
     // Buttons for highlighting
@@ -26,6 +37,9 @@ public class MainController {
     private User currentUser;
     private Button activeButton;
 
+    // Screens loaded so far, by FXML path; each is parsed once and refreshed when shown again
+    private final Map<String, CachedView> views = new HashMap<>();
+
     @FXML
     public void initialize() {
         loadDashboard();
@@ -37,6 +51,8 @@ public class MainController {
                 ResponsiveUI.makeResponsive(stage);
                 System.out.println("✓ Responsive UI applied to main window");
             }
+
+            preloadViews(List.of(ATTENDANCE_VIEW, EMPLOYEES_VIEW, PAYROLL_VIEW, DEPARTMENTS_VIEW));
         });
     }
 
@@ -47,31 +63,31 @@ public class MainController {
 
     @FXML
     private void loadDashboard() {
-        loadView("/fxml/dashboard.fxml");
+        loadView(DASHBOARD_VIEW);
         setActiveButton(dashboardButton);
     }
 
     @FXML
     private void loadEmployees() {
-        loadView("/fxml/employees.fxml");
+        loadView(EMPLOYEES_VIEW);
         setActiveButton(employeesButton);
     }
 
     @FXML
     private void loadAttendance() {
-        loadView("/fxml/attendance.fxml");
+        loadView(ATTENDANCE_VIEW);
         setActiveButton(attendanceButton);
     }
 
     @FXML
     private void loadPayroll() {
-        loadView("/fxml/payroll.fxml");
+        loadView(PAYROLL_VIEW);
         setActiveButton(payrollButton);
     }
 
     @FXML
     private void loadDepartments() {
-        loadView("/fxml/departments-positions.fxml");
+        loadView(DEPARTMENTS_VIEW);
         setActiveButton(departmentsButton);
     }
 
@@ -81,16 +97,61 @@ public class MainController {
     }
 
     private void loadView(String fxmlPath) {
+        CachedView cached = views.get(fxmlPath);
+        if (cached != null) {
+            contentArea.getChildren().setAll(cached.node);
+            if (cached.controller instanceof RefreshableView) {
+                ((RefreshableView) cached.controller).refresh();
+            }
+            return;
+        }
+
+        CachedView view = createView(fxmlPath);
+        if (view != null) {
+            contentArea.getChildren().setAll(view.node);
+        }
+    }
+
+    private CachedView createView(String fxmlPath) {
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlPath));
-            Node view = loader.load();
-            contentArea.getChildren().setAll(view);
+            Node node = loader.load();
+            CachedView view = new CachedView(node, loader.getController());
+            views.put(fxmlPath, view);
+            return view;
         } catch (IOException e) {
             System.err.println("Failed to load view: " + fxmlPath);
             e.printStackTrace();
+            return null;
         }
     }
 
+    /**
+     * Load the other screens in the background of the UI, one per pulse
+     *
+     * Controllers start timelines and may show dialogs from initialize(),
+     * so loading stays on the FX thread; queuing one screen per runLater
+     * keeps the window responsive in between.
+     */
+    private void preloadViews(List<String> fxmlPaths) {
+        Deque<String> pending = new ArrayDeque<>(fxmlPaths);
+        Runnable[] next = new Runnable[1];
+        next[0] = () -> {
+            String fxmlPath = pending.poll();
+            if (fxmlPath == null) return;
+
+            if (!views.containsKey(fxmlPath)) {
+                long start = System.currentTimeMillis();
+                if (createView(fxmlPath) != null) {
+                    System.out.println("✓ Preloaded " + fxmlPath + " in " +
+                            (System.currentTimeMillis() - start) + " ms");
+                }
+            }
+            Platform.runLater(next[0]);
+        };
+        Platform.runLater(next[0]);
+    }
+
     private void setActiveButton(Button button) {
         if (activeButton != null) {
             activeButton.setStyle("-fx-background-color: transparent; -fx-text-fill: #333333;");
@@ -99,4 +160,14 @@ public class MainController {
         button.setStyle("-fx-background-color: #4CAF50; -fx-text-fill: white; -fx-font-weight: bold;");
         activeButton = button;
     }
-}
\ No newline at end of file
+
+    private static class CachedView {
+        final Node node;
+        final Object controller;
+
+        CachedView(Node node, Object controller) {
+            this.node = node;
+            this.controller = controller;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package controllers;
 import dao.*;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
@@ -24,16 +25,23 @@ import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
 import java.util.Optional;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.io.FileWriter;
 import java.io.PrintWriter;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 
-public class PayrollController {
+public class PayrollController implements RefreshableView {
 
     @FXML private ComboBox<String> monthCombo;
     @FXML private ComboBox<Integer> yearCombo;
@@ -57,14 +65,19 @@ public class PayrollController {
     private EmployeeDAO employeeDAO = new EmployeeDAO();
     private DepartmentDAO departmentDAO = new DepartmentDAO();
     private PositionDAO positionDAO = new PositionDAO();
-    private AttendanceDAO attendanceDAO = new AttendanceDAO();
+    private AttendanceMonthlyDAO attendanceMonthlyDAO = new AttendanceMonthlyDAO();
+    private PayrollCalculator payrollCalculator = new PayrollCalculator();
     private PayrollAdjustmentDAO adjustmentDAO = new PayrollAdjustmentDAO();
     private SalaryHoldDAO salaryHoldDAO = new SalaryHoldDAO();
+    private PayrollDirtyDAO payrollDirtyDAO = new PayrollDirtyDAO();
+    private PayrollYtdDAO payrollYtdDAO = new PayrollYtdDAO();
 
     private ObservableList<PayrollDisplay> payrollList = FXCollections.observableArrayList();
     private int selectedMonth;
     private int selectedYear;
     private int currentUserId = 1;  // TODO: Get from session
+    private int loadGeneration = 0;  // bumped whenever the table contents are replaced
+    private long calculatedDirtyThrough = 0;  // newest change mark the calculated rows include (0 = loaded, not calculated)
 
     @FXML
     public void initialize() {
@@ -78,6 +91,15 @@ public class PayrollController {
         selectedYear = DateTimeHelper.getCurrentYear();
 
         loadExistingPayroll();
+        ChangeEventBus.subscribeOnFxThread(this::onDataChanged);
+    }
+
+    /**
+     * Reload the screen's data when it is shown again
+     */
+    @Override
+    public void refresh() {
+        loadExistingPayroll();
     }
 
     private void setupMonthCombo() {
@@ -341,47 +363,121 @@ public class PayrollController {
     }
 
     private void loadExistingPayroll() {
+        loadExistingPayroll(null);
+    }
+
+    /**
+     * Show hold changes on the affected rows in place, so calculated but
+     * unsaved rows are kept. Closed periods show the holds as they were at
+     * closing and are left alone.
+     */
+    private void onDataChanged(List<ChangeEventBus.ChangeEvent> events) {
+        Set<Integer> holdChanged = new HashSet<>();
+        for (ChangeEventBus.ChangeEvent event : events) {
+            if (event.type == ChangeEventBus.Type.HOLD_CHANGED && event.employeeId > 0) {
+                holdChanged.add(event.employeeId);
+            }
+        }
+        if (holdChanged.isEmpty() || PayrollSnapshot.isClosed(selectedYear, selectedMonth)) return;
+
         try {
-            payrollList.clear();
-            List<Payroll> existingPayroll = payrollDAO.getPayrollByPeriod(selectedMonth, selectedYear);
+            Set<Integer> held = salaryHoldDAO.getHeldEmployeeIds();
+            for (PayrollDisplay row : payrollList) {
+                if (holdChanged.contains(row.getEmployeeId())) {
+                    row.setHoldStatus(held.contains(row.getEmployeeId()) ? "🔒 HELD" : "");
+                }
+            }
+            payrollTable.refresh();
+        } catch (SQLException e) {
+            System.err.println("Failed to update hold status: " + e.getMessage());
+        }
+    }
 
-            for (Payroll payroll : existingPayroll) {
-                Employee emp = employeeDAO.getEmployeeById(payroll.getEmployeeId());
-                if (emp == null) continue;
+    /**
+     * Show the saved payroll for the selected period
+     *
+     * Everything displayed was stored when the period was processed, so this
+     * is one joined query (or a snapshot read for closed periods), run off
+     * the FX thread.
+     * @param onLoaded run on the FX thread once the table is filled (may be null)
+     */
+    private void loadExistingPayroll(Runnable onLoaded) {
+        int month = selectedMonth;
+        int year = selectedYear;
+        int generation = ++loadGeneration;
 
-                Position pos = positionDAO.getPositionById(emp.getPositionId());
-                if (pos == null) continue;
+        Task<List<PayrollDAO.PayrollRow>> task = new Task<>() {
+            @Override
+            protected List<PayrollDAO.PayrollRow> call() throws Exception {
+                // Closed periods are served from their snapshot, not the live database
+                return PayrollSnapshot.isClosed(year, month)
+                        ? PayrollSnapshot.read(year, month)
+                        : payrollDAO.getPayrollRowsForPeriod(month, year);
+            }
+        };
 
-                YearMonth yearMonth = YearMonth.of(selectedYear, selectedMonth);
-                String startDate = yearMonth.atDay(1).toString();
-                String endDate = yearMonth.atEndOfMonth().toString();
-                double totalHours = attendanceDAO.getTotalHoursWorked(emp.getId(), startDate, endDate);
+        task.setOnSucceeded(event -> {
+            // A newer load or calculation replaced the table in the meantime
+            if (generation != loadGeneration) return;
 
-                // Calculate government deductions
-                GovernmentDeductionCalculator.GovernmentDeductions govDed =
-                        GovernmentDeductionCalculator.calculateAll(payroll.getBaseSalary());
+            List<PayrollDisplay> rows = new ArrayList<>();
+            for (PayrollDAO.PayrollRow row : task.getValue()) {
+                rows.add(toDisplay(row.payroll, row.qrCode, row.employeeName,
+                        row.currentlyHeld ? "🔒 HELD" : ""));
+            }
+            payrollList.setAll(rows);
+            calculatedDirtyThrough = 0;
+            System.out.println("✓ Loaded " + payrollList.size() + " payroll records");
 
-                // Get adjustments
-                double adjustment = adjustmentDAO.calculateTotalAdjustments(
-                        emp.getId(), startDate, endDate);
+            if (onLoaded != null) {
+                onLoaded.run();
+            }
+        });
 
-                // Check if salary is held
-                boolean isHeld = salaryHoldDAO.isSalaryHeld(emp.getId());
-                String holdStatus = isHeld ? "🔒 HELD" : "";
+        task.setOnFailed(event -> {
+            if (generation != loadGeneration) return;
 
-                payrollList.add(new PayrollDisplay(
-                        emp.getId(), emp.getQrCode(), emp.getName(),
-                        totalHours, pos.getHourlyRate(), payroll.getBaseSalary(),
-                        govDed.total, adjustment, payroll.getFinalSalary(),
-                        holdStatus, payroll.getNotes()
-                ));
+            payrollList.clear();
+            calculatedDirtyThrough = 0;
+            System.out.println("No existing payroll for " + month + "/" + year + ": " +
+                    task.getException().getMessage());
+
+            if (onLoaded != null) {
+                onLoaded.run();
             }
+        });
 
-            System.out.println("✓ Loaded " + payrollList.size() + " payroll records");
+        Thread thread = new Thread(task, "payroll-load");
+        thread.setDaemon(true);
+        thread.start();
+    }
 
-        } catch (SQLException e) {
-            System.out.println("No existing payroll for " + selectedMonth + "/" + selectedYear);
-        }
+    /**
+     * Table row from a saved payroll record
+     */
+    private PayrollDisplay toDisplay(Payroll payroll, String qrCode, String employeeName, String holdStatus) {
+        PayrollDisplay display = new PayrollDisplay(
+                payroll.getEmployeeId(), qrCode, employeeName,
+                payroll.getHoursWorked(), payroll.getHourlyRate(), payroll.getBaseSalary(),
+                payroll.getTotalDeductions(), payroll.getTotalAdjustments(), payroll.getFinalSalary(),
+                holdStatus, payroll.getNotes()
+        );
+        display.setDeductionBreakdown(payroll.getSssDeduction(), payroll.getPhilHealthDeduction(),
+                payroll.getPagIbigDeduction());
+        return display;
+    }
+
+    /**
+     * Copy everything shown in the table onto the payroll record to be saved
+     */
+    private void applyDisplayFields(Payroll payroll, PayrollDisplay display) {
+        payroll.setHoursWorked(display.getHoursWorked());
+        payroll.setHourlyRate(display.getHourlyRate());
+        payroll.setSssDeduction(display.getSssDeduction());
+        payroll.setPhilHealthDeduction(display.getPhilHealthDeduction());
+        payroll.setPagIbigDeduction(display.getPagIbigDeduction());
+        payroll.setTotalAdjustments(display.getAdjustment());
+        payroll.setHeld(!display.getHoldStatus().isEmpty());
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -518,6 +614,7 @@ public class PayrollController {
         java.util.List<EmailService.EmployeePayslip> payslips = new java.util.ArrayList<>();
 
         try {
+            GovernmentDeductionCalculator.RateTable rates = GovernmentDeductionCalculator.RateTable.load();
             for (PayrollDisplay pd : payrollList) {
                 Employee emp = employeeDAO.getEmployeeById(pd.getEmployeeId());
 
@@ -529,7 +626,7 @@ public class PayrollController {
                 Position pos = positionDAO.getPositionById(emp.getPositionId());
                 Department dept = departmentDAO.getDepartmentById(emp.getDepartmentId());
                 GovernmentDeductionCalculator.GovernmentDeductions govDed =
-                        GovernmentDeductionCalculator.calculateAll(pd.getBaseSalary());
+                        rates.calculate(Money.ofPesos(pd.getBaseSalary()));
 
                 YearMonth yearMonth = YearMonth.of(selectedYear, selectedMonth);
                 String startDate = yearMonth.atDay(1).toString();
@@ -709,29 +806,37 @@ public class PayrollController {
         selectedMonth = DateTimeHelper.getMonthNumber(monthCombo.getValue());
         selectedYear = yearCombo.getValue();
 
-        loadExistingPayroll();
+        if (PayrollSnapshot.isClosed(selectedYear, selectedMonth)) {
+            loadExistingPayroll();
+            showInfo(monthCombo.getValue() + " " + selectedYear + " is closed.\n\n" +
+                    "Showing the final payroll saved when the period was closed.");
+            return;
+        }
 
-        if (!payrollList.isEmpty()) {
-            Alert alert = new Alert(Alert.AlertType.INFORMATION);
-            alert.setTitle("Existing Payroll Found");
-            alert.setHeaderText(payrollList.size() + " employee(s) already processed");
-            alert.setContentText("Payroll loaded from database.\n\n" +
-                    "Options:\n" +
-                    "• Click 'Recalculate' to override with latest data\n" +
-                    "• Use 'Calculate Individual' for specific employees\n" +
-                    "• Use 'Add Adjustment' for bonuses/deductions");
-
-            ButtonType recalcBtn = new ButtonType(" Recalculate All", ButtonBar.ButtonData.OK_DONE);
-            ButtonType cancelBtn = new ButtonType("Keep Existing", ButtonBar.ButtonData.CANCEL_CLOSE);
-            alert.getButtonTypes().setAll(recalcBtn, cancelBtn);
-
-            Optional<ButtonType> result = alert.showAndWait();
-            if (result.isEmpty() || result.get() == cancelBtn) {
-                return;
+        // Saved payroll loads in the background; decide once it is on screen
+        loadExistingPayroll(() -> {
+            if (!payrollList.isEmpty()) {
+                Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                alert.setTitle("Existing Payroll Found");
+                alert.setHeaderText(payrollList.size() + " employee(s) already processed");
+                alert.setContentText("Payroll loaded from database.\n\n" +
+                        "Options:\n" +
+                        "• Click 'Recalculate' to override with latest data\n" +
+                        "• Use 'Calculate Individual' for specific employees\n" +
+                        "• Use 'Add Adjustment' for bonuses/deductions");
+
+                ButtonType recalcBtn = new ButtonType(" Recalculate All", ButtonBar.ButtonData.OK_DONE);
+                ButtonType cancelBtn = new ButtonType("Keep Existing", ButtonBar.ButtonData.CANCEL_CLOSE);
+                alert.getButtonTypes().setAll(recalcBtn, cancelBtn);
+
+                Optional<ButtonType> result = alert.showAndWait();
+                if (result.isEmpty() || result.get() == cancelBtn) {
+                    return;
+                }
             }
-        }
 
-        calculateAllPayroll();
+            calculateAllPayroll();
+        });
     }
 
     /**
@@ -745,6 +850,8 @@ public class PayrollController {
             return;
         }
 
+        if (isSelectedPeriodClosed()) return;
+
         if (!DialogHelper.showConfirmation("Calculate Payroll",
                 "Recalculate payroll for " + selected.getEmployeeName() + "?\n\n" +
                         "This will update their payroll with:\n" +
@@ -764,12 +871,18 @@ public class PayrollController {
     }
 
     private void calculateIndividualPayroll(int employeeId) throws SQLException {
+        // Closed periods are frozen in their snapshot
+        if (PayrollSnapshot.isClosed(selectedYear, selectedMonth)) return;
+
         Employee emp = employeeDAO.getEmployeeById(employeeId);
         if (emp == null || !"active".equals(emp.getStatus())) return;
 
         Position pos = positionDAO.getPositionById(emp.getPositionId());
         if (pos == null) return;
 
+        // Noted before the inputs are read; see PayrollDirtyDAO
+        long dirtyThrough = payrollDirtyDAO.getLatestSeq();
+
         YearMonth payrollPeriod = YearMonth.of(selectedYear, selectedMonth);
         LocalDate payrollStart = payrollPeriod.atDay(1);
         LocalDate payrollEnd = payrollPeriod.atEndOfMonth();
@@ -783,91 +896,87 @@ public class PayrollController {
         String startDate = payrollStart.toString();
         String endDate = payrollEnd.toString();
 
-        double totalHours = attendanceDAO.getTotalHoursWorked(emp.getId(), startDate, endDate);
+        AttendanceMonthlyDAO.MonthlySummary attendance =
+                attendanceMonthlyDAO.getMonthlySummary(emp.getId(), selectedYear, selectedMonth);
+        double totalHours = attendance.totalHours;
         double hourlyRate = pos.getHourlyRate();
-        double baseSalary = totalHours * hourlyRate;
+
+        // Money in centavos from here on (see Money)
+        long baseSalary = Money.ofPesos(totalHours * hourlyRate);
 
         // Calculate government deductions
         GovernmentDeductionCalculator.GovernmentDeductions govDed =
-                GovernmentDeductionCalculator.calculateAll(baseSalary);
+                GovernmentDeductionCalculator.RateTable.load().calculate(baseSalary);
 
         // Get approved adjustments
-        double adjustment = adjustmentDAO.calculateTotalAdjustments(emp.getId(), startDate, endDate);
+        long adjustment = Money.ofPesos(adjustmentDAO.calculateTotalAdjustments(emp.getId(), startDate, endDate));
 
         // Calculate final salary
-        double finalSalary = baseSalary - govDed.total + adjustment;
+        long finalSalary = baseSalary - govDed.totalCentavos + adjustment;
 
         // Check if exists
         Payroll existing = payrollDAO.getPayrollByEmployeeAndPeriod(emp.getId(), selectedMonth, selectedYear);
 
-        if (existing != null) {
-            existing.setBaseSalary(baseSalary);
-            existing.setTotalDeductions(govDed.total);
-            existing.setFinalSalary(finalSalary);
-            payrollDAO.updatePayroll(existing);
-        } else {
-            Payroll payroll = new Payroll(
-                    emp.getId(), selectedMonth, selectedYear,
-                    baseSalary, govDed.total, finalSalary,
-                    0, 0, DateTimeHelper.getCurrentDate(), ""
-            );
-            payrollDAO.addPayroll(payroll);
-        }
+        Payroll payroll = existing != null ? existing : new Payroll(
+                emp.getId(), selectedMonth, selectedYear, 0, 0, 0,
+                attendance.lateDays, attendance.absentDays, DateTimeHelper.getCurrentDate(), ""
+        );
+        payroll.setBaseSalaryCentavos(baseSalary);
+        payroll.setTotalDeductionsCentavos(govDed.totalCentavos);
+        payroll.setFinalSalaryCentavos(finalSalary);
+        payroll.setLateCount(attendance.lateDays);
+        payroll.setAbsentCount(attendance.absentDays);
+        payroll.setHoursWorked(totalHours);
+        payroll.setHourlyRate(hourlyRate);
+        payroll.setSssDeductionCentavos(govDed.sssCentavos);
+        payroll.setPhilHealthDeductionCentavos(govDed.philHealthCentavos);
+        payroll.setPagIbigDeductionCentavos(govDed.pagIbigCentavos);
+        payroll.setTotalAdjustmentsCentavos(adjustment);
+        payroll.setHeld(salaryHoldDAO.isSalaryHeld(emp.getId()));
+
+        payrollDAO.savePeriod(List.of(payroll), selectedYear, selectedMonth, dirtyThrough);
     }
 
+    /**
+     * Calculate payroll for the period, only recomputing employees whose
+     * inputs changed since their payroll was last saved
+     */
     private void calculateAllPayroll() {
         try {
+            loadGeneration++;
             payrollList.clear();
             List<Employee> employees = departmentFilterCombo.getValue() != null ?
                     employeeDAO.getEmployeesByDepartment(departmentFilterCombo.getValue().getId()) :
                     employeeDAO.getActiveEmployees();
 
-            YearMonth payrollPeriod = YearMonth.of(selectedYear, selectedMonth);
-            LocalDate payrollStart = payrollPeriod.atDay(1);
-            LocalDate payrollEnd = payrollPeriod.atEndOfMonth();
-
-            int processed = 0;
-            for (Employee emp : employees) {
-                if (!"active".equals(emp.getStatus())) continue;
-
-                LocalDate hireDate = LocalDate.parse(emp.getHireDate());
-                if (hireDate.isAfter(payrollEnd)) continue;
-
-                Position pos = positionDAO.getPositionById(emp.getPositionId());
-                if (pos == null) continue;
-
-                String startDate = payrollStart.toString();
-                String endDate = payrollEnd.toString();
-
-                double totalHours = attendanceDAO.getTotalHoursWorked(emp.getId(), startDate, endDate);
-                double hourlyRate = pos.getHourlyRate();
-                double baseSalary = totalHours * hourlyRate;
-
-                // Calculate government deductions
-                GovernmentDeductionCalculator.GovernmentDeductions govDed =
-                        GovernmentDeductionCalculator.calculateAll(baseSalary);
-
-                // Get adjustments
-                double adjustment = adjustmentDAO.calculateTotalAdjustments(emp.getId(), startDate, endDate);
-
-                double netPay = baseSalary - govDed.total + adjustment;
-
-                // Check hold status
-                boolean isHeld = salaryHoldDAO.isSalaryHeld(emp.getId());
-                String holdStatus = isHeld ? "🔒 HELD" : "";
+            PayrollCalculator.PeriodResult result =
+                    payrollCalculator.calculate(selectedYear, selectedMonth, employees);
+            calculatedDirtyThrough = result.dirtyThrough;
 
-                payrollList.add(new PayrollDisplay(
+            for (PayrollCalculator.Line line : result.lines) {
+                Employee emp = line.employee;
+                PayrollDisplay display = new PayrollDisplay(
                         emp.getId(), emp.getQrCode(), emp.getName(),
-                        totalHours, hourlyRate, baseSalary, govDed.total,
-                        adjustment, netPay, holdStatus, ""
-                ));
-                processed++;
+                        line.hoursWorked, line.hourlyRate, Money.toPesos(line.grossCentavos),
+                        Money.toPesos(line.deductionsCentavos), Money.toPesos(line.adjustmentCentavos),
+                        Money.toPesos(line.netCentavos), line.held ? "🔒 HELD" : "", line.notes
+                );
+                display.setDeductionBreakdown(Money.toPesos(line.sssCentavos),
+                        Money.toPesos(line.philHealthCentavos), Money.toPesos(line.pagIbigCentavos));
+                payrollList.add(display);
             }
 
+            int processed = result.lines.size();
+            int recalculated = result.recalculated;
+            System.out.println("✓ Payroll calculated: " + recalculated + " recalculated, " +
+                    (processed - recalculated) + " unchanged");
+
             if (processed == 0) {
                 showWarning("No employees found for the selected period!");
             } else {
-                showInfo("Payroll calculated for " + processed + " employees!\n\n" +
+                showInfo("Payroll calculated for " + processed + " employees!\n" +
+                        "(" + recalculated + " recalculated, " + (processed - recalculated) +
+                        " unchanged since last save)\n\n" +
                         "Includes:\n" +
                         "• Hours worked × Hourly rate\n" +
                         "• Government deductions (SSS, PhilHealth, Pag-IBIG)\n" +
@@ -888,6 +997,8 @@ public class PayrollController {
             return;
         }
 
+        if (isSelectedPeriodClosed()) return;
+
         if (!DialogHelper.showConfirmation("Process payroll for " + payrollList.size() + " employees?\n\n" +
                 "This will save all records to the database with government deductions.")) {
             return;
@@ -897,18 +1008,22 @@ public class PayrollController {
             String today = DateTimeHelper.getCurrentDate();
             int processed = 0;
             int updated = 0;
+            Map<Integer, Payroll> existingPayroll = new HashMap<>();
+            for (Payroll payroll : payrollDAO.getPayrollByPeriod(selectedMonth, selectedYear)) {
+                existingPayroll.put(payroll.getEmployeeId(), payroll);
+            }
 
+            List<Payroll> toSave = new ArrayList<>();
             for (PayrollDisplay pd : payrollList) {
-                Payroll existing = payrollDAO.getPayrollByEmployeeAndPeriod(
-                        pd.getEmployeeId(), selectedMonth, selectedYear
-                );
+                Payroll existing = existingPayroll.get(pd.getEmployeeId());
 
                 if (existing != null) {
                     existing.setBaseSalary(pd.getBaseSalary());
                     existing.setTotalDeductions(pd.getGovDeductions());
                     existing.setFinalSalary(pd.getNetPay());
                     existing.setNotes(pd.getNotes());
-                    payrollDAO.updatePayroll(existing);
+                    applyDisplayFields(existing, pd);
+                    toSave.add(existing);
                     updated++;
                 } else {
                     Payroll payroll = new Payroll(
@@ -916,11 +1031,15 @@ public class PayrollController {
                             pd.getBaseSalary(), pd.getGovDeductions(), pd.getNetPay(),
                             0, 0, today, pd.getNotes()
                     );
-                    payrollDAO.addPayroll(payroll);
+                    applyDisplayFields(payroll, pd);
+                    toSave.add(payroll);
                     processed++;
                 }
             }
 
+            // Saved with the change marks the calculation covered, in one transaction
+            payrollDAO.savePeriod(toSave, selectedYear, selectedMonth, calculatedDirtyThrough);
+
             showInfo("✓ Payroll Processing Complete!\n\n" +
                     "New: " + processed + " | Updated: " + updated + "\n" +
                     "Data saved with government deductions!");
@@ -932,6 +1051,181 @@ public class PayrollController {
         }
     }
 
+    /**
+     * Close the selected period: freeze its saved payroll into a read-only snapshot
+     */
+    @FXML
+    private void handleClosePeriod() {
+        selectedMonth = DateTimeHelper.getMonthNumber(monthCombo.getValue());
+        selectedYear = yearCombo.getValue();
+        String period = monthCombo.getValue() + " " + selectedYear;
+
+        if (PayrollSnapshot.isClosed(selectedYear, selectedMonth)) {
+            showInfo(period + " is already closed.");
+            return;
+        }
+
+        if (!DialogHelper.showConfirmation("Close Period",
+                "Close payroll for " + period + "?\n\n" +
+                        "The processed payroll will be frozen and can no longer be\n" +
+                        "recalculated or reprocessed. Make sure 'Process All' was run.")) {
+            return;
+        }
+
+        try {
+            Path snapshot = PayrollSnapshot.closePeriod(selectedYear, selectedMonth);
+            showInfo("✓ " + period + " closed!\n\nSnapshot: " + snapshot.toAbsolutePath());
+            loadExistingPayroll();
+        } catch (IllegalStateException e) {
+            showWarning(e.getMessage());
+        } catch (SQLException | IOException e) {
+            showError("Failed to close period: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Compute 13th-month pay for the selected year and save it as a report
+     */
+    @FXML
+    private void handleThirteenthMonthPay() {
+        int year = yearCombo.getValue();
+
+        try {
+            List<PayrollYtdDAO.ThirteenthMonthPay> results = payrollYtdDAO.getThirteenthMonthPay(year);
+            if (results.isEmpty()) {
+                showWarning("No processed payroll found for " + year + "!");
+                return;
+            }
+
+            double total = 0;
+            for (PayrollYtdDAO.ThirteenthMonthPay pay : results) {
+                total += pay.amount;
+            }
+
+            if (!DialogHelper.showConfirmation("13th Month Pay " + year,
+                    String.format("%d employee(s)\nTotal 13th month pay: ₱%,.2f\n\nSave the report?",
+                            results.size(), total))) {
+                return;
+            }
+
+            FileChooser fileChooser = new FileChooser();
+            fileChooser.setTitle("Save 13th Month Pay Report");
+            fileChooser.setInitialFileName("13th_month_" + year + ".txt");
+            fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Text Files", "*.txt"));
+
+            Stage stage = (Stage) payrollTable.getScene().getWindow();
+            File file = fileChooser.showSaveDialog(stage);
+            if (file == null) return;
+
+            try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+                writer.println("═══════════════════════════════════════════════════════════════════════");
+                writer.println("                    13TH MONTH PAY REPORT");
+                writer.println("                          " + year);
+                writer.println("═══════════════════════════════════════════════════════════════════════\n");
+
+                writer.println(String.format("%-20s %-25s %8s %16s %15s",
+                        "QR Code", "Name", "Months", "Basic Pay", "13th Month"));
+                writer.println("───────────────────────────────────────────────────────────────────────");
+
+                for (PayrollYtdDAO.ThirteenthMonthPay pay : results) {
+                    writer.println(String.format("%-20s %-25s %8d ₱%15.2f ₱%14.2f",
+                            pay.qrCode,
+                            pay.employeeName.length() > 25 ? pay.employeeName.substring(0, 22) + "..." : pay.employeeName,
+                            pay.monthsPaid,
+                            pay.basicPay,
+                            pay.amount
+                    ));
+                }
+
+                writer.println("───────────────────────────────────────────────────────────────────────");
+                writer.println(String.format("%-20s %-25s %8s %16s ₱%14.2f", "", "TOTAL", "", "", total));
+                writer.println("═══════════════════════════════════════════════════════════════════════");
+                writer.println("\nGenerated: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("MMM dd, yyyy hh:mm a")));
+            }
+
+            showInfo("✓ 13th Month Pay Report Saved!\n\n" + file.getAbsolutePath());
+
+        } catch (SQLException | IOException e) {
+            showError("13th month computation failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Render PDF payslips for every saved payroll of the period into a zip file
+     */
+    @FXML
+    private void handleBulkPayslips() {
+        int year = selectedYear;
+        int month = selectedMonth;
+
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Save Payslips");
+        fileChooser.setInitialFileName(String.format("payslips_%d-%02d.zip", year, month));
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Zip Archives", "*.zip"));
+
+        Stage stage = (Stage) payrollTable.getScene().getWindow();
+        File file = fileChooser.showSaveDialog(stage);
+        if (file == null) return;
+
+        Task<PayslipRenderer.RenderResult> task = new Task<>() {
+            @Override
+            protected PayslipRenderer.RenderResult call() throws Exception {
+                return new PayslipRenderer().renderToZip(year, month, file, (done, total) -> {
+                    updateProgress(done, total);
+                    updateMessage(String.format("%,d of %,d payslips", done, total));
+                });
+            }
+        };
+
+        ProgressBar progressBar = new ProgressBar();
+        progressBar.setPrefWidth(320);
+        progressBar.progressProperty().bind(task.progressProperty());
+        Label progressLabel = new Label();
+        progressLabel.textProperty().bind(task.messageProperty());
+
+        Alert progressDialog = new Alert(Alert.AlertType.NONE, null, ButtonType.CANCEL);
+        progressDialog.setTitle("Bulk Payslips");
+        progressDialog.setHeaderText("Rendering payslips for " + monthCombo.getValue() + " " + year);
+        progressDialog.getDialogPane().setContent(new VBox(10, progressBar, progressLabel));
+        progressDialog.setOnHidden(event -> task.cancel());
+
+        task.setOnSucceeded(event -> {
+            progressDialog.close();
+            PayslipRenderer.RenderResult result = task.getValue();
+            if (result.count == 0) {
+                showWarning("No processed payroll found for " + monthCombo.getValue() + " " + year +
+                        "!\n\nProcess the payroll first.");
+                return;
+            }
+            showInfo("✓ Payslips Saved!\n\n" +
+                    String.format("Payslips: %,d\nTime: %,d ms (%,.0f payslips/sec)\n\n",
+                            result.count, result.elapsedMillis, result.getPayslipsPerSecond()) +
+                    file.getAbsolutePath());
+        });
+
+        task.setOnFailed(event -> {
+            progressDialog.close();
+            showError("Failed to render payslips: " + task.getException().getMessage());
+        });
+
+        Thread thread = new Thread(task, "payslip-bulk");
+        thread.setDaemon(true);
+        thread.start();
+        progressDialog.show();
+    }
+
+    /**
+     * Warn and return true if the selected period is closed (read-only)
+     */
+    private boolean isSelectedPeriodClosed() {
+        if (PayrollSnapshot.isClosed(selectedYear, selectedMonth)) {
+            showWarning(DateTimeHelper.getMonthName(selectedMonth) + " " + selectedYear +
+                    " is closed - its payroll can no longer be changed.");
+            return true;
+        }
+        return false;
+    }
+
     @FXML
     private void handleManualAdjustment() {
         PayrollDisplay selected = payrollTable.getSelectionModel().getSelectedItem();
@@ -1144,7 +1438,6 @@ public class PayrollController {
                         if (hold != null) {
                             salaryHoldDAO.releaseSalary(hold.getId(), currentUserId, DateTimeHelper.getCurrentDate());
                             showInfo("✓ Salary released for " + emp.getName());
-                            loadExistingPayroll();
                         }
                     }
                 } else {
@@ -1184,7 +1477,6 @@ public class PayrollController {
                             );
                             salaryHoldDAO.holdSalary(hold);
                             showInfo("✓ Salary held for " + emp.getName() + "\n\nReason: " + reason);
-                            loadExistingPayroll();
                         } catch (SQLException e) {
                             showError("Failed to hold salary: " + e.getMessage());
                         }
@@ -1253,76 +1545,28 @@ public class PayrollController {
                 PayrollDisplay pd,
                 GovernmentDeductionCalculator.GovernmentDeductions govDed,
                 List<PayrollAdjustment> adjustments) {
-            StringBuilder sb = new StringBuilder();
-
-            sb.append("═══════════════════════════════════════════════\n");
-            sb.append("           HR PAYROLL SYSTEM\n");
-            sb.append("              EMPLOYEE PAYSLIP\n");
-            sb.append(String.format("               %s %d\n", monthCombo.getValue(), selectedYear));
-            sb.append("═══════════════════════════════════════════════\n\n");
-
-            sb.append("EMPLOYEE INFORMATION\n");
-            sb.append("─────────────────────────────────────────────\n");
-            sb.append(String.format("Name:             %s\n", emp.getName()));
-            sb.append(String.format("QR Code:          %s\n", emp.getQrCode()));
-            sb.append(String.format("Position:         %s\n", pos.getTitle()));
-            sb.append(String.format("Department:       %s\n\n", dept.getName()));
-
-            sb.append("COMPENSATION BREAKDOWN\n");
-            sb.append("─────────────────────────────────────────────\n");
-            sb.append(String.format("Hourly Rate:      ₱%.2f per hour\n", pd.getHourlyRate()));
-            sb.append(String.format("Hours Worked:     %.2f hours\n", pd.getHoursWorked()));
-            sb.append(String.format("Gross Pay:        ₱%,.2f\n", pd.getBaseSalary()));
-            sb.append(String.format("                  (%.2f hrs × ₱%.2f/hr)\n\n",
-                    pd.getHoursWorked(), pd.getHourlyRate()));
-
-            sb.append("GOVERNMENT DEDUCTIONS\n");
-            sb.append("─────────────────────────────────────────────\n");
-            sb.append(String.format("SSS:              -₱%,.2f\n", govDed.sss));
-            sb.append(String.format("PhilHealth:       -₱%,.2f\n", govDed.philHealth));
-            sb.append(String.format("Pag-IBIG:         -₱%,.2f\n", govDed.pagIbig));
-            sb.append(String.format("Total Deductions: -₱%,.2f\n\n", govDed.total));
-
-            sb.append("ADJUSTMENTS\n");
-            sb.append("─────────────────────────────────────────────\n");
-
-            if (adjustments.isEmpty()) {
-                sb.append("None\n\n");
-            } else {
-                for (PayrollAdjustment adj : adjustments) {
-                    sb.append(String.format("%s %-12s  %s\n",
-                            adj.getTypeEmoji(),
-                            adj.getAdjustmentType() + ":",
-                            adj.getFormattedAmount()));
-                    sb.append(String.format("  Reason: %s\n", adj.getReason()));
-                    sb.append(String.format("  Date: %s\n", adj.getDateApproved()));
-                }
-                sb.append(String.format("\nTotal Adjustments: ₱%,.2f\n\n", pd.getAdjustment()));
-            }
+            EmployeeDisplay employee = new EmployeeDisplay(emp.getId(), emp.getQrCode(), emp.getName(),
+                    pos.getTitle(), dept.getName(), emp.getStatus(), pd.getHourlyRate());
+
+            Payroll payroll = new Payroll(emp.getId(), selectedMonth, selectedYear, pd.getBaseSalary(),
+                    govDed.total, pd.getNetPay(), 0, 0, null, null);
+            payroll.setHoursWorked(pd.getHoursWorked());
+            payroll.setHourlyRate(pd.getHourlyRate());
+            payroll.setSssDeduction(govDed.sss);
+            payroll.setPhilHealthDeduction(govDed.philHealth);
+            payroll.setPagIbigDeduction(govDed.pagIbig);
+            payroll.setTotalAdjustments(pd.getAdjustment());
 
             // Check if held
+            SalaryHold hold = null;
             try {
-                if (salaryHoldDAO.isSalaryHeld(emp.getId())) {
-                    SalaryHold hold = salaryHoldDAO.getActiveHold(emp.getId());
-                    sb.append(" SALARY HOLD NOTICE\n");
-                    sb.append("─────────────────────────────────────────────\n");
-                    sb.append(String.format("Status:           HELD\n"));
-                    sb.append(String.format("Since:            %s\n", hold.getHoldDate()));
-                    sb.append(String.format("Reason:           %s\n\n", hold.getReason()));
-                }
+                hold = salaryHoldDAO.getActiveHold(emp.getId());
             } catch (SQLException e) {
                 // Ignore
             }
 
-            sb.append("═══════════════════════════════════════════════\n");
-            sb.append(String.format("NET PAY:          ₱%,.2f\n", pd.getNetPay()));
-            sb.append("═══════════════════════════════════════════════\n\n");
-
-            sb.append(String.format("Processed: %s\n",
-                    LocalDateTime.now().format(DateTimeFormatter.ofPattern("MMM dd, yyyy hh:mm a"))));
-            sb.append("This is a computer-generated payslip.\n");
-
-            return sb.toString();
+            return PayslipRenderer.formatPayslip(monthCombo.getValue() + " " + selectedYear,
+                    employee, payroll, adjustments, hold, PayslipRenderer.processedNow());
         }
 
         private void handlePrintPayslip(String payslip, String employeeName) {
@@ -1457,6 +1701,9 @@ public class PayrollController {
             private double netPay;
             private String holdStatus;
             private String notes;
+            private double sssDeduction;
+            private double philHealthDeduction;
+            private double pagIbigDeduction;
 
             public PayrollDisplay(int employeeId, String qrCode, String employeeName,
                                   double hoursWorked, double hourlyRate, double baseSalary,
@@ -1487,11 +1734,19 @@ public class PayrollController {
             public double getNetPay() { return netPay; }
             public String getHoldStatus() { return holdStatus; }
             public String getNotes() { return notes; }
+            public double getSssDeduction() { return sssDeduction; }
+            public double getPhilHealthDeduction() { return philHealthDeduction; }
+            public double getPagIbigDeduction() { return pagIbigDeduction; }
 
             // Setters
             public void setAdjustment(double adjustment) { this.adjustment = adjustment; }
             public void setNetPay(double netPay) { this.netPay = netPay; }
             public void setHoldStatus(String holdStatus) { this.holdStatus = holdStatus; }
             public void setNotes(String notes) { this.notes = notes; }
+            public void setDeductionBreakdown(double sss, double philHealth, double pagIbig) {
+                this.sssDeduction = sss;
+                this.philHealthDeduction = philHealth;
+                this.pagIbigDeduction = pagIbig;
+            }
         }
     }
@@ -0,0 +1,15 @@
+package controllers;
+
+/**
+ * A screen that MainController keeps loaded between visits
+ *
+ * refresh() is called each time the screen is shown again, in place of
+ * reparsing its FXML, so it only needs to reload the data it displays.
+ */
+public interface RefreshableView {
+
+    /**
+     * Reload the data shown on the screen (called on the FX thread)
+     */
+    void refresh();
+}
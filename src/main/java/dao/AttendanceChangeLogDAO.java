@@ -0,0 +1,227 @@
+package dao;
+
+import database.DatabaseConnection;
+import database.SchemaMigrator;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ordered log of this node's attendance writes, for shipping to the central node
+ *
+ * SQLite triggers append the new state of an attendance row whenever one
+ * is inserted or its times change, so scans, imports and manual edits are
+ * all logged in the order they were committed. Rows carry the employee's
+ * QR code and shift name rather than local ids, since ids can differ
+ * between nodes.
+ * Deletes are not logged: the central copy is only ever merged into.
+ *
+ * On the central node (replication_state role = 'central') the triggers
+ * do nothing, so merged-in rows are not logged again.
+ */
+public class AttendanceChangeLogDAO {
+
+    private static final String LOG_ROW =
+            "INSERT INTO attendance_changes (employee_qr, date, time_in, time_out, status, shift_name) ";
+
+    private static final String NOT_CENTRAL =
+            "NOT EXISTS (SELECT 1 FROM replication_state WHERE key = 'role' AND value = 'central')";
+
+    private static volatile boolean schemaReady = false;
+
+    /**
+     * Create the change log, the replication state table and the logging triggers
+     */
+    public static void createSchema(Statement stmt) throws SQLException {
+        boolean exists;
+        try (ResultSet rs = stmt.executeQuery(
+                "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = 'attendance_changes'")) {
+            exists = rs.next();
+        }
+        // Logs from before shift names: name the pending rows' shifts and replace the triggers
+        if (exists && !hasShiftName(stmt)) {
+            stmt.execute("DROP TRIGGER IF EXISTS trg_log_attendance_insert");
+            stmt.execute("DROP TRIGGER IF EXISTS trg_log_attendance_update");
+            stmt.execute("ALTER TABLE attendance_changes ADD COLUMN shift_name TEXT");
+            stmt.executeUpdate("UPDATE attendance_changes SET shift_name = " +
+                    "(SELECT name FROM shifts WHERE shifts.id = attendance_changes.shift_id)");
+        }
+
+        stmt.execute(
+                "CREATE TABLE IF NOT EXISTS attendance_changes (" +
+                        "seq INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                        "employee_qr TEXT NOT NULL, " +
+                        "date TEXT NOT NULL, " +
+                        "time_in TEXT, " +
+                        "time_out TEXT, " +
+                        "status TEXT, " +
+                        "shift_name TEXT" +
+                        ")"
+        );
+        stmt.execute(
+                "CREATE TABLE IF NOT EXISTS replication_state (" +
+                        "key TEXT PRIMARY KEY, " +
+                        "value TEXT NOT NULL" +
+                        ")"
+        );
+
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_log_attendance_insert AFTER INSERT ON attendance " +
+                "WHEN " + NOT_CENTRAL + " BEGIN " + LOG_ROW + logValues("NEW") + "; END");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_log_attendance_update " +
+                "AFTER UPDATE OF employee_id, date, time_in, time_out, status, shift_id ON attendance " +
+                "WHEN " + NOT_CENTRAL + " BEGIN " + LOG_ROW + logValues("NEW") + "; END");
+
+        if (!exists) {
+            // Rows written before logging existed still need to reach the central node
+            stmt.executeUpdate(LOG_ROW +
+                    "SELECT e.qr_code, a.date, a.time_in, a.time_out, a.status, s.name " +
+                    "FROM attendance a JOIN employees e ON e.id = a.employee_id " +
+                    "LEFT JOIN shifts s ON s.id = a.shift_id ORDER BY a.id");
+        }
+    }
+
+    private static String logValues(String row) {
+        return "SELECT qr_code, " + row + ".date, " + row + ".time_in, " + row + ".time_out, " +
+                row + ".status, (SELECT name FROM shifts WHERE id = " + row + ".shift_id) " +
+                "FROM employees WHERE id = " + row + ".employee_id";
+    }
+
+    private static boolean hasShiftName(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(attendance_changes)")) {
+            while (rs.next()) {
+                if ("shift_name".equals(rs.getString("name"))) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Logged changes after a sequence number, oldest first
+     */
+    public List<Change> getChangesAfter(long seq, int limit) throws SQLException {
+        List<Change> changes = new ArrayList<>();
+        String sql = "SELECT * FROM attendance_changes WHERE seq > ? ORDER BY seq LIMIT ?";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            ensureSchema(conn);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setLong(1, seq);
+                stmt.setInt(2, limit);
+                ResultSet rs = stmt.executeQuery();
+
+                while (rs.next()) {
+                    changes.add(new Change(
+                            rs.getLong("seq"),
+                            rs.getString("employee_qr"),
+                            rs.getString("date"),
+                            rs.getString("time_in"),
+                            rs.getString("time_out"),
+                            rs.getString("status"),
+                            rs.getString("shift_name")
+                    ));
+                }
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Drop changes up to and including a sequence number (once central has them)
+     */
+    public void deleteThrough(long seq) throws SQLException {
+        String sql = "DELETE FROM attendance_changes WHERE seq <= ?";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            ensureSchema(conn);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setLong(1, seq);
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Number of changes waiting to be shipped
+     */
+    public int getPendingCount() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            ensureSchema(conn);
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM attendance_changes")) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Read a replication setting (node id, role, per-node applied position), or null
+     */
+    public String getState(String key) throws SQLException {
+        String sql = "SELECT value FROM replication_state WHERE key = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            ensureSchema(conn);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, key);
+                ResultSet rs = stmt.executeQuery();
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    /**
+     * Save a replication setting
+     */
+    public void setState(String key, String value) throws SQLException {
+        String sql = "INSERT OR REPLACE INTO replication_state (key, value) VALUES (?, ?)";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            ensureSchema(conn);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, key);
+                stmt.setString(2, value);
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    private static void ensureSchema(Connection conn) throws SQLException {
+        if (schemaReady) return;
+
+        synchronized (AttendanceChangeLogDAO.class) {
+            if (schemaReady) return;
+
+            if (!SchemaMigrator.isCurrent(conn)) {
+                try (Statement stmt = conn.createStatement()) {
+                    createSchema(stmt);
+                }
+            }
+            schemaReady = true;
+        }
+    }
+
+    /**
+     * One logged attendance write: the row's state after the write
+     */
+    public static class Change {
+        public final long seq;
+        public final String employeeQr;
+        public final String date;
+        public final String timeIn;
+        public final String timeOut;
+        public final String status;
+        public final String shiftName; // null if the row has no shift
+
+        public Change(long seq, String employeeQr, String date, String timeIn, String timeOut,
+                      String status, String shiftName) {
+            this.seq = seq;
+            this.employeeQr = employeeQr;
+            this.date = date;
+            this.timeIn = timeIn;
+            this.timeOut = timeOut;
+            this.status = status;
+            this.shiftName = shiftName;
+        }
+    }
+}
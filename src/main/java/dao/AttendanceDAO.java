@@ -1,35 +1,82 @@
 package dao;
 
 import database.DatabaseConnection;
+import database.SchemaMigrator;
 import models.Attendance;
+import utils.ChangeEventBus;
+import utils.DateTimeHelper;
+import utils.PayrollSnapshot;
 
 import java.sql.*;
-import java.time.LocalTime;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class AttendanceDAO {
 
+    // Hours from the integer columns, same rule as DateTimeHelper.hoursBetween:
+    // whole minutes, and a time out before the time in wraps past midnight
+    static final String HOURS_FROM_SECONDS =
+            "(((time_out_sec - time_in_sec + 86400) % 86400) / 60) / 60.0";
+
+    private static final int BACKFILL_CHUNK = 2000;
+
+    private static volatile boolean epochColumnsReady = false;
+
+    private final AttendanceMonthlyDAO monthlyDAO = new AttendanceMonthlyDAO();
+
     /**
      * Add new attendance record
      */
     public void addAttendance(Attendance attendance) throws SQLException {
-        String sql = "INSERT INTO attendance (employee_id, date, time_in, time_out, status, hours_worked) VALUES (?, ?, ?, ?, ?, ?)";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, attendance.getEmployeeId());
-            stmt.setString(2, attendance.getDate());
-            stmt.setString(3, attendance.getTimeIn());
-            stmt.setString(4, attendance.getTimeOut());
-            stmt.setString(5, attendance.getStatus());
-            stmt.setDouble(6, 0.0); // Hours will be calculated on time out
+        addAttendance(attendance, 0);
+    }
 
-            stmt.executeUpdate();
-            System.out.println("✓ Attendance recorded for employee ID: " + attendance.getEmployeeId());
+    /**
+     * Add new attendance record scanned against a shift (0 = default schedule)
+     */
+    public void addAttendance(Attendance attendance, int shiftId) throws SQLException {
+        String sql = "INSERT INTO attendance (employee_id, date, time_in, time_out, status, hours_worked, " +
+                "date_day, time_in_sec, time_out_sec, shift_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            AttendanceMonthlyDAO.ensureTable(conn);
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, attendance.getEmployeeId());
+                stmt.setString(2, attendance.getDate());
+                stmt.setString(3, attendance.getTimeIn());
+                stmt.setString(4, attendance.getTimeOut());
+                stmt.setString(5, attendance.getStatus());
+                stmt.setDouble(6, 0.0); // Hours will be calculated on time out
+                stmt.setInt(7, DateTimeHelper.toEpochDay(attendance.getDate()));
+                setSeconds(stmt, 8, attendance.getTimeIn());
+                setSeconds(stmt, 9, attendance.getTimeOut());
+                if (shiftId > 0) {
+                    stmt.setInt(10, shiftId);
+                } else {
+                    stmt.setNull(10, Types.INTEGER);
+                }
+
+                stmt.executeUpdate();
+                attendance.setId(DatabaseConnection.lastInsertId(conn));
+                PayrollSnapshot.requireOpen(attendance.getDate());
+
+                // The rollup payroll reads commits with the record or not at all
+                monthlyDAO.refresh(conn, attendance.getEmployeeId(), attendance.getDate());
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
         }
+
+        System.out.println("✓ Attendance recorded for employee ID: " + attendance.getEmployeeId());
+        ChangeEventBus.publish(ChangeEventBus.Type.ATTENDANCE_RECORDED,
+                attendance.getId(), attendance.getEmployeeId(), attendance.getDate());
     }
 
     /**
@@ -40,38 +87,32 @@ public class AttendanceDAO {
             return 0.0;
         }
 
-        try {
-            LocalTime in = LocalTime.parse(timeIn);
-            LocalTime out = LocalTime.parse(timeOut);
-            long minutes = ChronoUnit.MINUTES.between(in, out);
-            return minutes / 60.0;
-        } catch (Exception e) {
-            return 0.0;
-        }
+        return DateTimeHelper.calculateHoursWorked(timeIn, timeOut);
     }
 
     /**
      * Get attendance by employee and date
      */
     public Attendance getAttendanceByEmployeeAndDate(int employeeId, String date) throws SQLException {
-        String sql = "SELECT * FROM attendance WHERE employee_id = ? AND date = ?";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, employeeId);
-            stmt.setString(2, date);
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                return new Attendance(
-                        rs.getInt("id"),
-                        rs.getInt("employee_id"),
-                        rs.getString("date"),
-                        rs.getString("time_in"),
-                        rs.getString("time_out"),
-                        rs.getString("status")
-                );
+        String sql = "SELECT * FROM attendance WHERE employee_id = ? AND date_day = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            ensureEpochColumns(conn);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, employeeId);
+                stmt.setInt(2, DateTimeHelper.toEpochDay(date));
+                ResultSet rs = stmt.executeQuery();
+
+                if (rs.next()) {
+                    return new Attendance(
+                            rs.getInt("id"),
+                            rs.getInt("employee_id"),
+                            rs.getString("date"),
+                            rs.getString("time_in"),
+                            rs.getString("time_out"),
+                            rs.getString("status")
+                    );
+                }
             }
         }
         return null;
@@ -82,24 +123,25 @@ public class AttendanceDAO {
      */
     public List<Attendance> getAttendanceByDate(String date) throws SQLException {
         List<Attendance> records = new ArrayList<>();
-        String sql = "SELECT * FROM attendance WHERE date = ? ORDER BY time_in ASC";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, date);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                Attendance att = new Attendance(
-                        rs.getInt("id"),
-                        rs.getInt("employee_id"),
-                        rs.getString("date"),
-                        rs.getString("time_in"),
-                        rs.getString("time_out"),
-                        rs.getString("status")
-                );
-                records.add(att);
+        String sql = "SELECT * FROM attendance WHERE date_day = ? ORDER BY time_in_sec ASC";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            ensureEpochColumns(conn);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, DateTimeHelper.toEpochDay(date));
+                ResultSet rs = stmt.executeQuery();
+
+                while (rs.next()) {
+                    Attendance att = new Attendance(
+                            rs.getInt("id"),
+                            rs.getInt("employee_id"),
+                            rs.getString("date"),
+                            rs.getString("time_in"),
+                            rs.getString("time_out"),
+                            rs.getString("status")
+                    );
+                    records.add(att);
+                }
             }
         }
         return records;
@@ -110,26 +152,27 @@ public class AttendanceDAO {
      */
     public List<Attendance> getAttendanceByEmployeeAndDateRange(int employeeId, String startDate, String endDate) throws SQLException {
         List<Attendance> records = new ArrayList<>();
-        String sql = "SELECT * FROM attendance WHERE employee_id = ? AND date BETWEEN ? AND ? ORDER BY date ASC";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, employeeId);
-            stmt.setString(2, startDate);
-            stmt.setString(3, endDate);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                Attendance att = new Attendance(
-                        rs.getInt("id"),
-                        rs.getInt("employee_id"),
-                        rs.getString("date"),
-                        rs.getString("time_in"),
-                        rs.getString("time_out"),
-                        rs.getString("status")
-                );
-                records.add(att);
+        String sql = "SELECT * FROM attendance WHERE employee_id = ? AND date_day BETWEEN ? AND ? ORDER BY date_day ASC";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            ensureEpochColumns(conn);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, employeeId);
+                stmt.setInt(2, DateTimeHelper.toEpochDay(startDate));
+                stmt.setInt(3, DateTimeHelper.toEpochDay(endDate));
+                ResultSet rs = stmt.executeQuery();
+
+                while (rs.next()) {
+                    Attendance att = new Attendance(
+                            rs.getInt("id"),
+                            rs.getInt("employee_id"),
+                            rs.getString("date"),
+                            rs.getString("time_in"),
+                            rs.getString("time_out"),
+                            rs.getString("status")
+                    );
+                    records.add(att);
+                }
             }
         }
         return records;
@@ -142,63 +185,100 @@ public class AttendanceDAO {
         // Calculate hours worked
         double hoursWorked = calculateHoursWorked(attendance.getTimeIn(), attendance.getTimeOut());
 
-        String sql = "UPDATE attendance SET time_out = ?, status = ?, hours_worked = ? WHERE id = ?";
+        String sql = "UPDATE attendance SET time_out = ?, status = ?, hours_worked = ?, time_out_sec = ? WHERE id = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            AttendanceMonthlyDAO.ensureTable(conn);
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, attendance.getTimeOut());
+                stmt.setString(2, attendance.getStatus());
+                stmt.setDouble(3, hoursWorked);
+                setSeconds(stmt, 4, attendance.getTimeOut());
+                stmt.setInt(5, attendance.getId());
+                stmt.executeUpdate();
+                PayrollSnapshot.requireOpen(attendance.getDate());
+
+                monthlyDAO.refresh(conn, attendance.getEmployeeId(), attendance.getDate());
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        System.out.println("✓ Attendance updated (ID: " + attendance.getId() + ") - Hours worked: " + String.format("%.2f", hoursWorked));
+        ChangeEventBus.publish(ChangeEventBus.Type.ATTENDANCE_UPDATED,
+                attendance.getId(), attendance.getEmployeeId(), attendance.getDate());
+    }
 
-            stmt.setString(1, attendance.getTimeOut());
-            stmt.setString(2, attendance.getStatus());
-            stmt.setDouble(3, hoursWorked);
-            stmt.setInt(4, attendance.getId());
-            stmt.executeUpdate();
+    /**
+     * Update time in as well as time out (merging records from another kiosk)
+     */
+    public void updateAttendanceTimes(Attendance attendance) throws SQLException {
+        double hoursWorked = calculateHoursWorked(attendance.getTimeIn(), attendance.getTimeOut());
 
-            System.out.println("✓ Attendance updated (ID: " + attendance.getId() + ") - Hours worked: " + String.format("%.2f", hoursWorked));
+        String sql = "UPDATE attendance SET time_in = ?, time_out = ?, status = ?, hours_worked = ?, " +
+                "time_in_sec = ?, time_out_sec = ? WHERE id = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            AttendanceMonthlyDAO.ensureTable(conn);
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, attendance.getTimeIn());
+                stmt.setString(2, attendance.getTimeOut());
+                stmt.setString(3, attendance.getStatus());
+                stmt.setDouble(4, hoursWorked);
+                setSeconds(stmt, 5, attendance.getTimeIn());
+                setSeconds(stmt, 6, attendance.getTimeOut());
+                stmt.setInt(7, attendance.getId());
+                stmt.executeUpdate();
+                PayrollSnapshot.requireOpen(attendance.getDate());
+
+                monthlyDAO.refresh(conn, attendance.getEmployeeId(), attendance.getDate());
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
         }
+
+        ChangeEventBus.publish(ChangeEventBus.Type.ATTENDANCE_UPDATED,
+                attendance.getId(), attendance.getEmployeeId(), attendance.getDate());
     }
 
     /**
-     * Count late occurrences for employee in a month
+     * Record which shift an attendance record was scanned against
      */
-    public int countLateByEmployeeAndMonth(int employeeId, int year, int month) throws SQLException {
-        String sql = "SELECT COUNT(*) FROM attendance WHERE employee_id = ? " +
-                "AND strftime('%Y', date) = ? AND strftime('%m', date) = ? AND status = 'late'";
+    public void setAttendanceShift(int attendanceId, int shiftId) throws SQLException {
+        String sql = "UPDATE attendance SET shift_id = ? WHERE id = ?";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, employeeId);
-            stmt.setString(2, String.valueOf(year));
-            stmt.setString(3, String.format("%02d", month));
-
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt(1);
-            }
+            stmt.setInt(1, shiftId);
+            stmt.setInt(2, attendanceId);
+            stmt.executeUpdate();
         }
-        return 0;
+    }
+
+    /**
+     * Count late occurrences for employee in a month
+     */
+    public int countLateByEmployeeAndMonth(int employeeId, int year, int month) throws SQLException {
+        AttendanceMonthlyDAO.MonthlySummary summary = monthlyDAO.getMonthlySummary(employeeId, year, month);
+        return summary.lateDays;
     }
 
     /**
      * Count absent days for employee in a month
      */
     public int countAbsentByEmployeeAndMonth(int employeeId, int year, int month) throws SQLException {
-        String sql = "SELECT COUNT(*) FROM attendance WHERE employee_id = ? " +
-                "AND strftime('%Y', date) = ? AND strftime('%m', date) = ? AND status = 'absent'";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, employeeId);
-            stmt.setString(2, String.valueOf(year));
-            stmt.setString(3, String.format("%02d", month));
-
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt(1);
-            }
-        }
-        return 0;
+        AttendanceMonthlyDAO.MonthlySummary summary = monthlyDAO.getMonthlySummary(employeeId, year, month);
+        return summary.absentDays;
     }
 
     /**
@@ -232,36 +312,68 @@ public class AttendanceDAO {
      */
     public void deleteAttendance(int id) throws SQLException {
         String sql = "DELETE FROM attendance WHERE id = ?";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, id);
-            stmt.executeUpdate();
+        int employeeId = 0;
+        String date = null;
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            AttendanceMonthlyDAO.ensureTable(conn);
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement find = conn.prepareStatement(
+                        "SELECT employee_id, date FROM attendance WHERE id = ?")) {
+                    find.setInt(1, id);
+                    ResultSet rs = find.executeQuery();
+                    if (rs.next()) {
+                        employeeId = rs.getInt(1);
+                        date = rs.getString(2);
+                    }
+                }
+
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setInt(1, id);
+                    stmt.executeUpdate();
+                }
+
+                if (date != null) {
+                    PayrollSnapshot.requireOpen(date);
+                    monthlyDAO.refresh(conn, employeeId, date);
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
 
             System.out.println("✓ Attendance deleted (ID: " + id + ")");
         }
+
+        if (date != null) {
+            ChangeEventBus.publish(ChangeEventBus.Type.ATTENDANCE_DELETED, id, employeeId, date);
+        }
     }
 
     /**
      * Get total hours worked for an employee in a date range
      */
     public double getTotalHoursWorked(int employeeId, String startDate, String endDate) throws SQLException {
-        String sql = "SELECT SUM(COALESCE(hours_worked, 0)) FROM attendance " +
-                "WHERE employee_id = ? AND date BETWEEN ? AND ? AND time_out IS NOT NULL";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, employeeId);
-            stmt.setString(2, startDate);
-            stmt.setString(3, endDate);
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                double hours = rs.getDouble(1);
-                System.out.println("✓ Total hours for employee " + employeeId + ": " + String.format("%.2f", hours));
-                return hours;
+        String sql = "SELECT SUM(" + HOURS_FROM_SECONDS + ") FROM attendance " +
+                "WHERE employee_id = ? AND date_day BETWEEN ? AND ? AND time_out_sec IS NOT NULL";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            ensureEpochColumns(conn);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, employeeId);
+                stmt.setInt(2, DateTimeHelper.toEpochDay(startDate));
+                stmt.setInt(3, DateTimeHelper.toEpochDay(endDate));
+                ResultSet rs = stmt.executeQuery();
+
+                if (rs.next()) {
+                    double hours = rs.getDouble(1);
+                    System.out.println("✓ Total hours for employee " + employeeId + ": " + String.format("%.2f", hours));
+                    return hours;
+                }
             }
         }
         return 0.0;
@@ -271,21 +383,116 @@ public class AttendanceDAO {
      * Get attendance count for employee in a month
      */
     public int getAttendanceCountForMonth(int employeeId, int year, int month) throws SQLException {
-        String sql = "SELECT COUNT(*) FROM attendance WHERE employee_id = ? " +
-                "AND strftime('%Y', date) = ? AND strftime('%m', date) = ?";
+        AttendanceMonthlyDAO.MonthlySummary summary = monthlyDAO.getMonthlySummary(employeeId, year, month);
+        return summary.presentDays + summary.absentDays;
+    }
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+    /**
+     * Add the integer date/time columns (days since 1970-01-01, seconds since midnight)
+     * on databases created before them, and fill them in for existing rows
+     */
+    public static void ensureEpochColumns(Connection conn) throws SQLException {
+        if (epochColumnsReady) return;
+
+        synchronized (AttendanceDAO.class) {
+            if (epochColumnsReady) return;
+
+            if (!SchemaMigrator.isCurrent(conn)) {
+                addEpochColumns(conn);
+                backfillEpochColumns(conn);
+            }
+            epochColumnsReady = true;
+        }
+    }
+
+    /**
+     * Add the integer columns and their indexes if the table does not have them
+     */
+    public static void addEpochColumns(Connection conn) throws SQLException {
+        Set<String> columns = new HashSet<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA table_info(attendance)")) {
+            while (rs.next()) {
+                columns.add(rs.getString("name"));
+            }
+        }
+
+        try (Statement stmt = conn.createStatement()) {
+            for (String column : new String[]{"date_day", "time_in_sec", "time_out_sec"}) {
+                if (!columns.contains(column)) {
+                    stmt.execute("ALTER TABLE attendance ADD COLUMN " + column + " INTEGER");
+                }
+            }
+            createEpochIndexes(stmt);
+        }
+    }
 
-            stmt.setInt(1, employeeId);
-            stmt.setString(2, String.valueOf(year));
-            stmt.setString(3, String.format("%02d", month));
+    /**
+     * Indexes for day lookups and per-employee day ranges
+     */
+    public static void createEpochIndexes(Statement stmt) throws SQLException {
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_attendance_day ON attendance(date_day)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_attendance_employee_day ON attendance(employee_id, date_day)");
+    }
 
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt(1);
+    /**
+     * Fill the integer columns of rows that do not have them yet
+     *
+     * Runs in small chunks, each its own transaction, so the kiosk can still
+     * record scans while a large table is being converted. Rows with an
+     * unreadable date get INVALID_DATE so they are not picked up again.
+     */
+    public static int backfillEpochColumns(Connection conn) throws SQLException {
+        String sql = epochUpdate("WHERE id IN (SELECT id FROM attendance WHERE date_day IS NULL LIMIT " +
+                BACKFILL_CHUNK + ")");
+
+        int total = 0;
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(true);
+        try (Statement stmt = conn.createStatement()) {
+            // Check with a read first so an already converted table never takes the write lock
+            while (hasUnconvertedRows(stmt)) {
+                total += stmt.executeUpdate(sql);
             }
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+
+        if (total > 0) {
+            System.out.println("✓ Attendance dates converted to integer columns: " + total + " record(s)");
+        }
+        return total;
+    }
+
+    // UPDATE that derives the integer columns from the text ones for the rows matched by "where"
+    private static String epochUpdate(String where) {
+        return "UPDATE attendance SET " +
+                "date_day = COALESCE(CAST(julianday(date) - 2440587.5 AS INTEGER), " + DateTimeHelper.INVALID_DATE + "), " +
+                "time_in_sec = " + secondsOf("time_in") + ", " +
+                "time_out_sec = " + secondsOf("time_out") + " " +
+                where;
+    }
+
+    private static boolean hasUnconvertedRows(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("SELECT 1 FROM attendance WHERE date_day IS NULL LIMIT 1")) {
+            return rs.next();
+        }
+    }
+
+    // SQL for HH:mm[:ss] text → seconds since midnight (NULL stays NULL)
+    private static String secondsOf(String column) {
+        return "CASE WHEN " + column + " IS NULL OR " + column + " = '' THEN NULL ELSE " +
+                "CAST(substr(" + column + ", 1, 2) AS INTEGER) * 3600 + " +
+                "CAST(substr(" + column + ", 4, 2) AS INTEGER) * 60 + " +
+                "CAST(substr(" + column + ", 7, 2) AS INTEGER) END";
+    }
+
+    private static void setSeconds(PreparedStatement stmt, int index, String time) throws SQLException {
+        int seconds = DateTimeHelper.toSecondOfDay(time);
+        if (seconds == DateTimeHelper.INVALID_TIME) {
+            stmt.setNull(index, Types.INTEGER);
+        } else {
+            stmt.setInt(index, seconds);
         }
-        return 0;
     }
-}
\ No newline at end of file
+}
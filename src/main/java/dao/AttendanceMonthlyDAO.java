@@ -0,0 +1,280 @@
+package dao;
+
+import database.DatabaseConnection;
+import database.SchemaMigrator;
+
+import java.sql.*;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Monthly attendance rollup (one row per employee per month)
+ *
+ * Rows are refreshed whenever attendance is written, so payroll and reports
+ * read a single row per employee instead of summing a month of raw records.
+ */
+public class AttendanceMonthlyDAO {
+
+    private static final String ROLLUP_SELECT =
+            "SELECT employee_id, " +
+            "CAST(substr(date, 1, 4) AS INTEGER) AS year, " +
+            "CAST(substr(date, 6, 2) AS INTEGER) AS month, " +
+            "COALESCE(SUM(CASE WHEN time_out_sec IS NOT NULL THEN " + AttendanceDAO.HOURS_FROM_SECONDS + " END), 0), " +
+            "SUM(CASE WHEN status = 'late' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN status = 'absent' THEN 1 ELSE 0 END), " +
+            "COUNT(DISTINCT CASE WHEN status IS NULL OR status <> 'absent' THEN date_day END) " +
+            "FROM attendance ";
+
+    private static final String ROLLUP_INSERT =
+            "INSERT OR REPLACE INTO attendance_monthly " +
+            "(employee_id, year, month, total_hours, late_days, absent_days, present_days) ";
+
+    private static final String ROLLUP_GROUP = " GROUP BY employee_id, year, month";
+
+    private static volatile boolean tableReady = false;
+
+    /**
+     * Create the rollup table (and backfill it) on databases set up before it existed
+     */
+    public static void createTable(Statement stmt) throws SQLException {
+        stmt.execute(
+                "CREATE TABLE IF NOT EXISTS attendance_monthly (" +
+                        "employee_id INTEGER NOT NULL, " +
+                        "year INTEGER NOT NULL, " +
+                        "month INTEGER NOT NULL, " +
+                        "total_hours REAL DEFAULT 0, " +
+                        "late_days INTEGER DEFAULT 0, " +
+                        "absent_days INTEGER DEFAULT 0, " +
+                        "present_days INTEGER DEFAULT 0, " +
+                        "PRIMARY KEY(employee_id, year, month), " +
+                        "FOREIGN KEY(employee_id) REFERENCES employees(id) ON DELETE CASCADE" +
+                        ")"
+        );
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_attendance_monthly_period ON attendance_monthly(year, month)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_attendance_employee_date ON attendance(employee_id, date)");
+    }
+
+    /**
+     * Recompute the rollup row for the employee and month containing {@code date}
+     */
+    public void refresh(int employeeId, String date) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            ensureTable(conn);
+            conn.setAutoCommit(false);
+            try {
+                refresh(conn, employeeId, date);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Recompute the rollup row as part of the caller's transaction, so it
+     * commits or rolls back with the attendance write that changed it
+     * (call ensureTable before the transaction starts)
+     */
+    public void refresh(Connection conn, int employeeId, String date) throws SQLException {
+        YearMonth yearMonth = YearMonth.parse(date.substring(0, 7));
+
+        try (PreparedStatement delete = conn.prepareStatement(
+                "DELETE FROM attendance_monthly WHERE employee_id = ? AND year = ? AND month = ?")) {
+            delete.setInt(1, employeeId);
+            delete.setInt(2, yearMonth.getYear());
+            delete.setInt(3, yearMonth.getMonthValue());
+            delete.executeUpdate();
+        }
+
+        try (PreparedStatement insert = conn.prepareStatement(ROLLUP_INSERT + ROLLUP_SELECT +
+                "WHERE employee_id = ? AND date_day BETWEEN ? AND ?" + ROLLUP_GROUP)) {
+            insert.setInt(1, employeeId);
+            insert.setInt(2, (int) yearMonth.atDay(1).toEpochDay());
+            insert.setInt(3, (int) yearMonth.atEndOfMonth().toEpochDay());
+            insert.executeUpdate();
+        }
+    }
+
+    /**
+     * Rebuild every employee's rollup row for one month
+     */
+    public void rebuildMonth(int year, int month) throws SQLException {
+        YearMonth yearMonth = YearMonth.of(year, month);
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            ensureTable(conn);
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement delete = conn.prepareStatement(
+                        "DELETE FROM attendance_monthly WHERE year = ? AND month = ?")) {
+                    delete.setInt(1, year);
+                    delete.setInt(2, month);
+                    delete.executeUpdate();
+                }
+
+                try (PreparedStatement insert = conn.prepareStatement(ROLLUP_INSERT + ROLLUP_SELECT +
+                        "WHERE date_day BETWEEN ? AND ?" + ROLLUP_GROUP)) {
+                    insert.setInt(1, (int) yearMonth.atDay(1).toEpochDay());
+                    insert.setInt(2, (int) yearMonth.atEndOfMonth().toEpochDay());
+                    insert.executeUpdate();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Rebuild the whole rollup table from raw attendance
+     */
+    public int rebuildAll() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            ensureTable(conn);
+            return rebuildAll(conn);
+        }
+    }
+
+    /**
+     * Get one employee's totals for a month (zeros if nothing was recorded)
+     */
+    public MonthlySummary getMonthlySummary(int employeeId, int year, int month) throws SQLException {
+        String sql = "SELECT * FROM attendance_monthly WHERE employee_id = ? AND year = ? AND month = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            ensureTable(conn);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, employeeId);
+                stmt.setInt(2, year);
+                stmt.setInt(3, month);
+                ResultSet rs = stmt.executeQuery();
+
+                if (rs.next()) {
+                    return extractSummary(rs);
+                }
+            }
+        }
+        return new MonthlySummary(employeeId, year, month, 0.0, 0, 0, 0);
+    }
+
+    /**
+     * Get every employee's totals for a month, keyed by employee ID
+     */
+    public Map<Integer, MonthlySummary> getMonthlySummaries(int year, int month) throws SQLException {
+        Map<Integer, MonthlySummary> summaries = new HashMap<>();
+        String sql = "SELECT * FROM attendance_monthly WHERE year = ? AND month = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            ensureTable(conn);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, year);
+                stmt.setInt(2, month);
+                ResultSet rs = stmt.executeQuery();
+
+                while (rs.next()) {
+                    MonthlySummary summary = extractSummary(rs);
+                    summaries.put(summary.employeeId, summary);
+                }
+            }
+        }
+        return summaries;
+    }
+
+    /**
+     * Create the integer attendance columns and the rollup table if an older
+     * database lacks them (may commit, so call it outside a transaction)
+     */
+    static void ensureTable(Connection conn) throws SQLException {
+        AttendanceDAO.ensureEpochColumns(conn);
+        if (tableReady) return;
+
+        synchronized (AttendanceMonthlyDAO.class) {
+            if (tableReady) return;
+            if (SchemaMigrator.isCurrent(conn)) {
+                tableReady = true;
+                return;
+            }
+
+            boolean exists;
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = 'attendance_monthly'")) {
+                exists = stmt.executeQuery().next();
+            }
+
+            if (!exists) {
+                try (Statement stmt = conn.createStatement()) {
+                    createTable(stmt);
+                }
+                rebuildAll(conn);
+            }
+            tableReady = true;
+        }
+    }
+
+    /**
+     * Insert the rollup of every attendance record into an empty table,
+     * as part of the caller's transaction
+     */
+    public static int fillTable(Statement stmt) throws SQLException {
+        return stmt.executeUpdate(ROLLUP_INSERT + ROLLUP_SELECT + ROLLUP_GROUP);
+    }
+
+    private static int rebuildAll(Connection conn) throws SQLException {
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM attendance_monthly");
+            int rows = fillTable(stmt);
+            conn.commit();
+            System.out.println("✓ Attendance rollup rebuilt: " + rows + " employee-month(s)");
+            return rows;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private MonthlySummary extractSummary(ResultSet rs) throws SQLException {
+        return new MonthlySummary(
+                rs.getInt("employee_id"),
+                rs.getInt("year"),
+                rs.getInt("month"),
+                rs.getDouble("total_hours"),
+                rs.getInt("late_days"),
+                rs.getInt("absent_days"),
+                rs.getInt("present_days")
+        );
+    }
+
+    /**
+     * Attendance totals for one employee in one month
+     */
+    public static class MonthlySummary {
+        public final int employeeId;
+        public final int year;
+        public final int month;
+        public final double totalHours;
+        public final int lateDays;
+        public final int absentDays;
+        public final int presentDays;
+
+        public MonthlySummary(int employeeId, int year, int month, double totalHours,
+                              int lateDays, int absentDays, int presentDays) {
+            this.employeeId = employeeId;
+            this.year = year;
+            this.month = month;
+            this.totalHours = totalHours;
+            this.lateDays = lateDays;
+            this.absentDays = absentDays;
+            this.presentDays = presentDays;
+        }
+    }
+}
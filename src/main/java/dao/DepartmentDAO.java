@@ -143,4 +143,62 @@ public class DepartmentDAO {
         }
         return 0;
     }
+
+    /**
+     * Get all departments with headcount, position count and monthly labor cost
+     * One grouped query instead of a count query per department
+     */
+    public List<DepartmentSummary> getDepartmentSummaries() throws SQLException {
+        List<DepartmentSummary> summaries = new ArrayList<>();
+        String sql = "SELECT d.id, d.name, d.description, " +
+                "COALESCE(emp.employee_count, 0) AS employee_count, " +
+                "COALESCE(pos.position_count, 0) AS position_count, " +
+                "COALESCE(emp.labor_cost, 0) AS labor_cost " +
+                "FROM departments d " +
+                "LEFT JOIN (SELECT e.department_id, COUNT(*) AS employee_count, " +
+                "    SUM(CASE WHEN e.status = 'active' THEN COALESCE(p.base_salary, 0) ELSE 0 END) AS labor_cost " +
+                "    FROM employees e LEFT JOIN positions p ON p.id = e.position_id " +
+                "    GROUP BY e.department_id) emp ON emp.department_id = d.id " +
+                "LEFT JOIN (SELECT department_id, COUNT(*) AS position_count " +
+                "    FROM positions GROUP BY department_id) pos ON pos.department_id = d.id " +
+                "ORDER BY d.name ASC";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                Department dept = new Department(
+                        rs.getInt("id"),
+                        rs.getString("name"),
+                        rs.getString("description")
+                );
+                summaries.add(new DepartmentSummary(
+                        dept,
+                        rs.getInt("employee_count"),
+                        rs.getInt("position_count"),
+                        rs.getDouble("labor_cost")
+                ));
+            }
+        }
+        return summaries;
+    }
+
+    /**
+     * Inner class for department summary
+     */
+    public static class DepartmentSummary {
+        public final Department department;
+        public final int employeeCount;
+        public final int positionCount;
+        public final double totalLaborCost;  // Monthly base salary of active employees
+
+        public DepartmentSummary(Department department, int employeeCount,
+                                 int positionCount, double totalLaborCost) {
+            this.department = department;
+            this.employeeCount = employeeCount;
+            this.positionCount = positionCount;
+            this.totalLaborCost = totalLaborCost;
+        }
+    }
 }
\ No newline at end of file
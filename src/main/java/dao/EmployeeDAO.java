@@ -2,6 +2,8 @@ package dao;
 
 import database.DatabaseConnection;
 import models.Employee;
+import models.EmployeeDisplay;
+import utils.ChangeEventBus;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -12,6 +14,16 @@ import java.util.List;
  */
 public class EmployeeDAO {
 
+    // Only the columns the employee table shows, with names resolved in one pass
+    private static final String DISPLAY_SELECT =
+            "SELECT e.id, e.qr_code, e.name, e.status, " +
+            "COALESCE(p.title, 'Unknown') AS position_title, " +
+            "COALESCE(d.name, 'Unknown') AS department_name, " +
+            "COALESCE(p.hourly_rate, p.base_salary / 160.0, 0) AS hourly_rate " +
+            "FROM employees e " +
+            "LEFT JOIN positions p ON p.id = e.position_id " +
+            "LEFT JOIN departments d ON d.id = e.department_id ";
+
     /**
      * Add a new employee (with shift)
      */
@@ -45,10 +57,13 @@ public class EmployeeDAO {
 
             stmt.executeUpdate();
 
+            employee.setId(DatabaseConnection.lastInsertId(conn));
+
             System.out.println("✓ Employee added: " + employee.getName() +
                     " (QR: " + employee.getQrCode() +
                     ", Shift: " + (employee.hasShift() ? "Assigned" : "Not assigned") + ")");
         }
+        ChangeEventBus.publish(ChangeEventBus.Type.EMPLOYEE_ADDED, employee.getId(), employee.getId(), null);
     }
 
     /**
@@ -107,6 +122,88 @@ public class EmployeeDAO {
         return employees;
     }
 
+    /**
+     * Get the next page of employees after the given ID (keyset pagination)
+     * Uses the primary key index, so every page costs the same no matter how deep
+     */
+    public List<Employee> getEmployeesAfter(int afterId, int limit) throws SQLException {
+        List<Employee> employees = new ArrayList<>();
+        String sql = "SELECT * FROM employees WHERE id > ? ORDER BY id LIMIT ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                employees.add(extractEmployee(rs));
+            }
+        }
+        return employees;
+    }
+
+    /**
+     * Get total number of employees
+     */
+    public int getEmployeeCount() throws SQLException {
+        String sql = "SELECT COUNT(*) FROM employees";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Get the next page of employee table rows after the given ID (keyset pagination)
+     * Department and position names come from a single JOIN instead of 2 lookups per row
+     */
+    public List<EmployeeDisplay> getEmployeeDisplaysAfter(int afterId, int limit) throws SQLException {
+        String sql = DISPLAY_SELECT + "WHERE e.id > ? ORDER BY e.id LIMIT ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+            return extractEmployeeDisplays(stmt.executeQuery());
+        }
+    }
+
+    /**
+     * Get every employee as a table row, ordered by ID
+     */
+    public List<EmployeeDisplay> getAllEmployeeDisplays() throws SQLException {
+        String sql = DISPLAY_SELECT + "ORDER BY e.id";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+
+            return extractEmployeeDisplays(stmt.executeQuery(sql));
+        }
+    }
+
+    /**
+     * Search employee table rows by name (partial match)
+     */
+    public List<EmployeeDisplay> searchEmployeeDisplaysByName(String searchTerm) throws SQLException {
+        String sql = DISPLAY_SELECT + "WHERE e.name LIKE ? ORDER BY e.name";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, "%" + searchTerm + "%");
+            return extractEmployeeDisplays(stmt.executeQuery());
+        }
+    }
+
     /**
      * Get all employees in a specific department
      */
@@ -184,6 +281,7 @@ public class EmployeeDAO {
 
             System.out.println("✓ Employee updated: " + employee.getName());
         }
+        ChangeEventBus.publish(ChangeEventBus.Type.EMPLOYEE_UPDATED, employee.getId(), employee.getId(), null);
     }
 
     /**
@@ -200,6 +298,7 @@ public class EmployeeDAO {
 
             System.out.println("✓ Employee deleted (ID: " + id + ")");
         }
+        ChangeEventBus.publish(ChangeEventBus.Type.EMPLOYEE_DELETED, id, id, null);
     }
 
     /**
@@ -241,6 +340,7 @@ public class EmployeeDAO {
 
             System.out.println("✓ Shift updated for employee #" + employeeId);
         }
+        ChangeEventBus.publish(ChangeEventBus.Type.EMPLOYEE_UPDATED, employeeId, employeeId, null);
     }
 
     /**
@@ -263,6 +363,35 @@ public class EmployeeDAO {
         return employees;
     }
 
+    /**
+     * Map a DISPLAY_SELECT result, resolving column indexes once instead of per row
+     */
+    private List<EmployeeDisplay> extractEmployeeDisplays(ResultSet rs) throws SQLException {
+        List<EmployeeDisplay> rows = new ArrayList<>();
+
+        int idCol = rs.findColumn("id");
+        int qrCol = rs.findColumn("qr_code");
+        int nameCol = rs.findColumn("name");
+        int statusCol = rs.findColumn("status");
+        int positionCol = rs.findColumn("position_title");
+        int departmentCol = rs.findColumn("department_name");
+        int rateCol = rs.findColumn("hourly_rate");
+
+        while (rs.next()) {
+            rows.add(new EmployeeDisplay(
+                    rs.getInt(idCol),
+                    rs.getString(qrCol),
+                    rs.getString(nameCol),
+                    rs.getString(positionCol),
+                    rs.getString(departmentCol),
+                    rs.getString(statusCol),
+                    rs.getDouble(rateCol)
+            ));
+        }
+        rs.close();
+        return rows;
+    }
+
     /**
      * Extract Employee from ResultSet (handles all fields safely)
      */
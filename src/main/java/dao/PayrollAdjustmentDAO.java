@@ -2,10 +2,14 @@ package dao;
 
 import database.DatabaseConnection;
 import models.PayrollAdjustment;
+import utils.ChangeEventBus;
+import utils.PayrollSnapshot;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * DAO for Payroll Adjustments with full audit trail
@@ -21,7 +25,7 @@ public class PayrollAdjustmentDAO {
                 "VALUES (?, ?, ?, ?, ?, ?, ?)";
 
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, adjustment.getEmployeeId());
             stmt.setString(2, adjustment.getAdjustmentType());
@@ -34,14 +38,13 @@ public class PayrollAdjustmentDAO {
             stmt.executeUpdate();
 
             // Get generated ID
-            ResultSet keys = stmt.getGeneratedKeys();
-            if (keys.next()) {
-                adjustment.setId(keys.getInt(1));
-            }
+            adjustment.setId(DatabaseConnection.lastInsertId(conn));
 
             System.out.println("✓ Adjustment added: " + adjustment.getFormattedAmount() +
                     " - " + adjustment.getReason());
         }
+        ChangeEventBus.publish(ChangeEventBus.Type.ADJUSTMENT_ADDED,
+                adjustment.getId(), adjustment.getEmployeeId(), adjustment.getDateAdded());
     }
 
     /**
@@ -52,15 +55,30 @@ public class PayrollAdjustmentDAO {
         String sql = "UPDATE payroll_adjustments SET status = 'approved', " +
                 "approved_by = ?, date_approved = ? WHERE id = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, approvedBy);
-            stmt.setString(2, dateApproved);
-            stmt.setInt(3, adjustmentId);
-            stmt.executeUpdate();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                String previouslyApproved = approvedDateOf(conn, adjustmentId);
+
+                stmt.setInt(1, approvedBy);
+                stmt.setString(2, dateApproved);
+                stmt.setInt(3, adjustmentId);
+                stmt.executeUpdate();
+
+                // Counts in the period it is approved in, and leaves the one it was approved in before
+                PayrollSnapshot.requireOpen(dateApproved);
+                PayrollSnapshot.requireOpen(previouslyApproved);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
 
             System.out.println("✓ Adjustment #" + adjustmentId + " approved");
+            ChangeEventBus.publish(ChangeEventBus.Type.ADJUSTMENT_APPROVED,
+                    adjustmentId, employeeIdOf(conn, adjustmentId), dateApproved);
         }
     }
 
@@ -70,14 +88,27 @@ public class PayrollAdjustmentDAO {
     public void rejectAdjustment(int adjustmentId, String notes) throws SQLException {
         String sql = "UPDATE payroll_adjustments SET status = 'rejected', notes = ? WHERE id = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, notes);
-            stmt.setInt(2, adjustmentId);
-            stmt.executeUpdate();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                String previouslyApproved = approvedDateOf(conn, adjustmentId);
+
+                stmt.setString(1, notes);
+                stmt.setInt(2, adjustmentId);
+                stmt.executeUpdate();
+
+                PayrollSnapshot.requireOpen(previouslyApproved);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
 
             System.out.println("✓ Adjustment #" + adjustmentId + " rejected");
+            ChangeEventBus.publish(ChangeEventBus.Type.ADJUSTMENT_REJECTED,
+                    adjustmentId, employeeIdOf(conn, adjustmentId), null);
         }
     }
 
@@ -167,6 +198,56 @@ public class PayrollAdjustmentDAO {
         return adjustments;
     }
 
+    /**
+     * Get every employee's approved adjustments in a date range, keyed by employee ID
+     */
+    public Map<Integer, List<PayrollAdjustment>> getApprovedAdjustmentsByEmployee(
+            String startDate, String endDate) throws SQLException {
+        Map<Integer, List<PayrollAdjustment>> adjustments = new HashMap<>();
+        String sql = "SELECT * FROM payroll_adjustments " +
+                "WHERE status = 'approved' AND date_approved BETWEEN ? AND ? " +
+                "ORDER BY employee_id, date_approved DESC";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, startDate);
+            stmt.setString(2, endDate);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                PayrollAdjustment adjustment = extractAdjustment(rs);
+                adjustments.computeIfAbsent(adjustment.getEmployeeId(), id -> new ArrayList<>())
+                        .add(adjustment);
+            }
+        }
+        return adjustments;
+    }
+
+    /**
+     * Total approved adjustments per employee for a period, in one query
+     */
+    public Map<Integer, Double> getTotalAdjustmentsByEmployee(String startDate, String endDate)
+            throws SQLException {
+        Map<Integer, Double> totals = new HashMap<>();
+        String sql = "SELECT employee_id, SUM(amount) FROM payroll_adjustments " +
+                "WHERE status = 'approved' AND date_approved BETWEEN ? AND ? " +
+                "GROUP BY employee_id";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, startDate);
+            stmt.setString(2, endDate);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                totals.put(rs.getInt(1), rs.getDouble(2));
+            }
+        }
+        return totals;
+    }
+
     /**
      * Calculate total adjustments for employee in period
      */
@@ -215,17 +296,39 @@ public class PayrollAdjustmentDAO {
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
+            int employeeId = employeeIdOf(conn, adjustmentId);
             stmt.setInt(1, adjustmentId);
             int deleted = stmt.executeUpdate();
 
             if (deleted > 0) {
                 System.out.println("✓ Adjustment deleted");
+                ChangeEventBus.publish(ChangeEventBus.Type.ADJUSTMENT_DELETED, adjustmentId, employeeId, null);
             } else {
                 System.out.println("⚠ Cannot delete: Adjustment not found or already approved");
             }
         }
     }
 
+    // Date an approved adjustment counts in (null if it is not approved)
+    private static String approvedDateOf(Connection conn, int adjustmentId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT date_approved FROM payroll_adjustments WHERE id = ? AND status = 'approved'")) {
+            stmt.setInt(1, adjustmentId);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+
+    // Employee an adjustment belongs to, for its change event (0 if it no longer exists)
+    private static int employeeIdOf(Connection conn, int adjustmentId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT employee_id FROM payroll_adjustments WHERE id = ?")) {
+            stmt.setInt(1, adjustmentId);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
     /**
      * Get adjustment by ID
      */
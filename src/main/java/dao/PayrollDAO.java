@@ -1,25 +1,99 @@
 package dao;
 
 import database.DatabaseConnection;
+import database.SchemaMigrator;
 import models.Payroll;
+import utils.PayrollSnapshot;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 public class PayrollDAO {
 
+    private static final String[][] DISPLAY_COLUMNS = {
+            {"hours_worked", "REAL DEFAULT 0"},
+            {"hourly_rate", "REAL DEFAULT 0"},
+            {"sss_deduction", "REAL DEFAULT 0"},
+            {"philhealth_deduction", "REAL DEFAULT 0"},
+            {"pagibig_deduction", "REAL DEFAULT 0"},
+            {"total_adjustments", "REAL DEFAULT 0"},
+            {"is_held", "INTEGER DEFAULT 0"}
+    };
+
+    private static volatile boolean columnsReady = false;
+
+    private final PayrollYtdDAO ytdDAO = new PayrollYtdDAO();
+
     /**
      * Add new payroll record
      */
     public void addPayroll(Payroll payroll) throws SQLException {
-        String sql = "INSERT INTO payroll (employee_id, month, year, base_salary, total_deductions, " +
-                "final_salary, late_count, absent_count, date_processed, notes) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            ensureColumns(conn);
+            PayrollYtdDAO.ensureTable(conn);
+            conn.setAutoCommit(false);
+            try {
+                insertPayroll(conn, payroll);
+                ytdDAO.refresh(conn, List.of(payroll.getEmployeeId()), payroll.getYear());
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            System.out.println("Payroll added for employee ID: " + payroll.getEmployeeId());
+        }
+    }
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+    /**
+     * Save a period's calculated payroll (rows with an ID are updated, the
+     * rest added), clear the employees' change marks up to
+     * {@code dirtyThrough} and update their year-to-date totals, all in one
+     * transaction
+     */
+    public void savePeriod(List<Payroll> payrolls, int year, int month, long dirtyThrough) throws SQLException {
+        if (payrolls.isEmpty()) return;
+        Set<Integer> employeeIds = new LinkedHashSet<>();
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            ensureColumns(conn);
+            PayrollYtdDAO.ensureTable(conn);
+            conn.setAutoCommit(false);
+            try {
+                for (Payroll payroll : payrolls) {
+                    if (payroll.getId() > 0) {
+                        updatePayroll(conn, payroll);
+                    } else {
+                        insertPayroll(conn, payroll);
+                    }
+                    employeeIds.add(payroll.getEmployeeId());
+                }
+
+                // Marks made after the calculation read its inputs stay, so those employees are recalculated
+                PayrollDirtyDAO.clear(conn, employeeIds, year, month, dirtyThrough);
+                ytdDAO.refresh(conn, employeeIds, year);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        System.out.println("Payroll saved for " + payrolls.size() + " employee(s), " + month + "/" + year);
+    }
+
+    private void insertPayroll(Connection conn, Payroll payroll) throws SQLException {
+        String sql = "INSERT INTO payroll (employee_id, month, year, base_salary, total_deductions, " +
+                "final_salary, late_count, absent_count, date_processed, notes, hours_worked, hourly_rate, " +
+                "sss_deduction, philhealth_deduction, pagibig_deduction, total_adjustments, is_held) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, payroll.getEmployeeId());
             stmt.setInt(2, payroll.getMonth());
             stmt.setInt(3, payroll.getYear());
@@ -30,10 +104,11 @@ public class PayrollDAO {
             stmt.setInt(8, payroll.getAbsentCount());
             stmt.setString(9, payroll.getDateProcessed());
             stmt.setString(10, payroll.getNotes());
+            setDisplayFields(stmt, 11, payroll);
             stmt.executeUpdate();
-
-            System.out.println("Payroll added for employee ID: " + payroll.getEmployeeId());
         }
+        payroll.setId(DatabaseConnection.lastInsertId(conn));
+        PayrollSnapshot.requireOpen(payroll.getYear(), payroll.getMonth());
     }
 
     /**
@@ -51,19 +126,7 @@ public class PayrollDAO {
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return new Payroll(
-                        rs.getInt("id"),
-                        rs.getInt("employee_id"),
-                        rs.getInt("month"),
-                        rs.getInt("year"),
-                        rs.getDouble("base_salary"),
-                        rs.getDouble("total_deductions"),
-                        rs.getDouble("final_salary"),
-                        rs.getInt("late_count"),
-                        rs.getInt("absent_count"),
-                        rs.getString("date_processed"),
-                        rs.getString("notes")
-                );
+                return extractPayroll(rs);
             }
         }
         return null;
@@ -84,19 +147,7 @@ public class PayrollDAO {
             ResultSet rs = stmt.executeQuery();
 
             while (rs.next()) {
-                Payroll payroll = new Payroll(
-                        rs.getInt("id"),
-                        rs.getInt("employee_id"),
-                        rs.getInt("month"),
-                        rs.getInt("year"),
-                        rs.getDouble("base_salary"),
-                        rs.getDouble("total_deductions"),
-                        rs.getDouble("final_salary"),
-                        rs.getInt("late_count"),
-                        rs.getInt("absent_count"),
-                        rs.getString("date_processed"),
-                        rs.getString("notes")
-                );
+                Payroll payroll = extractPayroll(rs);
                 payrolls.add(payroll);
             }
         }
@@ -117,19 +168,7 @@ public class PayrollDAO {
             ResultSet rs = stmt.executeQuery();
 
             while (rs.next()) {
-                Payroll payroll = new Payroll(
-                        rs.getInt("id"),
-                        rs.getInt("employee_id"),
-                        rs.getInt("month"),
-                        rs.getInt("year"),
-                        rs.getDouble("base_salary"),
-                        rs.getDouble("total_deductions"),
-                        rs.getDouble("final_salary"),
-                        rs.getInt("late_count"),
-                        rs.getInt("absent_count"),
-                        rs.getString("date_processed"),
-                        rs.getString("notes")
-                );
+                Payroll payroll = extractPayroll(rs);
                 payrolls.add(payroll);
             }
         }
@@ -140,23 +179,42 @@ public class PayrollDAO {
      * Update payroll record (for manual adjustments)
      */
     public void updatePayroll(Payroll payroll) throws SQLException {
-        String sql = "UPDATE payroll SET base_salary = ?, total_deductions = ?, final_salary = ?, " +
-                "late_count = ?, absent_count = ?, notes = ? WHERE id = ?";
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            ensureColumns(conn);
+            PayrollYtdDAO.ensureTable(conn);
+            conn.setAutoCommit(false);
+            try {
+                updatePayroll(conn, payroll);
+                ytdDAO.refresh(conn, List.of(payroll.getEmployeeId()), payroll.getYear());
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            System.out.println("Payroll updated (ID: " + payroll.getId() + ")");
+        }
+    }
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+    private void updatePayroll(Connection conn, Payroll payroll) throws SQLException {
+        String sql = "UPDATE payroll SET base_salary = ?, total_deductions = ?, final_salary = ?, " +
+                "late_count = ?, absent_count = ?, notes = ?, hours_worked = ?, hourly_rate = ?, " +
+                "sss_deduction = ?, philhealth_deduction = ?, pagibig_deduction = ?, " +
+                "total_adjustments = ?, is_held = ? WHERE id = ?";
 
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setDouble(1, payroll.getBaseSalary());
             stmt.setDouble(2, payroll.getTotalDeductions());
             stmt.setDouble(3, payroll.getFinalSalary());
             stmt.setInt(4, payroll.getLateCount());
             stmt.setInt(5, payroll.getAbsentCount());
             stmt.setString(6, payroll.getNotes());
-            stmt.setInt(7, payroll.getId());
+            setDisplayFields(stmt, 7, payroll);
+            stmt.setInt(14, payroll.getId());
             stmt.executeUpdate();
-
-            System.out.println("Payroll updated (ID: " + payroll.getId() + ")");
         }
+        PayrollSnapshot.requireOpen(payroll.getYear(), payroll.getMonth());
     }
 
     /**
@@ -164,12 +222,40 @@ public class PayrollDAO {
      */
     public void deletePayroll(int id) throws SQLException {
         String sql = "DELETE FROM payroll WHERE id = ?";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, id);
-            stmt.executeUpdate();
+        int employeeId = 0;
+        int year = 0;
+        int month = 0;
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            PayrollYtdDAO.ensureTable(conn);
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement find = conn.prepareStatement(
+                        "SELECT employee_id, year, month FROM payroll WHERE id = ?")) {
+                    find.setInt(1, id);
+                    ResultSet rs = find.executeQuery();
+                    if (rs.next()) {
+                        employeeId = rs.getInt(1);
+                        year = rs.getInt(2);
+                        month = rs.getInt(3);
+                    }
+                }
+
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setInt(1, id);
+                    stmt.executeUpdate();
+                }
+                if (year != 0) {
+                    PayrollSnapshot.requireOpen(year, month);
+                    ytdDAO.refresh(conn, List.of(employeeId), year);
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
 
             System.out.println("Payroll deleted (ID: " + id + ")");
         }
@@ -187,19 +273,7 @@ public class PayrollDAO {
              ResultSet rs = stmt.executeQuery(sql)) {
 
             while (rs.next()) {
-                Payroll payroll = new Payroll(
-                        rs.getInt("id"),
-                        rs.getInt("employee_id"),
-                        rs.getInt("month"),
-                        rs.getInt("year"),
-                        rs.getDouble("base_salary"),
-                        rs.getDouble("total_deductions"),
-                        rs.getDouble("final_salary"),
-                        rs.getInt("late_count"),
-                        rs.getInt("absent_count"),
-                        rs.getString("date_processed"),
-                        rs.getString("notes")
-                );
+                Payroll payroll = extractPayroll(rs);
                 payrolls.add(payroll);
             }
         }
@@ -254,6 +328,134 @@ public class PayrollDAO {
         return new PayrollSummary(0, 0.0, 0.0, 0.0);
     }
 
+    /**
+     * Get a period's payroll with employee details in one query (for the payroll screen)
+     */
+    public List<PayrollRow> getPayrollRowsForPeriod(int month, int year) throws SQLException {
+        List<PayrollRow> rows = new ArrayList<>();
+        String sql = "SELECT pr.*, e.qr_code, e.name AS employee_name, " +
+                "COALESCE(pos.hourly_rate, pos.base_salary / 160.0, 0) AS position_rate, " +
+                "EXISTS (SELECT 1 FROM salary_holds h WHERE h.employee_id = pr.employee_id " +
+                "AND h.status = 'active') AS currently_held " +
+                "FROM payroll pr " +
+                "JOIN employees e ON e.id = pr.employee_id " +
+                "JOIN positions pos ON pos.id = e.position_id " +
+                "WHERE pr.month = ? AND pr.year = ? ORDER BY pr.employee_id";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            ensureColumns(conn);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, month);
+                stmt.setInt(2, year);
+                ResultSet rs = stmt.executeQuery();
+
+                while (rs.next()) {
+                    Payroll payroll = extractPayroll(rs);
+
+                    // Rows saved before these fields were stored: derive them from what was saved
+                    if (payroll.getHourlyRate() <= 0) {
+                        double rate = rs.getDouble("position_rate");
+                        payroll.setHourlyRate(rate);
+                        payroll.setHoursWorked(rate > 0 ? payroll.getBaseSalary() / rate : 0.0);
+                    }
+                    if (payroll.getTotalAdjustmentsCentavos() == 0) {
+                        payroll.setTotalAdjustmentsCentavos(payroll.getFinalSalaryCentavos()
+                                - payroll.getBaseSalaryCentavos() + payroll.getTotalDeductionsCentavos());
+                    }
+
+                    rows.add(new PayrollRow(payroll, rs.getString("qr_code"), rs.getString("employee_name"),
+                            rs.getInt("currently_held") == 1));
+                }
+            }
+        }
+        return rows;
+    }
+
+    private Payroll extractPayroll(ResultSet rs) throws SQLException {
+        Payroll payroll = new Payroll(
+                rs.getInt("id"),
+                rs.getInt("employee_id"),
+                rs.getInt("month"),
+                rs.getInt("year"),
+                rs.getDouble("base_salary"),
+                rs.getDouble("total_deductions"),
+                rs.getDouble("final_salary"),
+                rs.getInt("late_count"),
+                rs.getInt("absent_count"),
+                rs.getString("date_processed"),
+                rs.getString("notes")
+        );
+
+        // Columns added later may be missing on databases that were not upgraded
+        try {
+            payroll.setHoursWorked(rs.getDouble("hours_worked"));
+            payroll.setHourlyRate(rs.getDouble("hourly_rate"));
+            payroll.setSssDeduction(rs.getDouble("sss_deduction"));
+            payroll.setPhilHealthDeduction(rs.getDouble("philhealth_deduction"));
+            payroll.setPagIbigDeduction(rs.getDouble("pagibig_deduction"));
+            payroll.setTotalAdjustments(rs.getDouble("total_adjustments"));
+            payroll.setHeld(rs.getInt("is_held") == 1);
+        } catch (SQLException e) {
+            // Keep the defaults
+        }
+        return payroll;
+    }
+
+    private void setDisplayFields(PreparedStatement stmt, int firstIndex, Payroll payroll) throws SQLException {
+        stmt.setDouble(firstIndex, payroll.getHoursWorked());
+        stmt.setDouble(firstIndex + 1, payroll.getHourlyRate());
+        stmt.setDouble(firstIndex + 2, payroll.getSssDeduction());
+        stmt.setDouble(firstIndex + 3, payroll.getPhilHealthDeduction());
+        stmt.setDouble(firstIndex + 4, payroll.getPagIbigDeduction());
+        stmt.setDouble(firstIndex + 5, payroll.getTotalAdjustments());
+        stmt.setInt(firstIndex + 6, payroll.isHeld() ? 1 : 0);
+    }
+
+    /**
+     * Add the stored display columns on databases set up before they existed
+     */
+    private static void ensureColumns(Connection conn) throws SQLException {
+        if (columnsReady) return;
+
+        synchronized (PayrollDAO.class) {
+            if (columnsReady) return;
+            if (SchemaMigrator.isCurrent(conn)) {
+                columnsReady = true;
+                return;
+            }
+
+            try (Statement stmt = conn.createStatement()) {
+                for (String[] column : DISPLAY_COLUMNS) {
+                    try {
+                        stmt.execute("ALTER TABLE payroll ADD COLUMN " + column[0] + " " + column[1]);
+                    } catch (SQLException e) {
+                        if (!e.getMessage().contains("duplicate column")) {
+                            throw e;
+                        }
+                    }
+                }
+            }
+            columnsReady = true;
+        }
+    }
+
+    /**
+     * Saved payroll with the employee details the payroll table shows
+     */
+    public static class PayrollRow {
+        public final Payroll payroll;
+        public final String qrCode;
+        public final String employeeName;
+        public final boolean currentlyHeld; // live hold status (payroll.isHeld() is as processed)
+
+        public PayrollRow(Payroll payroll, String qrCode, String employeeName, boolean currentlyHeld) {
+            this.payroll = payroll;
+            this.qrCode = qrCode;
+            this.employeeName = employeeName;
+            this.currentlyHeld = currentlyHeld;
+        }
+    }
+
     /**
      * Inner class for payroll summary
      */
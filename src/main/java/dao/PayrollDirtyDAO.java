@@ -0,0 +1,237 @@
+package dao;
+
+import database.DatabaseConnection;
+import database.SchemaMigrator;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tracks which employee-periods need their payroll recalculated
+ *
+ * SQLite triggers mark an employee-period dirty whenever one of its inputs
+ * changes (attendance, approved adjustments, holds, position rates, the
+ * employee's position, or government deduction rows), so every writer -
+ * DAOs, the bulk importer, manual DB edits - is covered. Saved payroll rows
+ * without a mark can be reused as-is.
+ *
+ * Every mark gets a new, ever-increasing sequence number, also when an
+ * already dirty employee-period is marked again. A calculation notes the
+ * newest number before it reads its inputs, and saving its results clears
+ * only the marks up to that number, so changes made in between stay marked.
+ */
+public class PayrollDirtyDAO {
+
+    // Period of a yyyy-MM-dd column
+    private static String year(String column) {
+        return "CAST(substr(" + column + ", 1, 4) AS INTEGER)";
+    }
+
+    private static String month(String column) {
+        return "CAST(substr(" + column + ", 6, 2) AS INTEGER)";
+    }
+
+    // Replacing an existing mark gives it a new sequence number
+    private static final String MARK = "INSERT OR REPLACE INTO payroll_dirty (employee_id, year, month) ";
+
+    // Every saved period of one employee
+    private static String markSavedPeriods(String employeeId) {
+        return MARK + "SELECT employee_id, year, month FROM payroll WHERE employee_id = " + employeeId + "; ";
+    }
+
+    private static volatile boolean schemaReady = false;
+
+    /**
+     * Create the dirty table and the triggers that fill it
+     */
+    public static void createSchema(Statement stmt) throws SQLException {
+        boolean exists;
+        try (ResultSet rs = stmt.executeQuery(
+                "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = 'payroll_dirty'")) {
+            exists = rs.next();
+        }
+        // Tables from before sequence numbers are copied into the new layout, with new triggers
+        boolean upgrading = exists && !hasSequence(stmt);
+        if (upgrading) {
+            dropTriggers(stmt);
+            stmt.execute("ALTER TABLE payroll_dirty RENAME TO payroll_dirty_old");
+        }
+
+        stmt.execute(
+                "CREATE TABLE IF NOT EXISTS payroll_dirty (" +
+                        "seq INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                        "employee_id INTEGER NOT NULL, " +
+                        "year INTEGER NOT NULL, " +
+                        "month INTEGER NOT NULL, " +
+                        "UNIQUE(employee_id, year, month)" +
+                        ")"
+        );
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_payroll_dirty_period ON payroll_dirty(year, month)");
+        if (upgrading) {
+            stmt.execute("INSERT INTO payroll_dirty (employee_id, year, month) " +
+                    "SELECT employee_id, year, month FROM payroll_dirty_old");
+            stmt.execute("DROP TABLE payroll_dirty_old");
+        }
+
+        // Attendance: the period of the old and new row
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_dirty_attendance_insert AFTER INSERT ON attendance BEGIN " +
+                MARK + "VALUES (NEW.employee_id, " + year("NEW.date") + ", " + month("NEW.date") + "); END");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_dirty_attendance_update AFTER UPDATE ON attendance BEGIN " +
+                MARK + "VALUES (OLD.employee_id, " + year("OLD.date") + ", " + month("OLD.date") + "); " +
+                MARK + "VALUES (NEW.employee_id, " + year("NEW.date") + ", " + month("NEW.date") + "); END");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_dirty_attendance_delete AFTER DELETE ON attendance BEGIN " +
+                MARK + "VALUES (OLD.employee_id, " + year("OLD.date") + ", " + month("OLD.date") + "); END");
+
+        // Adjustments count in the period they were approved
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_dirty_adjustment_insert AFTER INSERT ON payroll_adjustments " +
+                "WHEN NEW.date_approved IS NOT NULL BEGIN " +
+                MARK + "VALUES (NEW.employee_id, " + year("NEW.date_approved") + ", " + month("NEW.date_approved") + "); END");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_dirty_adjustment_update AFTER UPDATE ON payroll_adjustments BEGIN " +
+                MARK + "SELECT OLD.employee_id, " + year("OLD.date_approved") + ", " + month("OLD.date_approved") +
+                " WHERE OLD.date_approved IS NOT NULL; " +
+                MARK + "SELECT NEW.employee_id, " + year("NEW.date_approved") + ", " + month("NEW.date_approved") +
+                " WHERE NEW.date_approved IS NOT NULL; END");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_dirty_adjustment_delete AFTER DELETE ON payroll_adjustments " +
+                "WHEN OLD.date_approved IS NOT NULL BEGIN " +
+                MARK + "VALUES (OLD.employee_id, " + year("OLD.date_approved") + ", " + month("OLD.date_approved") + "); END");
+
+        // Holds, rate and position changes affect every saved period
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_dirty_hold_insert AFTER INSERT ON salary_holds BEGIN " +
+                markSavedPeriods("NEW.employee_id") + "END");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_dirty_hold_update AFTER UPDATE ON salary_holds BEGIN " +
+                markSavedPeriods("NEW.employee_id") + "END");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_dirty_hold_delete AFTER DELETE ON salary_holds BEGIN " +
+                markSavedPeriods("OLD.employee_id") + "END");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_dirty_position_rate " +
+                "AFTER UPDATE OF hourly_rate, base_salary ON positions BEGIN " +
+                MARK + "SELECT p.employee_id, p.year, p.month FROM payroll p " +
+                "JOIN employees e ON e.id = p.employee_id WHERE e.position_id = NEW.id; END");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_dirty_employee_position " +
+                "AFTER UPDATE OF position_id, status ON employees BEGIN " +
+                markSavedPeriods("NEW.id") + "END");
+
+        // Government rate rows feed everyone's deductions
+        for (String event : new String[]{"INSERT", "UPDATE", "DELETE"}) {
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_dirty_gov_" + event.toLowerCase() +
+                    " AFTER " + event + " ON government_deductions BEGIN " +
+                    MARK + "SELECT employee_id, year, month FROM payroll; END");
+        }
+
+        if (!exists) {
+            // Changes made before tracking existed are unknown, so start from "everything dirty"
+            stmt.executeUpdate(MARK + "SELECT employee_id, year, month FROM payroll");
+        }
+    }
+
+    /**
+     * Sequence number of the newest mark (0 if none was ever made)
+     * Read it before the inputs it should cover.
+     */
+    public long getLatestSeq() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            ensureSchema(conn);
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(seq), 0) FROM payroll_dirty")) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Employees whose saved payroll for the period is out of date
+     */
+    public Set<Integer> getDirtyEmployeeIds(int year, int month) throws SQLException {
+        Set<Integer> dirty = new HashSet<>();
+        String sql = "SELECT employee_id FROM payroll_dirty WHERE year = ? AND month = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            ensureSchema(conn);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, year);
+                stmt.setInt(2, month);
+                ResultSet rs = stmt.executeQuery();
+
+                while (rs.next()) {
+                    dirty.add(rs.getInt(1));
+                }
+            }
+        }
+        return dirty;
+    }
+
+    /**
+     * Number of employees with a mark for the period, read on the caller's connection
+     */
+    public static int countDirty(Connection conn, int year, int month) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT COUNT(*) FROM payroll_dirty WHERE year = ? AND month = ?")) {
+            stmt.setInt(1, year);
+            stmt.setInt(2, month);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Clear the marks of employees whose payroll was just saved for the period,
+     * up to the newest mark the saved figures include, as part of the save's
+     * transaction
+     */
+    static void clear(Connection conn, Collection<Integer> employeeIds, int year, int month,
+                      long throughSeq) throws SQLException {
+        if (employeeIds.isEmpty() || throughSeq <= 0) return;
+        String sql = "DELETE FROM payroll_dirty WHERE employee_id = ? AND year = ? AND month = ? AND seq <= ?";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int employeeId : employeeIds) {
+                stmt.setInt(1, employeeId);
+                stmt.setInt(2, year);
+                stmt.setInt(3, month);
+                stmt.setLong(4, throughSeq);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private static boolean hasSequence(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(payroll_dirty)")) {
+            while (rs.next()) {
+                if ("seq".equals(rs.getString("name"))) return true;
+            }
+        }
+        return false;
+    }
+
+    private static void dropTriggers(Statement stmt) throws SQLException {
+        List<String> triggers = new ArrayList<>();
+        try (ResultSet rs = stmt.executeQuery(
+                "SELECT name FROM sqlite_master WHERE type = 'trigger' AND name LIKE 'trg_dirty_%'")) {
+            while (rs.next()) {
+                triggers.add(rs.getString(1));
+            }
+        }
+        for (String trigger : triggers) {
+            stmt.execute("DROP TRIGGER " + trigger);
+        }
+    }
+
+    private static void ensureSchema(Connection conn) throws SQLException {
+        if (schemaReady) return;
+
+        synchronized (PayrollDirtyDAO.class) {
+            if (schemaReady) return;
+
+            if (!SchemaMigrator.isCurrent(conn)) {
+                try (Statement stmt = conn.createStatement()) {
+                    createSchema(stmt);
+                }
+            }
+            schemaReady = true;
+        }
+    }
+}
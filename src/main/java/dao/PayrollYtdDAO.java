@@ -0,0 +1,295 @@
+package dao;
+
+import database.DatabaseConnection;
+import database.SchemaMigrator;
+import utils.Money;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Year-to-date payroll totals (one row per employee per year)
+ *
+ * PayrollDAO refreshes an employee's row whenever one of their payroll
+ * records is saved, in the same transaction, so yearly totals and 13th-month
+ * pay are single-row reads instead of summing every month client-side.
+ */
+public class PayrollYtdDAO {
+
+    private static final String YTD_INSERT =
+            "INSERT OR REPLACE INTO payroll_ytd " +
+            "(employee_id, year, months_paid, gross, deductions, adjustments, net) " +
+            "SELECT employee_id, year, COUNT(*), " +
+            "SUM(COALESCE(base_salary, 0)), " +
+            "SUM(COALESCE(total_deductions, 0)), " +
+            "SUM(COALESCE(final_salary, 0) - COALESCE(base_salary, 0) + COALESCE(total_deductions, 0)), " +
+            "SUM(COALESCE(final_salary, 0)) " +
+            "FROM payroll ";
+
+    private static final String YTD_GROUP = " GROUP BY employee_id, year";
+
+    private static volatile boolean tableReady = false;
+
+    /**
+     * Create the YTD table
+     */
+    public static void createTable(Statement stmt) throws SQLException {
+        stmt.execute(
+                "CREATE TABLE IF NOT EXISTS payroll_ytd (" +
+                        "employee_id INTEGER NOT NULL, " +
+                        "year INTEGER NOT NULL, " +
+                        "months_paid INTEGER DEFAULT 0, " +
+                        "gross REAL DEFAULT 0, " +
+                        "deductions REAL DEFAULT 0, " +
+                        "adjustments REAL DEFAULT 0, " +
+                        "net REAL DEFAULT 0, " +
+                        "PRIMARY KEY(employee_id, year), " +
+                        "FOREIGN KEY(employee_id) REFERENCES employees(id) ON DELETE CASCADE" +
+                        ")"
+        );
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_payroll_ytd_year ON payroll_ytd(year)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_payroll_employee_year ON payroll(employee_id, year)");
+    }
+
+    /**
+     * Recompute one employee's totals for a year from their payroll records
+     */
+    public void refresh(int employeeId, int year) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            ensureTable(conn);
+            conn.setAutoCommit(false);
+            try {
+                refresh(conn, List.of(employeeId), year);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Recompute employees' totals for a year as part of the caller's
+     * transaction, so they commit or roll back with the payroll write
+     * (call ensureTable before the transaction starts)
+     */
+    public void refresh(Connection conn, Collection<Integer> employeeIds, int year) throws SQLException {
+        try (PreparedStatement delete = conn.prepareStatement(
+                "DELETE FROM payroll_ytd WHERE employee_id = ? AND year = ?");
+             PreparedStatement insert = conn.prepareStatement(
+                     YTD_INSERT + "WHERE employee_id = ? AND year = ?" + YTD_GROUP)) {
+            for (int employeeId : employeeIds) {
+                delete.setInt(1, employeeId);
+                delete.setInt(2, year);
+                delete.addBatch();
+                insert.setInt(1, employeeId);
+                insert.setInt(2, year);
+                insert.addBatch();
+            }
+            delete.executeBatch();
+            insert.executeBatch();
+        }
+    }
+
+    /**
+     * Rebuild the whole YTD table from payroll records
+     */
+    public int rebuildAll() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            ensureTable(conn);
+            return rebuildAll(conn);
+        }
+    }
+
+    /**
+     * Get one employee's totals for a year (zeros if nothing was paid)
+     */
+    public YtdTotals getYtd(int employeeId, int year) throws SQLException {
+        String sql = "SELECT * FROM payroll_ytd WHERE employee_id = ? AND year = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            ensureTable(conn);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, employeeId);
+                stmt.setInt(2, year);
+                ResultSet rs = stmt.executeQuery();
+
+                if (rs.next()) {
+                    return extractTotals(rs);
+                }
+            }
+        }
+        return new YtdTotals(employeeId, year, 0, 0.0, 0.0, 0.0, 0.0);
+    }
+
+    /**
+     * Get every employee's totals for a year, keyed by employee ID
+     */
+    public Map<Integer, YtdTotals> getYtdForYear(int year) throws SQLException {
+        Map<Integer, YtdTotals> totals = new HashMap<>();
+        String sql = "SELECT * FROM payroll_ytd WHERE year = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            ensureTable(conn);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, year);
+                ResultSet rs = stmt.executeQuery();
+
+                while (rs.next()) {
+                    YtdTotals ytd = extractTotals(rs);
+                    totals.put(ytd.employeeId, ytd);
+                }
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * 13th-month pay for the whole company: total basic pay for the year / 12
+     */
+    public List<ThirteenthMonthPay> getThirteenthMonthPay(int year) throws SQLException {
+        List<ThirteenthMonthPay> results = new ArrayList<>();
+        String sql = "SELECT y.employee_id, e.qr_code, e.name, y.months_paid, y.gross " +
+                "FROM payroll_ytd y JOIN employees e ON e.id = y.employee_id " +
+                "WHERE y.year = ? AND y.gross > 0 ORDER BY e.name";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            ensureTable(conn);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, year);
+                ResultSet rs = stmt.executeQuery();
+
+                while (rs.next()) {
+                    double basicPay = rs.getDouble(5);
+                    results.add(new ThirteenthMonthPay(
+                            rs.getInt(1),
+                            rs.getString(2),
+                            rs.getString(3),
+                            rs.getInt(4),
+                            basicPay,
+                            Money.toPesos(Money.scale(Money.ofPesos(basicPay), 1, 12))
+                    ));
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Create the YTD table if an older database lacks it
+     * (may commit, so call it outside a transaction)
+     */
+    static void ensureTable(Connection conn) throws SQLException {
+        if (tableReady) return;
+
+        synchronized (PayrollYtdDAO.class) {
+            if (tableReady) return;
+            if (SchemaMigrator.isCurrent(conn)) {
+                tableReady = true;
+                return;
+            }
+
+            boolean exists;
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = 'payroll_ytd'")) {
+                exists = stmt.executeQuery().next();
+            }
+
+            if (!exists) {
+                try (Statement stmt = conn.createStatement()) {
+                    createTable(stmt);
+                }
+                rebuildAll(conn);
+            }
+            tableReady = true;
+        }
+    }
+
+    /**
+     * Insert the totals of every saved payroll into an empty table,
+     * as part of the caller's transaction
+     */
+    public static int fillTable(Statement stmt) throws SQLException {
+        return stmt.executeUpdate(YTD_INSERT + YTD_GROUP);
+    }
+
+    private static int rebuildAll(Connection conn) throws SQLException {
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM payroll_ytd");
+            int rows = fillTable(stmt);
+            conn.commit();
+            System.out.println("✓ Payroll YTD totals rebuilt: " + rows + " employee-year(s)");
+            return rows;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private YtdTotals extractTotals(ResultSet rs) throws SQLException {
+        return new YtdTotals(
+                rs.getInt("employee_id"),
+                rs.getInt("year"),
+                rs.getInt("months_paid"),
+                rs.getDouble("gross"),
+                rs.getDouble("deductions"),
+                rs.getDouble("adjustments"),
+                rs.getDouble("net")
+        );
+    }
+
+    /**
+     * Payroll totals for one employee in one year
+     */
+    public static class YtdTotals {
+        public final int employeeId;
+        public final int year;
+        public final int monthsPaid;
+        public final double gross;
+        public final double deductions;
+        public final double adjustments;
+        public final double net;
+
+        public YtdTotals(int employeeId, int year, int monthsPaid, double gross,
+                         double deductions, double adjustments, double net) {
+            this.employeeId = employeeId;
+            this.year = year;
+            this.monthsPaid = monthsPaid;
+            this.gross = gross;
+            this.deductions = deductions;
+            this.adjustments = adjustments;
+            this.net = net;
+        }
+    }
+
+    /**
+     * 13th-month pay of one employee
+     */
+    public static class ThirteenthMonthPay {
+        public final int employeeId;
+        public final String qrCode;
+        public final String employeeName;
+        public final int monthsPaid;
+        public final double basicPay;
+        public final double amount;
+
+        public ThirteenthMonthPay(int employeeId, String qrCode, String employeeName,
+                                  int monthsPaid, double basicPay, double amount) {
+            this.employeeId = employeeId;
+            this.qrCode = qrCode;
+            this.employeeName = employeeName;
+            this.monthsPaid = monthsPaid;
+            this.basicPay = basicPay;
+            this.amount = amount;
+        }
+    }
+}
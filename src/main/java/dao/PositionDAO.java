@@ -73,41 +73,7 @@ public class PositionDAO {
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                int shiftId = 0;
-
-                // Safely check if shift_id exists
-                try {
-                    shiftId = rs.getInt("shift_id");
-                    if (rs.wasNull()) {
-                        shiftId = 0;
-                    }
-                } catch (SQLException e) {
-                    // Column doesn't exist - use default
-                    shiftId = 0;
-                }
-
-                // Check if hourly_rate column exists
-                double hourlyRate = 0.0;
-                try {
-                    hourlyRate = rs.getDouble("hourly_rate");
-                    if (rs.wasNull()) {
-                        // Calculate from base_salary
-                        hourlyRate = rs.getDouble("base_salary") / 160.0;
-                    }
-                } catch (SQLException e) {
-                    // hourly_rate column doesn't exist - calculate from base
-                    hourlyRate = rs.getDouble("base_salary") / 160.0;
-                }
-
-                return new Position(
-                        rs.getInt("id"),
-                        rs.getString("title"),
-                        rs.getInt("department_id"),
-                        rs.getDouble("base_salary"),
-                        hourlyRate,
-                        rs.getString("description"),
-                        shiftId
-                );
+                return extractPosition(rs);
             }
         }
         return null;
@@ -125,39 +91,7 @@ public class PositionDAO {
              ResultSet rs = stmt.executeQuery(sql)) {
 
             while (rs.next()) {
-                int shiftId = 0;
-
-                // Safely check if shift_id exists
-                try {
-                    shiftId = rs.getInt("shift_id");
-                    if (rs.wasNull()) {
-                        shiftId = 0;
-                    }
-                } catch (SQLException e) {
-                    shiftId = 0;
-                }
-
-                // Check if hourly_rate column exists
-                double hourlyRate = 0.0;
-                try {
-                    hourlyRate = rs.getDouble("hourly_rate");
-                    if (rs.wasNull()) {
-                        hourlyRate = rs.getDouble("base_salary") / 160.0;
-                    }
-                } catch (SQLException e) {
-                    hourlyRate = rs.getDouble("base_salary") / 160.0;
-                }
-
-                Position position = new Position(
-                        rs.getInt("id"),
-                        rs.getString("title"),
-                        rs.getInt("department_id"),
-                        rs.getDouble("base_salary"),
-                        hourlyRate,
-                        rs.getString("description"),
-                        shiftId
-                );
-                positions.add(position);
+                positions.add(extractPosition(rs));
             }
         }
         return positions;
@@ -177,37 +111,7 @@ public class PositionDAO {
             ResultSet rs = stmt.executeQuery();
 
             while (rs.next()) {
-                int shiftId = 0;
-
-                try {
-                    shiftId = rs.getInt("shift_id");
-                    if (rs.wasNull()) {
-                        shiftId = 0;
-                    }
-                } catch (SQLException e) {
-                    shiftId = 0;
-                }
-
-                double hourlyRate = 0.0;
-                try {
-                    hourlyRate = rs.getDouble("hourly_rate");
-                    if (rs.wasNull()) {
-                        hourlyRate = rs.getDouble("base_salary") / 160.0;
-                    }
-                } catch (SQLException e) {
-                    hourlyRate = rs.getDouble("base_salary") / 160.0;
-                }
-
-                Position position = new Position(
-                        rs.getInt("id"),
-                        rs.getString("title"),
-                        rs.getInt("department_id"),
-                        rs.getDouble("base_salary"),
-                        hourlyRate,
-                        rs.getString("description"),
-                        shiftId
-                );
-                positions.add(position);
+                positions.add(extractPosition(rs));
             }
         }
         return positions;
@@ -265,4 +169,74 @@ public class PositionDAO {
             System.out.println("Position deleted (ID: " + id + ")");
         }
     }
+
+    /**
+     * Get all positions with their department name (single JOIN query)
+     */
+    public List<PositionWithDepartment> getAllPositionsWithDepartment() throws SQLException {
+        List<PositionWithDepartment> positions = new ArrayList<>();
+        String sql = "SELECT p.*, COALESCE(d.name, 'Unknown') AS department_name " +
+                "FROM positions p LEFT JOIN departments d ON d.id = p.department_id";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                positions.add(new PositionWithDepartment(
+                        extractPosition(rs),
+                        rs.getString("department_name")
+                ));
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Extract Position from ResultSet (SAFE - handles missing columns)
+     */
+    private Position extractPosition(ResultSet rs) throws SQLException {
+        int shiftId = 0;
+        try {
+            shiftId = rs.getInt("shift_id");
+            if (rs.wasNull()) {
+                shiftId = 0;
+            }
+        } catch (SQLException e) {
+            shiftId = 0;
+        }
+
+        double hourlyRate = 0.0;
+        try {
+            hourlyRate = rs.getDouble("hourly_rate");
+            if (rs.wasNull()) {
+                hourlyRate = rs.getDouble("base_salary") / 160.0;
+            }
+        } catch (SQLException e) {
+            hourlyRate = rs.getDouble("base_salary") / 160.0;
+        }
+
+        return new Position(
+                rs.getInt("id"),
+                rs.getString("title"),
+                rs.getInt("department_id"),
+                rs.getDouble("base_salary"),
+                hourlyRate,
+                rs.getString("description"),
+                shiftId
+        );
+    }
+
+    /**
+     * Inner class pairing a position with its department name
+     */
+    public static class PositionWithDepartment {
+        public final Position position;
+        public final String departmentName;
+
+        public PositionWithDepartment(Position position, String departmentName) {
+            this.position = position;
+            this.departmentName = departmentName;
+        }
+    }
 }
\ No newline at end of file
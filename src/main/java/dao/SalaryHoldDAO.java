@@ -2,10 +2,13 @@ package dao;
 
 import database.DatabaseConnection;
 import models.SalaryHold;
+import utils.ChangeEventBus;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * DAO for Salary Hold feature
@@ -21,7 +24,7 @@ public class SalaryHoldDAO {
                 "VALUES (?, ?, ?, ?, ?, 'active', datetime('now'))";
 
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, hold.getEmployeeId());
             stmt.setString(2, hold.getReason());
@@ -32,13 +35,11 @@ public class SalaryHoldDAO {
             stmt.executeUpdate();
 
             // Get generated ID
-            ResultSet keys = stmt.getGeneratedKeys();
-            if (keys.next()) {
-                hold.setId(keys.getInt(1));
-            }
+            hold.setId(DatabaseConnection.lastInsertId(conn));
 
             System.out.println("✓ Salary held for employee #" + hold.getEmployeeId());
         }
+        ChangeEventBus.publish(ChangeEventBus.Type.HOLD_CHANGED, hold.getId(), hold.getEmployeeId(), hold.getHoldDate());
     }
 
     /**
@@ -57,6 +58,7 @@ public class SalaryHoldDAO {
             stmt.executeUpdate();
 
             System.out.println("✓ Salary hold #" + holdId + " released");
+            ChangeEventBus.publish(ChangeEventBus.Type.HOLD_CHANGED, holdId, employeeIdOf(conn, holdId), releaseDate);
         }
     }
 
@@ -80,6 +82,24 @@ public class SalaryHoldDAO {
         return false;
     }
 
+    /**
+     * IDs of all employees with an active hold
+     */
+    public Set<Integer> getHeldEmployeeIds() throws SQLException {
+        Set<Integer> held = new HashSet<>();
+        String sql = "SELECT DISTINCT employee_id FROM salary_holds WHERE status = 'active'";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                held.add(rs.getInt(1));
+            }
+        }
+        return held;
+    }
+
     /**
      * Get active hold for employee
      */
@@ -167,11 +187,13 @@ public class SalaryHoldDAO {
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
+            int employeeId = employeeIdOf(conn, holdId);
             stmt.setInt(1, holdId);
             int deleted = stmt.executeUpdate();
 
             if (deleted > 0) {
                 System.out.println("✓ Hold deleted");
+                ChangeEventBus.publish(ChangeEventBus.Type.HOLD_CHANGED, holdId, employeeId, null);
                 return true;
             } else {
                 System.out.println("⚠ Cannot delete: Hold is too old or already released");
@@ -180,6 +202,16 @@ public class SalaryHoldDAO {
         }
     }
 
+    // Employee a hold belongs to, for its change event (0 if it no longer exists)
+    private static int employeeIdOf(Connection conn, int holdId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT employee_id FROM salary_holds WHERE id = ?")) {
+            stmt.setInt(1, holdId);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
     /**
      * Get hold by ID
      */
@@ -21,7 +21,7 @@ public class ShiftDAO {
                 "VALUES (?, ?, ?, ?, ?)";
 
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, shift.getName());
             stmt.setString(2, shift.getStartTime().toString());
@@ -31,10 +31,7 @@ public class ShiftDAO {
 
             stmt.executeUpdate();
 
-            ResultSet keys = stmt.getGeneratedKeys();
-            if (keys.next()) {
-                shift.setId(keys.getInt(1));
-            }
+            shift.setId(DatabaseConnection.lastInsertId(conn));
 
             System.out.println("✓ Shift added: " + shift.getName() + " (" + shift.getShiftTimeRange() + ")");
         }
@@ -160,8 +157,14 @@ public class ShiftDAO {
      * Returns the shift that the time falls within
      */
     public Shift findShiftForTimeIn(LocalTime timeIn) throws SQLException {
-        List<Shift> shifts = getActiveShifts();
+        return findShiftForTimeIn(getActiveShifts(), timeIn);
+    }
 
+    /**
+     * Find appropriate shift for a given time-in from an already loaded shift list
+     * (for bulk work that should not query per row)
+     */
+    public static Shift findShiftForTimeIn(List<Shift> shifts, LocalTime timeIn) {
         for (Shift shift : shifts) {
             LocalTime start = shift.getStartTime();
             LocalTime end = shift.getEndTime();
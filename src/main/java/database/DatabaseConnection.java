@@ -2,7 +2,9 @@ package database;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 
 /**
  * Simple Database Connection Manager
@@ -19,6 +21,17 @@ public class DatabaseConnection {
         return DriverManager.getConnection(DATABASE_URL);
     }
 
+    /**
+     * Row ID of the last INSERT made on this connection
+     * (the SQLite driver does not support getGeneratedKeys on prepared statements)
+     */
+    public static int lastInsertId(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT last_insert_rowid()")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
     /**
      * Test database connection
      */
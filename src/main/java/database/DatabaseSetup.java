@@ -1,8 +1,9 @@
 package database;
 
-import dao.ShiftDAO;
+import models.Shift;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.ResultSet;
@@ -10,7 +11,10 @@ import java.sql.ResultSet;
 /**
  * ALL-IN-ONE Database Setup
  * Creates all tables, columns, and default data
- * Run this ONCE when setting up the system
+ *
+ * The steps below are the bodies of the schema migrations in
+ * SchemaMigrator; running this applies whichever of them the database
+ * has not had yet, so it is safe to run again after an upgrade.
  */
 public class DatabaseSetup {
 
@@ -18,30 +22,14 @@ public class DatabaseSetup {
 
     public static void main(String[] args) {
         System.out.println("    HR PAYROLL SYSTEM - DATABASE SETUP");
-        try {
-            Connection conn = DriverManager.getConnection(DATABASE_URL);
-            Statement stmt = conn.createStatement();
-
-            // Step 1: Create all core tables
-            createCoreTables(stmt);
-
-            // Step 2: Create feature tables
-            createFeatureTables(stmt);
-
-            // Step 3: Add additional columns to existing tables
-            addAdditionalColumns(stmt);
+        try (Connection conn = DriverManager.getConnection(DATABASE_URL)) {
 
-            // Step 4: Create indexes for performance
-            createIndexes(stmt);
+            int from = SchemaMigrator.getVersion(conn);
+            int applied = SchemaMigrator.migrate(conn);
 
-            // Step 5: Insert default data
-            insertDefaultData(stmt);
-
-            stmt.close();
-            conn.close();
-
-            // Step 6: Initialize default shifts using DAO
-            initializeShifts();
+            if (applied == 0) {
+                System.out.println("   ✓ Schema already at version " + from + " (nothing to do)");
+            }
 
             System.out.println("    ✓ DATABASE SETUP COMPLETED SUCCESSFULLY!");
             System.out.println("\n Your system is ready to use!");
@@ -58,7 +46,7 @@ public class DatabaseSetup {
     /**
      * Create all core tables
      */
-    private static void createCoreTables(Statement stmt) throws SQLException {
+    static void createCoreTables(Statement stmt) throws SQLException {
         System.out.println(" Creating core tables...");
 
         // 1. Users table (for login system)
@@ -147,6 +135,9 @@ public class DatabaseSetup {
                         "status TEXT, " +
                         "hours_worked REAL DEFAULT 0.0, " +
                         "shift_id INTEGER, " +
+                        "date_day INTEGER, " +      // days since 1970-01-01
+                        "time_in_sec INTEGER, " +   // seconds since midnight
+                        "time_out_sec INTEGER, " +
                         "FOREIGN KEY(employee_id) REFERENCES employees(id), " +
                         "FOREIGN KEY(shift_id) REFERENCES shifts(id)" +
                         ")"
@@ -172,6 +163,8 @@ public class DatabaseSetup {
                         "philhealth_deduction REAL DEFAULT 0, " +
                         "is_held INTEGER DEFAULT 0, " +
                         "total_adjustments REAL DEFAULT 0, " +
+                        "hours_worked REAL DEFAULT 0, " +
+                        "hourly_rate REAL DEFAULT 0, " +
                         "FOREIGN KEY(employee_id) REFERENCES employees(id)" +
                         ")"
         );
@@ -183,7 +176,7 @@ public class DatabaseSetup {
     /**
      * Create feature tables (adjustments, holds, deductions)
      */
-    private static void createFeatureTables(Statement stmt) throws SQLException {
+    static void createFeatureTables(Statement stmt) throws SQLException {
         System.out.println("Creating feature tables...");
 
         // 1. Payroll Adjustments (bonuses, deductions, etc.)
@@ -251,27 +244,29 @@ public class DatabaseSetup {
     /**
      * Add additional columns to existing tables (for upgrades)
      */
-    private static void addAdditionalColumns(Statement stmt) {
+    static void addAdditionalColumns(Statement stmt) throws SQLException {
         System.out.println("Adding additional columns (if needed)...");
 
         // These are for systems upgrading from older versions
         // The CREATE TABLE statements above already include these,
         // but this ensures backward compatibility
 
-        addColumnSafely(stmt, "attendance", "hours_worked", "REAL DEFAULT 0.0");
-        addColumnSafely(stmt, "attendance", "shift_id", "INTEGER");
-        addColumnSafely(stmt, "positions", "hourly_rate", "REAL DEFAULT 0.0");
-        addColumnSafely(stmt, "positions", "shift_id", "INTEGER");
-        addColumnSafely(stmt, "employees", "emergency_contact_name", "TEXT");
-        addColumnSafely(stmt, "employees", "emergency_contact_phone", "TEXT");
-        addColumnSafely(stmt, "employees", "profile_picture_path", "TEXT");
-        addColumnSafely(stmt, "employees", "shift_id", "INTEGER");
-        addColumnSafely(stmt, "payroll", "notes", "TEXT");
-        addColumnSafely(stmt, "payroll", "sss_deduction", "REAL DEFAULT 0");
-        addColumnSafely(stmt, "payroll", "pagibig_deduction", "REAL DEFAULT 0");
-        addColumnSafely(stmt, "payroll", "philhealth_deduction", "REAL DEFAULT 0");
-        addColumnSafely(stmt, "payroll", "is_held", "INTEGER DEFAULT 0");
-        addColumnSafely(stmt, "payroll", "total_adjustments", "REAL DEFAULT 0");
+        addColumnIfMissing(stmt, "attendance", "hours_worked", "REAL DEFAULT 0.0");
+        addColumnIfMissing(stmt, "attendance", "shift_id", "INTEGER");
+        addColumnIfMissing(stmt, "positions", "hourly_rate", "REAL DEFAULT 0.0");
+        addColumnIfMissing(stmt, "positions", "shift_id", "INTEGER");
+        addColumnIfMissing(stmt, "employees", "emergency_contact_name", "TEXT");
+        addColumnIfMissing(stmt, "employees", "emergency_contact_phone", "TEXT");
+        addColumnIfMissing(stmt, "employees", "profile_picture_path", "TEXT");
+        addColumnIfMissing(stmt, "employees", "shift_id", "INTEGER");
+        addColumnIfMissing(stmt, "payroll", "notes", "TEXT");
+        addColumnIfMissing(stmt, "payroll", "sss_deduction", "REAL DEFAULT 0");
+        addColumnIfMissing(stmt, "payroll", "pagibig_deduction", "REAL DEFAULT 0");
+        addColumnIfMissing(stmt, "payroll", "philhealth_deduction", "REAL DEFAULT 0");
+        addColumnIfMissing(stmt, "payroll", "is_held", "INTEGER DEFAULT 0");
+        addColumnIfMissing(stmt, "payroll", "total_adjustments", "REAL DEFAULT 0");
+        addColumnIfMissing(stmt, "payroll", "hours_worked", "REAL DEFAULT 0");
+        addColumnIfMissing(stmt, "payroll", "hourly_rate", "REAL DEFAULT 0");
 
         System.out.println("   ✓ All columns verified");
         System.out.println();
@@ -280,14 +275,11 @@ public class DatabaseSetup {
     /**
      * Create indexes for better performance
      */
-    private static void createIndexes(Statement stmt) throws SQLException {
+    static void createIndexes(Statement stmt) throws SQLException {
         System.out.println("⚡ Creating indexes for performance...");
 
-        // Shift indexes
-        stmt.execute("CREATE INDEX IF NOT EXISTS idx_shifts_active ON shifts(is_active)");
-        stmt.execute("CREATE INDEX IF NOT EXISTS idx_positions_shift ON positions(shift_id)");
-        stmt.execute("CREATE INDEX IF NOT EXISTS idx_employees_shift ON employees(shift_id)");
-        stmt.execute("CREATE INDEX IF NOT EXISTS idx_attendance_shift ON attendance(shift_id)");
+        // Attendance lookups by day (daily view, duplicate checks on import)
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_attendance_date ON attendance(date)");
 
         // Adjustment indexes
         stmt.execute("CREATE INDEX IF NOT EXISTS idx_adjustments_employee ON payroll_adjustments(employee_id)");
@@ -302,10 +294,21 @@ public class DatabaseSetup {
         System.out.println();
     }
 
+    /**
+     * Shift indexes (the shift_id columns came after the first release)
+     */
+    static void createShiftIndexes(Statement stmt) throws SQLException {
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_shifts_active ON shifts(is_active)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_positions_shift ON positions(shift_id)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_employees_shift ON employees(shift_id)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_attendance_shift ON attendance(shift_id)");
+        System.out.println("   ✓ Shift indexes created");
+    }
+
     /**
      * Insert default data (admin user, government rates)
      */
-    private static void insertDefaultData(Statement stmt) throws SQLException {
+    static void insertDefaultData(Statement stmt) throws SQLException {
         System.out.println(" Inserting default data...");
 
         // 1. Create default admin user
@@ -353,7 +356,13 @@ public class DatabaseSetup {
             System.out.println("  Deduction rates already exist (skipped)");
         }
 
-        // 3. Calculate hourly rates for existing positions
+        System.out.println();
+    }
+
+    /**
+     * Hourly rate of positions that only have a monthly base salary (160 hours a month)
+     */
+    static void calculateHourlyRates(Statement stmt) throws SQLException {
         int updated = stmt.executeUpdate(
                 "UPDATE positions SET hourly_rate = base_salary / 160.0 " +
                         "WHERE hourly_rate = 0.0 OR hourly_rate IS NULL"
@@ -361,37 +370,51 @@ public class DatabaseSetup {
         if (updated > 0) {
             System.out.println("   ✓ Calculated hourly rates for " + updated + " position(s)");
         }
-
-        System.out.println();
     }
 
     /**
-     * Initialize default shifts using ShiftDAO
+     * Insert the default hospital shifts if there are none yet
      */
-    private static void initializeShifts() {
-        System.out.println("Initializing default shifts...");
-        try {
-            ShiftDAO shiftDAO = new ShiftDAO();
-            shiftDAO.initializeDefaultShifts();
-            System.out.println("  Default shifts created");
-        } catch (Exception e) {
-            System.out.println("   Could not initialize shifts: " + e.getMessage());
+    static void insertDefaultShifts(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM shifts")) {
+            if (rs.next() && rs.getInt(1) > 0) {
+                System.out.println("  Shifts already exist (skipped)");
+                return;
+            }
         }
+
+        String sql = "INSERT INTO shifts (name, start_time, end_time, description, is_active) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (Shift shift : Shift.getDefaultShifts()) {
+                stmt.setString(1, shift.getName());
+                stmt.setString(2, shift.getStartTime().toString());
+                stmt.setString(3, shift.getEndTime().toString());
+                stmt.setString(4, shift.getDescription());
+                stmt.setBoolean(5, shift.isActive());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        System.out.println("  Default shifts created");
     }
 
     /**
-     * Safely add column (checks if exists first)
+     * Add a column unless the table already has it
      */
-    private static void addColumnSafely(Statement stmt, String table, String column, String type) {
-        try {
+    static void addColumnIfMissing(Statement stmt, String table, String column, String type) throws SQLException {
+        boolean exists = false;
+        try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (rs.next()) {
+                if (column.equalsIgnoreCase(rs.getString("name"))) {
+                    exists = true;
+                }
+            }
+        }
+
+        if (!exists) {
             stmt.execute(String.format("ALTER TABLE %s ADD COLUMN %s %s", table, column, type));
             System.out.println(String.format("   ✓ Added %s.%s", table, column));
-        } catch (SQLException e) {
-            if (e.getMessage().contains("duplicate column")) {
-                // Column already exists - this is fine
-            } else {
-                System.err.println(String.format("   ⚠ Warning for %s.%s: %s", table, column, e.getMessage()));
-            }
         }
     }
 
@@ -0,0 +1,376 @@
+package database;
+
+import dao.AttendanceDAO;
+import dao.AttendanceMonthlyDAO;
+import dao.PayrollYtdDAO;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Ordered schema migrations keyed on SQLite's PRAGMA user_version
+ *
+ * The database stores the number of the last migration it has had, so
+ * checking it is a single pragma read and upgrading applies only the
+ * migrations after that number. Each one runs in its own transaction
+ * together with the version bump: a failed migration leaves the database
+ * at the previous version, ready to be retried.
+ *
+ * Databases set up before versioning report version 0 but already have
+ * tables. Every migration only creates what is missing, so they are
+ * brought up to date the same way without redoing finished work.
+ *
+ * A migration that has to rewrite many rows can do that work in a
+ * prepare step, which runs before the migration's transaction in small
+ * autocommit chunks so other writers are not locked out. It must be safe
+ * to interrupt and run again; the version only moves once the migration
+ * itself commits.
+ *
+ * Add new migrations at the end of the list; never renumber or edit one
+ * that has shipped. A migration that changes a table an earlier one
+ * created keeps its DDL here (see FROZEN DDL) instead of calling the
+ * DAO's createSchema, which always builds the current layout, so later
+ * DAO changes cannot rewrite a shipped step.
+ */
+public class SchemaMigrator {
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "core tables, indexes and default data", conn -> {
+                try (Statement stmt = conn.createStatement()) {
+                    DatabaseSetup.createCoreTables(stmt);
+                    DatabaseSetup.createFeatureTables(stmt);
+                    DatabaseSetup.createIndexes(stmt);
+                    DatabaseSetup.insertDefaultData(stmt);
+                }
+                DatabaseSetup.insertDefaultShifts(conn);
+            }),
+            new Migration(2, "shift, rate, deduction and contact columns", conn -> {
+                try (Statement stmt = conn.createStatement()) {
+                    DatabaseSetup.addAdditionalColumns(stmt);
+                    DatabaseSetup.createShiftIndexes(stmt);
+                    DatabaseSetup.calculateHourlyRates(stmt);
+                }
+            }),
+            new Migration(3, "integer attendance dates and times", conn -> {
+                // Columns first, then the chunked backfill, all outside the transaction
+                AttendanceDAO.addEpochColumns(conn);
+                AttendanceDAO.backfillEpochColumns(conn);
+            }, AttendanceDAO::addEpochColumns),
+            new Migration(4, "monthly attendance rollup", conn -> {
+                try (Statement stmt = conn.createStatement()) {
+                    if (!tableExists(stmt, "attendance_monthly")) {
+                        AttendanceMonthlyDAO.createTable(stmt);
+                        System.out.println("   ✓ Attendance rollup filled: " +
+                                AttendanceMonthlyDAO.fillTable(stmt) + " employee-month(s)");
+                    }
+                }
+            }),
+            new Migration(5, "payroll change tracking", conn -> {
+                try (Statement stmt = conn.createStatement()) {
+                    createPayrollDirtyV5(stmt);
+                }
+            }),
+            new Migration(6, "year-to-date payroll totals", conn -> {
+                try (Statement stmt = conn.createStatement()) {
+                    if (!tableExists(stmt, "payroll_ytd")) {
+                        PayrollYtdDAO.createTable(stmt);
+                        System.out.println("   ✓ Payroll YTD totals filled: " +
+                                PayrollYtdDAO.fillTable(stmt) + " employee-year(s)");
+                    }
+                }
+            }),
+            new Migration(7, "attendance change log for replication", conn -> {
+                try (Statement stmt = conn.createStatement()) {
+                    createChangeLogV7(stmt);
+                }
+            }),
+            new Migration(8, "sequence numbers on payroll change marks", conn -> {
+                try (Statement stmt = conn.createStatement()) {
+                    upgradePayrollDirtyV8(stmt);
+                }
+            }),
+            new Migration(9, "shift names in the attendance change log", conn -> {
+                try (Statement stmt = conn.createStatement()) {
+                    upgradeChangeLogV9(stmt);
+                }
+            })
+    );
+
+    public static final int LATEST_VERSION = MIGRATIONS.get(MIGRATIONS.size() - 1).version;
+
+    private static volatile boolean current = false;
+
+    /**
+     * Version of the database schema (0 = never migrated)
+     */
+    public static int getVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Whether every migration has been applied
+     * Once true it is remembered, so later calls do not touch the database.
+     */
+    public static boolean isCurrent(Connection conn) throws SQLException {
+        if (current) return true;
+        current = getVersion(conn) >= LATEST_VERSION;
+        return current;
+    }
+
+    /**
+     * Whether the database was ever set up, by a migration or by the
+     * setup that came before versioning
+     */
+    public static boolean isSetUp(Connection conn) throws SQLException {
+        if (getVersion(conn) > 0) return true;
+        try (Statement stmt = conn.createStatement()) {
+            return tableExists(stmt, "users");
+        }
+    }
+
+    /**
+     * Apply the migrations the database has not had yet, oldest first
+     * @return the number of migrations applied
+     */
+    public static synchronized int migrate(Connection conn) throws SQLException {
+        int version = getVersion(conn);
+        int applied = 0;
+
+        for (Migration migration : MIGRATIONS) {
+            if (migration.version <= version) continue;
+
+            System.out.println("Migrating schema to version " + migration.version + ": " + migration.description);
+            long start = System.currentTimeMillis();
+
+            if (migration.prepare != null) {
+                migration.prepare.apply(conn);
+            }
+
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                migration.body.apply(conn);
+                try (Statement stmt = conn.createStatement()) {
+                    // Part of the same transaction: the version only moves if the body committed
+                    stmt.execute("PRAGMA user_version = " + migration.version);
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw new SQLException("Migration " + migration.version + " (" + migration.description +
+                        ") failed: " + e.getMessage(), e);
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+
+            System.out.println("✓ Schema at version " + migration.version +
+                    " (" + (System.currentTimeMillis() - start) + " ms)");
+            applied++;
+        }
+
+        if (getVersion(conn) >= LATEST_VERSION) {
+            current = true;
+        }
+        return applied;
+    }
+
+    // ==================== FROZEN DDL ====================
+    // Exactly what each step shipped with; a later change is a new migration, never an edit here
+
+    private static final String[] PAYROLL_DIRTY_TRIGGERS_V5 = {
+            "CREATE TRIGGER IF NOT EXISTS trg_dirty_attendance_insert AFTER INSERT ON attendance BEGIN " +
+                    "INSERT OR IGNORE INTO payroll_dirty (employee_id, year, month) VALUES (NEW.employee_id, " +
+                    "CAST(substr(NEW.date, 1, 4) AS INTEGER), CAST(substr(NEW.date, 6, 2) AS INTEGER)); END",
+            "CREATE TRIGGER IF NOT EXISTS trg_dirty_attendance_update AFTER UPDATE ON attendance BEGIN " +
+                    "INSERT OR IGNORE INTO payroll_dirty (employee_id, year, month) VALUES (OLD.employee_id, " +
+                    "CAST(substr(OLD.date, 1, 4) AS INTEGER), CAST(substr(OLD.date, 6, 2) AS INTEGER)); " +
+                    "INSERT OR IGNORE INTO payroll_dirty (employee_id, year, month) VALUES (NEW.employee_id, " +
+                    "CAST(substr(NEW.date, 1, 4) AS INTEGER), CAST(substr(NEW.date, 6, 2) AS INTEGER)); END",
+            "CREATE TRIGGER IF NOT EXISTS trg_dirty_attendance_delete AFTER DELETE ON attendance BEGIN " +
+                    "INSERT OR IGNORE INTO payroll_dirty (employee_id, year, month) VALUES (OLD.employee_id, " +
+                    "CAST(substr(OLD.date, 1, 4) AS INTEGER), CAST(substr(OLD.date, 6, 2) AS INTEGER)); END",
+            "CREATE TRIGGER IF NOT EXISTS trg_dirty_adjustment_insert AFTER INSERT ON payroll_adjustments " +
+                    "WHEN NEW.date_approved IS NOT NULL BEGIN " +
+                    "INSERT OR IGNORE INTO payroll_dirty (employee_id, year, month) VALUES (NEW.employee_id, " +
+                    "CAST(substr(NEW.date_approved, 1, 4) AS INTEGER), CAST(substr(NEW.date_approved, 6, 2) AS " +
+                    "INTEGER)); END",
+            "CREATE TRIGGER IF NOT EXISTS trg_dirty_adjustment_update AFTER UPDATE ON payroll_adjustments BEGIN " +
+                    "INSERT OR IGNORE INTO payroll_dirty (employee_id, year, month) SELECT OLD.employee_id, " +
+                    "CAST(substr(OLD.date_approved, 1, 4) AS INTEGER), CAST(substr(OLD.date_approved, 6, 2) AS " +
+                    "INTEGER) WHERE OLD.date_approved IS NOT NULL; " +
+                    "INSERT OR IGNORE INTO payroll_dirty (employee_id, year, month) SELECT NEW.employee_id, " +
+                    "CAST(substr(NEW.date_approved, 1, 4) AS INTEGER), CAST(substr(NEW.date_approved, 6, 2) AS " +
+                    "INTEGER) WHERE NEW.date_approved IS NOT NULL; END",
+            "CREATE TRIGGER IF NOT EXISTS trg_dirty_adjustment_delete AFTER DELETE ON payroll_adjustments " +
+                    "WHEN OLD.date_approved IS NOT NULL BEGIN " +
+                    "INSERT OR IGNORE INTO payroll_dirty (employee_id, year, month) VALUES (OLD.employee_id, " +
+                    "CAST(substr(OLD.date_approved, 1, 4) AS INTEGER), CAST(substr(OLD.date_approved, 6, 2) AS " +
+                    "INTEGER)); END",
+            "CREATE TRIGGER IF NOT EXISTS trg_dirty_hold_insert AFTER INSERT ON salary_holds BEGIN " +
+                    "INSERT OR IGNORE INTO payroll_dirty (employee_id, year, month) SELECT employee_id, year, month " +
+                    "FROM payroll WHERE employee_id = NEW.employee_id; END",
+            "CREATE TRIGGER IF NOT EXISTS trg_dirty_hold_update AFTER UPDATE ON salary_holds BEGIN " +
+                    "INSERT OR IGNORE INTO payroll_dirty (employee_id, year, month) SELECT employee_id, year, month " +
+                    "FROM payroll WHERE employee_id = NEW.employee_id; END",
+            "CREATE TRIGGER IF NOT EXISTS trg_dirty_hold_delete AFTER DELETE ON salary_holds BEGIN " +
+                    "INSERT OR IGNORE INTO payroll_dirty (employee_id, year, month) SELECT employee_id, year, month " +
+                    "FROM payroll WHERE employee_id = OLD.employee_id; END",
+            "CREATE TRIGGER IF NOT EXISTS trg_dirty_position_rate AFTER UPDATE OF hourly_rate, base_salary " +
+                    "ON positions BEGIN " +
+                    "INSERT OR IGNORE INTO payroll_dirty (employee_id, year, month) SELECT p.employee_id, p.year, " +
+                    "p.month FROM payroll p JOIN employees e ON e.id = p.employee_id WHERE e.position_id = NEW.id; END",
+            "CREATE TRIGGER IF NOT EXISTS trg_dirty_employee_position AFTER UPDATE OF position_id, status " +
+                    "ON employees BEGIN " +
+                    "INSERT OR IGNORE INTO payroll_dirty (employee_id, year, month) SELECT employee_id, year, month " +
+                    "FROM payroll WHERE employee_id = NEW.id; END",
+            "CREATE TRIGGER IF NOT EXISTS trg_dirty_gov_insert AFTER INSERT ON government_deductions BEGIN " +
+                    "INSERT OR IGNORE INTO payroll_dirty (employee_id, year, month) SELECT employee_id, year, month " +
+                    "FROM payroll; END",
+            "CREATE TRIGGER IF NOT EXISTS trg_dirty_gov_update AFTER UPDATE ON government_deductions BEGIN " +
+                    "INSERT OR IGNORE INTO payroll_dirty (employee_id, year, month) SELECT employee_id, year, month " +
+                    "FROM payroll; END",
+            "CREATE TRIGGER IF NOT EXISTS trg_dirty_gov_delete AFTER DELETE ON government_deductions BEGIN " +
+                    "INSERT OR IGNORE INTO payroll_dirty (employee_id, year, month) SELECT employee_id, year, month " +
+                    "FROM payroll; END"
+    };
+
+    private static final String[] CHANGE_LOG_TRIGGERS_V7 = {
+            "CREATE TRIGGER IF NOT EXISTS trg_log_attendance_insert AFTER INSERT ON attendance WHEN NOT " +
+                    "EXISTS (SELECT 1 FROM replication_state WHERE key = 'role' AND value = 'central') BEGIN " +
+                    "INSERT INTO attendance_changes (employee_qr, date, time_in, time_out, status, shift_id) SELECT " +
+                    "qr_code, NEW.date, NEW.time_in, NEW.time_out, NEW.status, NEW.shift_id FROM employees WHERE id " +
+                    "= NEW.employee_id; END",
+            "CREATE TRIGGER IF NOT EXISTS trg_log_attendance_update AFTER UPDATE OF employee_id, date, " +
+                    "time_in, time_out, status, shift_id ON attendance WHEN NOT EXISTS (SELECT 1 FROM " +
+                    "replication_state WHERE key = 'role' AND value = 'central') BEGIN " +
+                    "INSERT INTO attendance_changes (employee_qr, date, time_in, time_out, status, shift_id) SELECT " +
+                    "qr_code, NEW.date, NEW.time_in, NEW.time_out, NEW.status, NEW.shift_id FROM employees WHERE id " +
+                    "= NEW.employee_id; END"
+    };
+
+    private static final String[] CHANGE_LOG_TRIGGERS_V9 = {
+            "CREATE TRIGGER IF NOT EXISTS trg_log_attendance_insert AFTER INSERT ON attendance WHEN NOT " +
+                    "EXISTS (SELECT 1 FROM replication_state WHERE key = 'role' AND value = 'central') BEGIN " +
+                    "INSERT INTO attendance_changes (employee_qr, date, time_in, time_out, status, shift_name) " +
+                    "SELECT qr_code, NEW.date, NEW.time_in, NEW.time_out, NEW.status, (SELECT name FROM shifts " +
+                    "WHERE id = NEW.shift_id) FROM employees WHERE id = NEW.employee_id; END",
+            "CREATE TRIGGER IF NOT EXISTS trg_log_attendance_update AFTER UPDATE OF employee_id, date, " +
+                    "time_in, time_out, status, shift_id ON attendance WHEN NOT EXISTS (SELECT 1 FROM " +
+                    "replication_state WHERE key = 'role' AND value = 'central') BEGIN " +
+                    "INSERT INTO attendance_changes (employee_qr, date, time_in, time_out, status, shift_name) " +
+                    "SELECT qr_code, NEW.date, NEW.time_in, NEW.time_out, NEW.status, (SELECT name FROM shifts " +
+                    "WHERE id = NEW.shift_id) FROM employees WHERE id = NEW.employee_id; END"
+    };
+
+    private static void createPayrollDirtyV5(Statement stmt) throws SQLException {
+        boolean exists = tableExists(stmt, "payroll_dirty");
+        stmt.execute("CREATE TABLE IF NOT EXISTS payroll_dirty (" +
+                "employee_id INTEGER NOT NULL, year INTEGER NOT NULL, month INTEGER NOT NULL, " +
+                "PRIMARY KEY(employee_id, year, month))");
+        for (String trigger : PAYROLL_DIRTY_TRIGGERS_V5) {
+            stmt.execute(trigger);
+        }
+        if (!exists) {
+            // Changes made before tracking existed are unknown, so start from "everything dirty"
+            stmt.executeUpdate("INSERT OR IGNORE INTO payroll_dirty (employee_id, year, month) " +
+                    "SELECT employee_id, year, month FROM payroll");
+        }
+    }
+
+    private static void createChangeLogV7(Statement stmt) throws SQLException {
+        boolean exists = tableExists(stmt, "attendance_changes");
+        stmt.execute("CREATE TABLE IF NOT EXISTS attendance_changes (" +
+                "seq INTEGER PRIMARY KEY AUTOINCREMENT, employee_qr TEXT NOT NULL, date TEXT NOT NULL, " +
+                "time_in TEXT, time_out TEXT, status TEXT, shift_id INTEGER)");
+        stmt.execute("CREATE TABLE IF NOT EXISTS replication_state (key TEXT PRIMARY KEY, value TEXT NOT NULL)");
+        for (String trigger : CHANGE_LOG_TRIGGERS_V7) {
+            stmt.execute(trigger);
+        }
+        if (!exists) {
+            // Rows written before logging existed still need to reach the central node
+            stmt.executeUpdate("INSERT INTO attendance_changes " +
+                    "(employee_qr, date, time_in, time_out, status, shift_id) " +
+                    "SELECT e.qr_code, a.date, a.time_in, a.time_out, a.status, a.shift_id " +
+                    "FROM attendance a JOIN employees e ON e.id = a.employee_id ORDER BY a.id");
+        }
+    }
+
+    // Copy the marks into a table with sequence numbers; the triggers now replace a mark to renumber it
+    private static void upgradePayrollDirtyV8(Statement stmt) throws SQLException {
+        if (!hasColumn(stmt, "payroll_dirty", "seq")) {
+            for (String trigger : PAYROLL_DIRTY_TRIGGERS_V5) {
+                stmt.execute("DROP TRIGGER IF EXISTS " + trigger.split(" ")[5]);
+            }
+            stmt.execute("ALTER TABLE payroll_dirty RENAME TO payroll_dirty_old");
+            stmt.execute("CREATE TABLE payroll_dirty (" +
+                    "seq INTEGER PRIMARY KEY AUTOINCREMENT, employee_id INTEGER NOT NULL, " +
+                    "year INTEGER NOT NULL, month INTEGER NOT NULL, UNIQUE(employee_id, year, month))");
+            stmt.execute("INSERT INTO payroll_dirty (employee_id, year, month) " +
+                    "SELECT employee_id, year, month FROM payroll_dirty_old");
+            stmt.execute("DROP TABLE payroll_dirty_old");
+        }
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_payroll_dirty_period ON payroll_dirty(year, month)");
+        for (String trigger : PAYROLL_DIRTY_TRIGGERS_V5) {
+            stmt.execute(trigger.replace("INSERT OR IGNORE INTO payroll_dirty", "INSERT OR REPLACE INTO payroll_dirty"));
+        }
+    }
+
+    // Log the shift's name rather than the local id; name the pending rows' shifts
+    private static void upgradeChangeLogV9(Statement stmt) throws SQLException {
+        if (!hasColumn(stmt, "attendance_changes", "shift_name")) {
+            stmt.execute("DROP TRIGGER IF EXISTS trg_log_attendance_insert");
+            stmt.execute("DROP TRIGGER IF EXISTS trg_log_attendance_update");
+            stmt.execute("ALTER TABLE attendance_changes ADD COLUMN shift_name TEXT");
+            stmt.executeUpdate("UPDATE attendance_changes SET shift_name = " +
+                    "(SELECT name FROM shifts WHERE shifts.id = attendance_changes.shift_id)");
+        }
+        for (String trigger : CHANGE_LOG_TRIGGERS_V9) {
+            stmt.execute(trigger);
+        }
+    }
+
+    private static boolean hasColumn(Statement stmt, String table, String column) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (rs.next()) {
+                if (column.equals(rs.getString("name"))) return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean tableExists(Statement stmt, String table) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(
+                "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = '" + table + "'")) {
+            return rs.next();
+        }
+    }
+
+    @FunctionalInterface
+    private interface MigrationBody {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    private static class Migration {
+        final int version;
+        final String description;
+        final MigrationBody prepare; // runs before the transaction, or null
+        final MigrationBody body;
+
+        Migration(int version, String description, MigrationBody body) {
+            this(version, description, null, body);
+        }
+
+        Migration(int version, String description, MigrationBody prepare, MigrationBody body) {
+            this.version = version;
+            this.description = description;
+            this.prepare = prepare;
+            this.body = body;
+        }
+    }
+}
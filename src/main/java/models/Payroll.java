@@ -1,19 +1,34 @@
 package models;
 
+import utils.Money;
+
+/**
+ * One employee's payroll for a month
+ * Money is held in centavos (see utils.Money); the double accessors convert
+ */
 public class Payroll {
     // Fields
     private int id;
     private int employeeId;
     private int month;
     private int year;
-    private double baseSalary;
-    private double totalDeductions;
-    private double finalSalary;
+    private long baseSalary; // centavos
+    private long totalDeductions; // centavos
+    private long finalSalary; // centavos
     private int lateCount;
     private int absentCount;
     private String dateProcessed;
     private String notes; // For manual adjustments (e.g., "Sick leave - 3 days")
 
+    // Everything the payroll screen shows, saved when the period is processed
+    private double hoursWorked;
+    private double hourlyRate;
+    private long sssDeduction; // centavos
+    private long philHealthDeduction; // centavos
+    private long pagIbigDeduction; // centavos
+    private long totalAdjustments; // centavos
+    private boolean held;
+
     // Constructor 1: For creating NEW payroll records (no ID yet)
     public Payroll(int employeeId, int month, int year, double baseSalary,
                    double totalDeductions, double finalSalary, int lateCount,
@@ -21,9 +36,9 @@ public class Payroll {
         this.employeeId = employeeId;
         this.month = month;
         this.year = year;
-        this.baseSalary = baseSalary;
-        this.totalDeductions = totalDeductions;
-        this.finalSalary = finalSalary;
+        this.baseSalary = Money.ofPesos(baseSalary);
+        this.totalDeductions = Money.ofPesos(totalDeductions);
+        this.finalSalary = Money.ofPesos(finalSalary);
         this.lateCount = lateCount;
         this.absentCount = absentCount;
         this.dateProcessed = dateProcessed;
@@ -38,9 +53,9 @@ public class Payroll {
         this.employeeId = employeeId;
         this.month = month;
         this.year = year;
-        this.baseSalary = baseSalary;
-        this.totalDeductions = totalDeductions;
-        this.finalSalary = finalSalary;
+        this.baseSalary = Money.ofPesos(baseSalary);
+        this.totalDeductions = Money.ofPesos(totalDeductions);
+        this.finalSalary = Money.ofPesos(finalSalary);
         this.lateCount = lateCount;
         this.absentCount = absentCount;
         this.dateProcessed = dateProcessed;
@@ -73,14 +88,26 @@ public class Payroll {
     }
 
     public double getBaseSalary() {
+        return Money.toPesos(baseSalary);
+    }
+
+    public long getBaseSalaryCentavos() {
         return baseSalary;
     }
 
     public double getTotalDeductions() {
+        return Money.toPesos(totalDeductions);
+    }
+
+    public long getTotalDeductionsCentavos() {
         return totalDeductions;
     }
 
     public double getFinalSalary() {
+        return Money.toPesos(finalSalary);
+    }
+
+    public long getFinalSalaryCentavos() {
         return finalSalary;
     }
 
@@ -100,6 +127,50 @@ public class Payroll {
         return notes;
     }
 
+    public double getHoursWorked() {
+        return hoursWorked;
+    }
+
+    public double getHourlyRate() {
+        return hourlyRate;
+    }
+
+    public double getSssDeduction() {
+        return Money.toPesos(sssDeduction);
+    }
+
+    public long getSssDeductionCentavos() {
+        return sssDeduction;
+    }
+
+    public double getPhilHealthDeduction() {
+        return Money.toPesos(philHealthDeduction);
+    }
+
+    public long getPhilHealthDeductionCentavos() {
+        return philHealthDeduction;
+    }
+
+    public double getPagIbigDeduction() {
+        return Money.toPesos(pagIbigDeduction);
+    }
+
+    public long getPagIbigDeductionCentavos() {
+        return pagIbigDeduction;
+    }
+
+    public double getTotalAdjustments() {
+        return Money.toPesos(totalAdjustments);
+    }
+
+    public long getTotalAdjustmentsCentavos() {
+        return totalAdjustments;
+    }
+
+    public boolean isHeld() {
+        return held;
+    }
+
     // Setters
     public void setId(int id) {
         this.id = id;
@@ -118,14 +189,26 @@ public class Payroll {
     }
 
     public void setBaseSalary(double baseSalary) {
+        this.baseSalary = Money.ofPesos(baseSalary);
+    }
+
+    public void setBaseSalaryCentavos(long baseSalary) {
         this.baseSalary = baseSalary;
     }
 
     public void setTotalDeductions(double totalDeductions) {
+        this.totalDeductions = Money.ofPesos(totalDeductions);
+    }
+
+    public void setTotalDeductionsCentavos(long totalDeductions) {
         this.totalDeductions = totalDeductions;
     }
 
     public void setFinalSalary(double finalSalary) {
+        this.finalSalary = Money.ofPesos(finalSalary);
+    }
+
+    public void setFinalSalaryCentavos(long finalSalary) {
         this.finalSalary = finalSalary;
     }
 
@@ -144,4 +227,48 @@ public class Payroll {
     public void setNotes(String notes) {
         this.notes = notes;
     }
+
+    public void setHoursWorked(double hoursWorked) {
+        this.hoursWorked = hoursWorked;
+    }
+
+    public void setHourlyRate(double hourlyRate) {
+        this.hourlyRate = hourlyRate;
+    }
+
+    public void setSssDeduction(double sssDeduction) {
+        this.sssDeduction = Money.ofPesos(sssDeduction);
+    }
+
+    public void setSssDeductionCentavos(long sssDeduction) {
+        this.sssDeduction = sssDeduction;
+    }
+
+    public void setPhilHealthDeduction(double philHealthDeduction) {
+        this.philHealthDeduction = Money.ofPesos(philHealthDeduction);
+    }
+
+    public void setPhilHealthDeductionCentavos(long philHealthDeduction) {
+        this.philHealthDeduction = philHealthDeduction;
+    }
+
+    public void setPagIbigDeduction(double pagIbigDeduction) {
+        this.pagIbigDeduction = Money.ofPesos(pagIbigDeduction);
+    }
+
+    public void setPagIbigDeductionCentavos(long pagIbigDeduction) {
+        this.pagIbigDeduction = pagIbigDeduction;
+    }
+
+    public void setTotalAdjustments(double totalAdjustments) {
+        this.totalAdjustments = Money.ofPesos(totalAdjustments);
+    }
+
+    public void setTotalAdjustmentsCentavos(long totalAdjustments) {
+        this.totalAdjustments = totalAdjustments;
+    }
+
+    public void setHeld(boolean held) {
+        this.held = held;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,336 @@
+package utils;
+
+import dao.AttendanceDAO;
+import dao.AttendanceMonthlyDAO;
+import dao.ShiftDAO;
+import database.DatabaseConnection;
+import models.Shift;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.*;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Bulk import of time clock / biometric device logs into the attendance table
+ *
+ * Accepted line formats (one scan pair per line):
+ *  - CSV:          QR_CODE,yyyy-MM-dd,HH:mm[:ss][,HH:mm[:ss]]
+ *  - Fixed-width:  QR code (20) | date (10) | time in (8) | time out (8)
+ *
+ * Employees are resolved from an in-memory QR map, rows are inserted with
+ * batched prepared statements and committed in chunks, and bad rows are
+ * written to a reject file next to the input instead of stopping the import.
+ */
+public class AttendanceImporter {
+
+    private static final int CHUNK_SIZE = 10_000;
+    private static final int READ_BUFFER = 1 << 16;
+
+    // Fixed-width layout
+    private static final int QR_WIDTH = 20;
+    private static final int DATE_WIDTH = 10;
+    private static final int TIME_WIDTH = 8;
+
+    // Default cutoff when no shift matches (same as manual time in)
+    private static final int DEFAULT_CUTOFF_SECONDS = 8 * 3600 + 30 * 60;
+
+    /**
+     * Import a device log file
+     * @return summary with row counts, throughput and reject file (if any)
+     */
+    public static ImportResult importFile(Path file) throws IOException, SQLException {
+        long started = System.nanoTime();
+        Path rejectFile = Paths.get(file.toString() + ".rejects.csv");
+        Files.deleteIfExists(rejectFile);
+
+        int imported = 0;
+        int rejected = 0;
+        int lineNumber = 0;
+        BufferedWriter rejects = null;
+        Set<String> importedMonths = new TreeSet<>(); // months of committed chunks
+        Set<String> chunkMonths = new TreeSet<>();    // months of the chunk being built
+
+        String sql = "INSERT INTO attendance (employee_id, date, time_in, time_out, status, hours_worked, shift_id, " +
+                "date_day, time_in_sec, time_out_sec) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+        try {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 BufferedReader reader = new BufferedReader(
+                         Files.newBufferedReader(file, StandardCharsets.UTF_8), READ_BUFFER)) {
+
+                // Per-date duplicate checks read the integer day column and its index
+                AttendanceDAO.ensureEpochColumns(conn);
+
+                Map<String, EmployeeKey> employees = loadEmployeeKeys(conn);
+                List<Shift> activeShifts = new ShiftDAO().getActiveShifts();
+                Map<Integer, Shift> shiftsById = new HashMap<>();
+                for (Shift shift : new ShiftDAO().getAllShifts()) {
+                    shiftsById.put(shift.getId(), shift);
+                }
+
+                // Employees already recorded per date (loaded once per distinct date)
+                Map<Integer, Set<Integer>> recordedByDay = new HashMap<>();
+                // Whether each yyyy-MM seen is a closed payroll period
+                Map<String, Boolean> closedMonths = new HashMap<>();
+                String lastValidDate = null;
+                int lastValidDay = DateTimeHelper.INVALID_DATE;
+
+                conn.setAutoCommit(false);
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    int pending = 0;
+                    String line;
+
+                    while ((line = reader.readLine()) != null) {
+                        lineNumber++;
+                        if (line.isBlank() || line.startsWith("#")) continue;
+                        if (lineNumber == 1 && line.regionMatches(true, 0, "qr", 0, 2)) continue; // header
+
+                        String[] fields = splitFields(line);
+                        String reason = null;
+                        EmployeeKey emp = null;
+                        int inSeconds = -1;
+                        int outSeconds = -1;
+                        int day = lastValidDay;
+
+                        if (fields == null) {
+                            reason = "Unrecognized line format";
+                        } else if ((emp = employees.get(fields[0])) == null) {
+                            reason = "Unknown QR code";
+                        } else if (!fields[1].equals(lastValidDate) && (day = DateTimeHelper.toEpochDay(fields[1])) == DateTimeHelper.INVALID_DATE) {
+                            reason = "Invalid date";
+                        } else if ((inSeconds = DateTimeHelper.toSecondOfDay(fields[2])) == DateTimeHelper.INVALID_TIME) {
+                            reason = "Invalid time in";
+                        } else if (!fields[3].isEmpty() && (outSeconds = DateTimeHelper.toSecondOfDay(fields[3])) == DateTimeHelper.INVALID_TIME) {
+                            reason = "Invalid time out";
+                        } else if (closedMonths.computeIfAbsent(fields[1].substring(0, 7),
+                                month -> PayrollSnapshot.isClosed(YearMonth.parse(month)))) {
+                            reason = "Payroll period is closed";
+                        }
+
+                        if (reason == null) {
+                            lastValidDate = fields[1];
+                            lastValidDay = day;
+                            Set<Integer> recorded = recordedByDay.get(day);
+                            if (recorded == null) {
+                                recorded = loadRecordedEmployees(conn, day);
+                                recordedByDay.put(day, recorded);
+                            }
+                            if (!recorded.add(emp.id)) {
+                                reason = "Attendance already recorded for this date";
+                            }
+                        }
+
+                        if (reason != null) {
+                            if (rejects == null) {
+                                rejects = Files.newBufferedWriter(rejectFile, StandardCharsets.UTF_8);
+                                rejects.write("line,reason,original");
+                                rejects.newLine();
+                            }
+                            rejects.write(lineNumber + "," + reason + "," + line);
+                            rejects.newLine();
+                            rejected++;
+                            continue;
+                        }
+
+                        Shift shift = emp.shiftId > 0 ? shiftsById.get(emp.shiftId) : null;
+                        LocalTime timeIn = LocalTime.ofSecondOfDay(inSeconds);
+                        if (shift == null) {
+                            shift = ShiftDAO.findShiftForTimeIn(activeShifts, timeIn);
+                        }
+
+                        boolean late = shift != null ? shift.isLate(timeIn) : inSeconds > DEFAULT_CUTOFF_SECONDS;
+
+                        stmt.setInt(1, emp.id);
+                        stmt.setString(2, fields[1]);
+                        stmt.setString(3, DateTimeHelper.formatSecondOfDay(inSeconds));
+                        if (outSeconds >= 0) {
+                            stmt.setString(4, DateTimeHelper.formatSecondOfDay(outSeconds));
+                            stmt.setDouble(6, DateTimeHelper.hoursBetween(inSeconds, outSeconds));
+                            stmt.setInt(10, outSeconds);
+                        } else {
+                            stmt.setNull(4, Types.VARCHAR);
+                            stmt.setDouble(6, 0.0);
+                            stmt.setNull(10, Types.INTEGER);
+                        }
+                        stmt.setString(5, late ? "late" : "on-time");
+                        if (shift != null) {
+                            stmt.setInt(7, shift.getId());
+                        } else {
+                            stmt.setNull(7, Types.INTEGER);
+                        }
+                        stmt.setInt(8, day);
+                        stmt.setInt(9, inSeconds);
+                        stmt.addBatch();
+                        chunkMonths.add(fields[1].substring(0, 7));
+
+                        if (++pending == CHUNK_SIZE) {
+                            stmt.executeBatch();
+                            conn.commit();
+                            imported += pending;
+                            importedMonths.addAll(chunkMonths);
+                            chunkMonths.clear();
+                            pending = 0;
+                        }
+                    }
+
+                    if (pending > 0) {
+                        stmt.executeBatch();
+                        conn.commit();
+                        imported += pending;
+                        importedMonths.addAll(chunkMonths);
+                    }
+                } catch (SQLException | IOException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            } finally {
+                if (rejects != null) {
+                    rejects.close();
+                }
+            }
+        } catch (SQLException | IOException e) {
+            // Chunks committed before the failure stay imported; their rollup still has to catch up
+            try {
+                refreshImportedMonths(importedMonths);
+            } catch (SQLException refreshError) {
+                e.addSuppressed(refreshError);
+            }
+            throw e;
+        }
+
+        refreshImportedMonths(importedMonths);
+
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        ImportResult result = new ImportResult(imported, rejected, elapsedMillis,
+                rejected > 0 ? rejectFile : null);
+        System.out.println("✓ " + result);
+        return result;
+    }
+
+    // Bring the monthly rollup up to date once per month touched, then tell open screens
+    private static void refreshImportedMonths(Set<String> importedMonths) throws SQLException {
+        if (importedMonths.isEmpty()) return;
+
+        AttendanceMonthlyDAO monthlyDAO = new AttendanceMonthlyDAO();
+        for (String month : importedMonths) {
+            YearMonth yearMonth = YearMonth.parse(month);
+            monthlyDAO.rebuildMonth(yearMonth.getYear(), yearMonth.getMonthValue());
+        }
+        ChangeEventBus.publish(ChangeEventBus.Type.ATTENDANCE_IMPORTED, 0, 0, null);
+    }
+
+    /**
+     * Load QR code → employee ID and shift (employee shift, else position shift)
+     */
+    private static Map<String, EmployeeKey> loadEmployeeKeys(Connection conn) throws SQLException {
+        Map<String, EmployeeKey> employees = new HashMap<>();
+        String sql = "SELECT e.id, e.qr_code, COALESCE(e.shift_id, p.shift_id, 0) AS shift_id " +
+                "FROM employees e LEFT JOIN positions p ON p.id = e.position_id " +
+                "WHERE e.qr_code IS NOT NULL";
+
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                employees.put(rs.getString(2), new EmployeeKey(rs.getInt(1), rs.getInt(3)));
+            }
+        }
+        return employees;
+    }
+
+    private static Set<Integer> loadRecordedEmployees(Connection conn, int day) throws SQLException {
+        Set<Integer> recorded = new HashSet<>();
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT employee_id FROM attendance WHERE date_day = ?")) {
+            stmt.setInt(1, day);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                recorded.add(rs.getInt(1));
+            }
+        }
+        return recorded;
+    }
+
+    /**
+     * Split a CSV or fixed-width line into [qr, date, timeIn, timeOut]
+     * @return null if the line has too few fields
+     */
+    private static String[] splitFields(String line) {
+        String[] fields = new String[4];
+
+        if (line.indexOf(',') >= 0) {
+            String[] parts = line.split(",", -1);
+            for (int i = 0; i < fields.length; i++) {
+                fields[i] = i < parts.length ? parts[i].trim() : "";
+            }
+        } else {
+            int dateStart = QR_WIDTH;
+            int inStart = dateStart + DATE_WIDTH;
+            int outStart = inStart + TIME_WIDTH;
+            if (line.length() < outStart) {
+                return null;
+            }
+            fields[0] = line.substring(0, dateStart).trim();
+            fields[1] = line.substring(dateStart, inStart).trim();
+            fields[2] = line.substring(inStart, outStart).trim();
+            fields[3] = line.substring(outStart, Math.min(line.length(), outStart + TIME_WIDTH)).trim();
+        }
+
+        if (fields[0].isEmpty() || fields[1].isEmpty() || fields[2].isEmpty()) {
+            return null;
+        }
+        return fields;
+    }
+
+    private static class EmployeeKey {
+        final int id;
+        final int shiftId;
+
+        EmployeeKey(int id, int shiftId) {
+            this.id = id;
+            this.shiftId = shiftId;
+        }
+    }
+
+    /**
+     * Import summary
+     */
+    public static class ImportResult {
+        public final int imported;
+        public final int rejected;
+        public final long elapsedMillis;
+        public final Path rejectFile;
+
+        public ImportResult(int imported, int rejected, long elapsedMillis, Path rejectFile) {
+            this.imported = imported;
+            this.rejected = rejected;
+            this.elapsedMillis = elapsedMillis;
+            this.rejectFile = rejectFile;
+        }
+
+        public double getRowsPerSecond() {
+            return elapsedMillis > 0 ? (imported + rejected) * 1000.0 / elapsedMillis : imported + rejected;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Imported %,d row(s), rejected %,d in %,d ms (%,.0f rows/sec)",
+                    imported, rejected, elapsedMillis, getRowsPerSecond());
+        }
+    }
+}
@@ -0,0 +1,530 @@
+package utils;
+
+import dao.AttendanceChangeLogDAO;
+import dao.AttendanceDAO;
+import dao.EmployeeDAO;
+import dao.ShiftDAO;
+import database.DatabaseConnection;
+import database.SchemaMigrator;
+import models.Attendance;
+import models.Employee;
+import models.Shift;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Kiosk-to-central attendance replication by shipping the change log
+ *
+ * Each kiosk logs its attendance writes in order (AttendanceChangeLogDAO).
+ * The shipper cuts the log into gzip segments of up to SEGMENT_ROWS
+ * changes and delivers them to the central node's inbox folder, either
+ * by writing into a shared folder or over a socket. Changes are removed
+ * from the kiosk's log only after delivery succeeded.
+ *
+ * The central node applies each kiosk's segments in sequence order and
+ * remembers the last applied sequence per kiosk, so a segment delivered
+ * twice is dropped and one that arrives early waits for the gap to fill.
+ * Rows from different kiosks for the same employee-day are merged: the
+ * earliest time in (with its status and shift) and the latest time out
+ * win. Shifts travel by name and are matched to the central node's own
+ * shifts table. The merge gives the same result in any order and when repeated,
+ * so a crash while applying is safe.
+ *
+ * Each instance works on the payroll.db in its working directory, so
+ * several kiosks and a central node can be run side by side from
+ * separate folders:
+ *   java utils.AttendanceReplicator central inbox 7070
+ *   java utils.AttendanceReplicator ship localhost:7070
+ *   java utils.AttendanceReplicator ship ../central/inbox
+ */
+public class AttendanceReplicator {
+
+    private static final int SEGMENT_ROWS = 5000;
+    private static final String SEGMENT_HEADER = "attendance-changes";
+    private static final int SEGMENT_FORMAT = 2; // 1 shipped local shift ids, which are ignored
+    private static final Pattern SEGMENT_NAME = Pattern.compile("([A-Za-z0-9-]+)_(\\d+)_(\\d+)\\.seg\\.gz");
+    private static final int MAX_SEGMENT_BYTES = 64 << 20;
+    private static final int SOCKET_TIMEOUT_MS = 30_000;
+
+    private static final String ROLE_CENTRAL = "central";
+
+    private final AttendanceChangeLogDAO changeLogDAO = new AttendanceChangeLogDAO();
+    private final AttendanceDAO attendanceDAO = new AttendanceDAO();
+    private final EmployeeDAO employeeDAO = new EmployeeDAO();
+    private final ShiftDAO shiftDAO = new ShiftDAO();
+
+    /**
+     * Where segments are delivered
+     */
+    public interface Transport {
+        void send(String segmentName, byte[] segment) throws IOException;
+    }
+
+    // ==================== KIOSK ====================
+
+    /**
+     * This node's id: -Dreplication.node if given, otherwise generated once and kept in the database
+     */
+    public String getNodeId() throws SQLException {
+        String nodeId = changeLogDAO.getState("node_id");
+        String requested = System.getProperty("replication.node");
+        if (requested != null) {
+            // Kiosk databases are often copies of one another; an explicit name keeps them apart
+            requested = requested.replaceAll("[^A-Za-z0-9-]", "-");
+        }
+
+        if (requested != null && !requested.equals(nodeId)) {
+            nodeId = requested;
+            changeLogDAO.setState("node_id", nodeId);
+        } else if (nodeId == null) {
+            nodeId = "kiosk-" + UUID.randomUUID().toString().substring(0, 8);
+            changeLogDAO.setState("node_id", nodeId);
+        }
+        return nodeId;
+    }
+
+    /**
+     * Log attendance writes for shipping (undoes becomeCentral on a copied database)
+     */
+    public void becomeKiosk() throws SQLException {
+        if (ROLE_CENTRAL.equals(changeLogDAO.getState("role"))) {
+            changeLogDAO.setState("role", "kiosk");
+        }
+    }
+
+    /**
+     * Ship every logged change, one segment at a time
+     * @return the number of changes shipped
+     */
+    public int shipPending(Transport transport) throws SQLException, IOException {
+        String nodeId = getNodeId();
+        int shipped = 0;
+
+        while (true) {
+            List<AttendanceChangeLogDAO.Change> changes = changeLogDAO.getChangesAfter(0, SEGMENT_ROWS);
+            if (changes.isEmpty()) break;
+
+            long firstSeq = changes.get(0).seq;
+            long lastSeq = changes.get(changes.size() - 1).seq;
+            transport.send(segmentName(nodeId, firstSeq, lastSeq), encode(nodeId, firstSeq, lastSeq, changes));
+
+            // Delivered: central has these now (a crash before this line only means shipping them again)
+            changeLogDAO.deleteThrough(lastSeq);
+            shipped += changes.size();
+        }
+
+        if (shipped > 0) {
+            System.out.println("✓ Shipped " + shipped + " attendance change(s) from " + nodeId);
+        }
+        return shipped;
+    }
+
+    /**
+     * Ship in the background every few seconds (kiosk app started with -Dreplication.ship=target)
+     */
+    public static void startShipping(String target, long periodSeconds) {
+        Transport transport = transportFor(target);
+        AttendanceReplicator replicator = new AttendanceReplicator();
+        try {
+            replicator.becomeKiosk();
+        } catch (SQLException e) {
+            System.err.println("Failed to set up attendance shipping: " + e.getMessage());
+            return;
+        }
+
+        ScheduledExecutorService shipper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replication-shipper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        shipper.scheduleWithFixedDelay(() -> {
+            try {
+                replicator.shipPending(transport);
+            } catch (SQLException | IOException e) {
+                // Central unreachable: the changes stay in the log for the next round
+                System.err.println("Attendance shipping failed: " + e.getMessage());
+            }
+        }, 0, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * A socket transport for "host:port", otherwise a shared-folder transport
+     */
+    public static Transport transportFor(String target) {
+        int colon = target.lastIndexOf(':');
+        if (colon > 0 && target.substring(colon + 1).matches("\\d+")) {
+            return toSocket(target.substring(0, colon), Integer.parseInt(target.substring(colon + 1)));
+        }
+        return toFolder(Paths.get(target));
+    }
+
+    /**
+     * Deliver by writing into a folder the central node reads (e.g. a network share)
+     */
+    public static Transport toFolder(Path inbox) {
+        return (segmentName, segment) -> writeToInbox(inbox, segmentName, segment);
+    }
+
+    /**
+     * Deliver to a central node's receiver over TCP
+     */
+    public static Transport toSocket(String host, int port) {
+        return (segmentName, segment) -> {
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress(host, port), SOCKET_TIMEOUT_MS);
+                socket.setSoTimeout(SOCKET_TIMEOUT_MS);
+
+                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                out.writeUTF(segmentName);
+                out.writeInt(segment.length);
+                out.write(segment);
+                out.flush();
+
+                if (new DataInputStream(socket.getInputStream()).readByte() != 1) {
+                    throw new IOException("Central node refused segment " + segmentName);
+                }
+            }
+        };
+    }
+
+    // ==================== CENTRAL ====================
+
+    /**
+     * Mark this database as the central copy: merged-in rows are not logged for shipping
+     */
+    public void becomeCentral() throws SQLException {
+        changeLogDAO.setState("role", ROLE_CENTRAL);
+        changeLogDAO.deleteThrough(Long.MAX_VALUE);
+    }
+
+    /**
+     * Accept segments over TCP into the inbox folder, on a background thread
+     */
+    public static ServerSocket startReceiver(int port, Path inbox) throws IOException {
+        ServerSocket server = new ServerSocket(port);
+
+        Thread receiver = new Thread(() -> {
+            while (!server.isClosed()) {
+                try (Socket socket = server.accept()) {
+                    socket.setSoTimeout(SOCKET_TIMEOUT_MS);
+                    receiveSegment(socket, inbox);
+                } catch (IOException e) {
+                    if (!server.isClosed()) {
+                        System.err.println("Segment receive failed: " + e.getMessage());
+                    }
+                }
+            }
+        }, "replication-receiver");
+        receiver.setDaemon(true);
+        receiver.start();
+
+        System.out.println("✓ Receiving attendance segments on port " + port);
+        return server;
+    }
+
+    private static void receiveSegment(Socket socket, Path inbox) throws IOException {
+        DataInputStream in = new DataInputStream(socket.getInputStream());
+        String segmentName = in.readUTF();
+        int length = in.readInt();
+        if (!SEGMENT_NAME.matcher(segmentName).matches() || length < 0 || length > MAX_SEGMENT_BYTES) {
+            throw new IOException("Bad segment header: " + segmentName + " (" + length + " bytes)");
+        }
+
+        byte[] segment = new byte[length];
+        in.readFully(segment);
+        decode(segment); // check it is whole before acknowledging
+        writeToInbox(inbox, segmentName, segment);
+
+        socket.getOutputStream().write(1);
+        socket.getOutputStream().flush();
+    }
+
+    /**
+     * Apply every segment in the inbox that is next in its node's sequence
+     * @return the number of attendance rows changed
+     */
+    public int applyInbox(Path inbox) throws SQLException, IOException {
+        Map<String, TreeMap<Long, Path>> segmentsByNode = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(inbox, "*.seg.gz")) {
+            for (Path file : files) {
+                Matcher name = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (name.matches()) {
+                    segmentsByNode.computeIfAbsent(name.group(1), node -> new TreeMap<>())
+                            .put(Long.parseLong(name.group(2)), file);
+                }
+            }
+        }
+
+        Map<String, Employee> employeesByQr = new HashMap<>();
+        Map<String, Integer> shiftIdsByName = new HashMap<>();
+        for (Shift shift : shiftDAO.getAllShifts()) {
+            shiftIdsByName.put(shift.getName(), shift.getId());
+        }
+        int merged = 0;
+
+        for (Map.Entry<String, TreeMap<Long, Path>> node : segmentsByNode.entrySet()) {
+            String appliedKey = "applied:" + node.getKey();
+            String stored = changeLogDAO.getState(appliedKey);
+            // A node seen for the first time starts wherever its log starts
+            long applied = stored != null ? Long.parseLong(stored) : node.getValue().firstKey() - 1;
+
+            for (Map.Entry<Long, Path> entry : node.getValue().entrySet()) {
+                Path file = entry.getValue();
+                Segment segment = decode(Files.readAllBytes(file));
+
+                if (segment.firstSeq > applied + 1) {
+                    // Earlier changes from this node have not arrived yet; apply in order or not at all
+                    System.out.println("⚠ Waiting for changes " + (applied + 1) + "-" + (segment.firstSeq - 1) +
+                            " from " + node.getKey());
+                    break;
+                }
+
+                for (AttendanceChangeLogDAO.Change change : segment.changes) {
+                    if (change.seq > applied && merge(change, employeesByQr, shiftIdsByName)) {
+                        merged++;
+                    }
+                }
+
+                applied = Math.max(applied, segment.lastSeq);
+                changeLogDAO.setState(appliedKey, Long.toString(applied));
+                Files.delete(file);
+            }
+        }
+
+        if (merged > 0) {
+            System.out.println("✓ Merged " + merged + " attendance change(s) into the central copy");
+        }
+        return merged;
+    }
+
+    // First time in and last time out per employee-day
+    private boolean merge(AttendanceChangeLogDAO.Change change, Map<String, Employee> employeesByQr,
+                          Map<String, Integer> shiftIdsByName) throws SQLException {
+        Employee employee = employeesByQr.get(change.employeeQr);
+        if (employee == null) {
+            employee = employeeDAO.getEmployeeByQRCode(change.employeeQr);
+            if (employee == null) {
+                System.err.println("Skipping change #" + change.seq + ": no employee with QR " + change.employeeQr);
+                return false;
+            }
+            employeesByQr.put(change.employeeQr, employee);
+        }
+
+        if (PayrollSnapshot.isClosed(YearMonth.parse(change.date.substring(0, 7)))) {
+            // Its payroll is frozen; applying it would fail and hold up the rest of the segment
+            System.err.println("Skipping change #" + change.seq + ": payroll for " +
+                    change.date.substring(0, 7) + " is closed");
+            return false;
+        }
+
+        // A shift central does not know (or none) leaves the row without one
+        int shiftId = change.shiftName != null ? shiftIdsByName.getOrDefault(change.shiftName, 0) : 0;
+
+        Attendance existing = attendanceDAO.getAttendanceByEmployeeAndDate(employee.getId(), change.date);
+        if (existing == null) {
+            Attendance attendance = new Attendance(employee.getId(), change.date, change.timeIn, null, change.status);
+            attendanceDAO.addAttendance(attendance, shiftId);
+            if (hasTime(change.timeOut)) {
+                attendance.setTimeOut(change.timeOut);
+                attendanceDAO.updateAttendance(attendance);
+            }
+            return true;
+        }
+
+        boolean earlierIn = hasTime(change.timeIn) && (!hasTime(existing.getTimeIn()) ||
+                seconds(change.timeIn) < seconds(existing.getTimeIn()));
+        boolean laterOut = hasTime(change.timeOut) && (!hasTime(existing.getTimeOut()) ||
+                seconds(change.timeOut) > seconds(existing.getTimeOut()));
+        if (!earlierIn && !laterOut) return false;
+
+        Attendance mergedRecord = new Attendance(existing.getId(), employee.getId(), existing.getDate(),
+                earlierIn ? change.timeIn : existing.getTimeIn(),
+                laterOut ? change.timeOut : existing.getTimeOut(),
+                earlierIn ? change.status : existing.getStatus());
+        attendanceDAO.updateAttendanceTimes(mergedRecord);
+        if (earlierIn && shiftId > 0) {
+            attendanceDAO.setAttendanceShift(existing.getId(), shiftId);
+        }
+        return true;
+    }
+
+    private static boolean hasTime(String time) {
+        return DateTimeHelper.toSecondOfDay(time) != DateTimeHelper.INVALID_TIME;
+    }
+
+    private static int seconds(String time) {
+        return DateTimeHelper.toSecondOfDay(time);
+    }
+
+    // ==================== SEGMENTS ====================
+
+    private static String segmentName(String nodeId, long firstSeq, long lastSeq) {
+        return String.format("%s_%012d_%012d.seg.gz", nodeId, firstSeq, lastSeq);
+    }
+
+    // Write under a temporary name and rename, so the reader never sees half a segment
+    private static void writeToInbox(Path inbox, String segmentName, byte[] segment) throws IOException {
+        Files.createDirectories(inbox);
+        Path tmp = inbox.resolve("." + segmentName + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(segment));
+            channel.force(false);
+        }
+        Files.move(tmp, inbox.resolve(segmentName), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static byte[] encode(String nodeId, long firstSeq, long lastSeq,
+                                 List<AttendanceChangeLogDAO.Change> changes) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Writer out = new OutputStreamWriter(new GZIPOutputStream(bytes), StandardCharsets.UTF_8)) {
+            out.write(SEGMENT_HEADER + "\t" + SEGMENT_FORMAT + "\t" + nodeId + "\t" + firstSeq + "\t" +
+                    lastSeq + "\t" + changes.size() + "\n");
+            for (AttendanceChangeLogDAO.Change change : changes) {
+                out.write(change.seq + "\t" + field(change.employeeQr) + "\t" + field(change.date) + "\t" +
+                        field(change.timeIn) + "\t" + field(change.timeOut) + "\t" + field(change.status) + "\t" +
+                        field(change.shiftName) + "\n");
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Segment decode(byte[] segment) throws IOException {
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(segment)), StandardCharsets.UTF_8))) {
+            String[] header = String.valueOf(in.readLine()).split("\t", -1);
+            if (header.length != 6 || !SEGMENT_HEADER.equals(header[0])) {
+                throw new IOException("Not an attendance change segment");
+            }
+            int format = Integer.parseInt(header[1]);
+            if (format != 1 && format != SEGMENT_FORMAT) {
+                throw new IOException("Unknown attendance change segment format " + format);
+            }
+
+            List<AttendanceChangeLogDAO.Change> changes = new ArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] f = line.split("\t", -1);
+                if (f.length != 7) throw new IOException("Bad change line: " + line);
+                changes.add(new AttendanceChangeLogDAO.Change(Long.parseLong(f[0]), f[1], f[2],
+                        emptyToNull(f[3]), emptyToNull(f[4]), emptyToNull(f[5]),
+                        format == SEGMENT_FORMAT ? emptyToNull(f[6]) : null));
+            }
+            if (changes.size() != Integer.parseInt(header[5])) {
+                throw new IOException("Segment has " + changes.size() + " changes, header says " + header[5]);
+            }
+            return new Segment(Long.parseLong(header[3]), Long.parseLong(header[4]), changes);
+        } catch (NumberFormatException e) {
+            throw new IOException("Bad number in segment: " + e.getMessage(), e);
+        }
+    }
+
+    private static String field(String value) {
+        return value == null ? "" : value.replace('\t', ' ').replace('\n', ' ');
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private static class Segment {
+        final long firstSeq;
+        final long lastSeq;
+        final List<AttendanceChangeLogDAO.Change> changes;
+
+        Segment(long firstSeq, long lastSeq, List<AttendanceChangeLogDAO.Change> changes) {
+            this.firstSeq = firstSeq;
+            this.lastSeq = lastSeq;
+            this.changes = changes;
+        }
+    }
+
+    /**
+     * Run a kiosk shipper or the central node against ./payroll.db
+     * Usage: AttendanceReplicator ship (host:port | inbox-folder) [every-seconds]
+     *        AttendanceReplicator central inbox-folder [port] [every-seconds]
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: AttendanceReplicator ship (host:port | inbox-folder) [every-seconds]");
+            System.err.println("       AttendanceReplicator central inbox-folder [port] [every-seconds]");
+            System.exit(2);
+        }
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            SchemaMigrator.migrate(conn);
+        }
+        AttendanceReplicator replicator = new AttendanceReplicator();
+
+        if (args[0].equals("ship")) {
+            Transport transport = transportFor(args[1]);
+            replicator.becomeKiosk();
+            long every = args.length > 2 ? Long.parseLong(args[2]) : 0;
+            System.out.println("Node " + replicator.getNodeId() + ": " +
+                    new AttendanceChangeLogDAO().getPendingCount() + " change(s) to ship to " + args[1]);
+            do {
+                try {
+                    replicator.shipPending(transport);
+                } catch (IOException e) {
+                    if (every == 0) throw e;
+                    System.err.println("Attendance shipping failed: " + e.getMessage());
+                }
+                if (every > 0) Thread.sleep(every * 1000);
+            } while (every > 0);
+
+        } else if (args[0].equals("central")) {
+            Path inbox = Paths.get(args[1]);
+            Files.createDirectories(inbox);
+            replicator.becomeCentral();
+            if (args.length > 2) {
+                startReceiver(Integer.parseInt(args[2]), inbox);
+            }
+            long every = args.length > 3 ? Long.parseLong(args[3]) : (args.length > 2 ? 2 : 0);
+            do {
+                replicator.applyInbox(inbox);
+                if (every > 0) Thread.sleep(every * 1000);
+            } while (every > 0);
+
+        } else {
+            System.err.println("Unknown mode: " + args[0]);
+            System.exit(2);
+        }
+    }
+}
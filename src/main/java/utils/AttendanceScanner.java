@@ -0,0 +1,151 @@
+package utils;
+
+import dao.PositionDAO;
+import dao.ShiftDAO;
+import models.Attendance;
+import models.Employee;
+import models.Position;
+import models.Shift;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * The kiosk's time in / time out rules, shared by the attendance screen and the headless server
+ *
+ * A scan is a time in when the employee has no record for the day and a
+ * time out when the record has no time out yet. A scan within a minute
+ * of the time in is a repeat tap, not a time out, and is ignored. Lateness is judged
+ * against the position's shift, else the shift running at that time, else
+ * an 8:30 cutoff. Scans are recorded through the ScanJournal, which counts
+ * scans not yet applied when reading the day's record.
+ */
+public class AttendanceScanner {
+
+    private static final LocalTime DEFAULT_CUTOFF = LocalTime.of(8, 30);
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private static final int LOCK_STRIPES = 1024;
+    private static final int MIN_SECONDS_BEFORE_TIME_OUT = 60;
+
+    private final ScanJournal journal;
+    private final PositionDAO positionDAO = new PositionDAO();
+    private final ShiftDAO shiftDAO = new ShiftDAO();
+
+    // Two scans of one employee-day at once (double tap, two devices) must not both become a time in
+    private final Object[] dayLocks = new Object[LOCK_STRIPES];
+
+    public AttendanceScanner(ScanJournal journal) {
+        this.journal = journal;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            dayLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * The shift a time in at this time is judged against, or null for the default schedule
+     */
+    public Shift findShift(Employee employee, LocalTime time) throws SQLException {
+        Position pos = positionDAO.getPositionById(employee.getPositionId());
+        Shift shift = null;
+        if (pos != null && pos.hasShift()) {
+            shift = shiftDAO.getShiftById(pos.getShiftId());
+        }
+        if (shift == null) {
+            shift = shiftDAO.findShiftForTimeIn(time);
+        }
+        return shift;
+    }
+
+    /**
+     * Time in or time out, whichever is next for the employee that day
+     */
+    public ScanResult scan(Employee employee, LocalDate date, LocalTime time) throws SQLException, IOException {
+        synchronized (lockFor(employee, date)) {
+            Attendance record = journal.getRecord(employee.getId(), date.toString());
+            if (record == null) {
+                return timeIn(employee, date, time);
+            }
+            if (isOpen(record)) {
+                int sinceTimeIn = time.toSecondOfDay() - DateTimeHelper.toSecondOfDay(record.getTimeIn());
+                if (sinceTimeIn < MIN_SECONDS_BEFORE_TIME_OUT) {
+                    // A second tap right after the time in (or from a device whose clock is behind)
+                    return new ScanResult(ScanResult.Action.ALREADY_TIMED_IN, record.getTimeIn(),
+                            record.getStatus(), null, 0);
+                }
+                return timeOut(employee, date, time);
+            }
+            return new ScanResult(ScanResult.Action.ALREADY_COMPLETE, record.getTimeOut(), record.getStatus(),
+                    null, DateTimeHelper.calculateHoursWorked(record.getTimeIn(), record.getTimeOut()));
+        }
+    }
+
+    /**
+     * Record a time in
+     */
+    public ScanResult timeIn(Employee employee, LocalDate date, LocalTime time) throws SQLException, IOException {
+        synchronized (lockFor(employee, date)) {
+            Shift shift = findShift(employee, time);
+
+            String status;
+            if (shift != null) {
+                status = shift.isLate(time) ? "late" : "on-time";
+            } else {
+                status = time.isAfter(DEFAULT_CUTOFF) ? "late" : "on-time";
+            }
+
+            String timeIn = time.format(TIME_FORMAT);
+            // Accepted once it is in the journal; the database catches up in the background
+            journal.recordTimeIn(employee.getId(), date.toString(), timeIn, status, shift != null ? shift.getId() : 0);
+            return new ScanResult(ScanResult.Action.TIME_IN, timeIn, status,
+                    shift != null ? shift.getName() : null, 0);
+        }
+    }
+
+    /**
+     * Record a time out
+     * @return null if the employee has no open time in that day
+     */
+    public ScanResult timeOut(Employee employee, LocalDate date, LocalTime time) throws SQLException, IOException {
+        synchronized (lockFor(employee, date)) {
+            Attendance record = journal.getRecord(employee.getId(), date.toString());
+            if (record == null || !isOpen(record)) return null;
+
+            String timeOut = time.format(TIME_FORMAT);
+            journal.recordTimeOut(employee.getId(), date.toString(), timeOut);
+            return new ScanResult(ScanResult.Action.TIME_OUT, timeOut, record.getStatus(), null,
+                    DateTimeHelper.calculateHoursWorked(record.getTimeIn(), timeOut));
+        }
+    }
+
+    private Object lockFor(Employee employee, LocalDate date) {
+        return dayLocks[Math.floorMod(31 * employee.getId() + date.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static boolean isOpen(Attendance record) {
+        return record.getTimeOut() == null || record.getTimeOut().isEmpty();
+    }
+
+    /**
+     * What a scan did
+     */
+    public static class ScanResult {
+        public enum Action { TIME_IN, TIME_OUT, ALREADY_TIMED_IN, ALREADY_COMPLETE }
+
+        public final Action action;
+        public final String time;          // HH:mm:ss of the time in / time out (time in if ignored)
+        public final String status;        // on-time or late
+        public final String shiftName;     // time in only; null = default schedule
+        public final double hoursWorked;   // time out and complete days
+
+        public ScanResult(Action action, String time, String status, String shiftName, double hoursWorked) {
+            this.action = action;
+            this.time = time;
+            this.status = status;
+            this.shiftName = shiftName;
+            this.hoursWorked = hoursWorked;
+        }
+    }
+}
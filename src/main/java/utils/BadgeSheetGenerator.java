@@ -0,0 +1,188 @@
+package utils;
+
+import com.google.zxing.WriterException;
+import models.EmployeeDisplay;
+
+import javax.imageio.ImageIO;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Printable ID badge sheets with real QR codes
+ *
+ * Lays out ID-card sized badges (3.375 x 2.125 in), 8 per Letter page at
+ * 150 dpi, and writes each page as badges_NNN.png. Pages are independent,
+ * so they are rendered and written in parallel, one page per task.
+ */
+public class BadgeSheetGenerator {
+
+    private static final int DPI = 150;
+    private static final int SHEET_WIDTH = (int) (8.5 * DPI);
+    private static final int SHEET_HEIGHT = 11 * DPI;
+    private static final int BADGE_WIDTH = (int) (3.375 * DPI);
+    private static final int BADGE_HEIGHT = (int) (2.125 * DPI);
+    private static final int COLUMNS = 2;
+    private static final int ROWS = 4;
+    private static final int GAP = 40;
+    private static final int BADGES_PER_SHEET = COLUMNS * ROWS;
+    private static final int QR_SIZE = 230;
+
+    private static final Color HEADER_COLOR = new Color(0x21, 0x96, 0xF3);
+
+    /**
+     * Render badge sheets for the employees into a directory
+     * @param progress called with (sheets written, total sheets); may be null
+     */
+    public static BadgeResult generateSheets(List<EmployeeDisplay> employees, File directory,
+                                             BiConsumer<Integer, Integer> progress) throws IOException {
+        long start = System.currentTimeMillis();
+        Path dir = directory.toPath();
+        Files.createDirectories(dir);
+
+        int sheetCount = (employees.size() + BADGES_PER_SHEET - 1) / BADGES_PER_SHEET;
+        int workers = Math.max(1, Math.min(sheetCount, Runtime.getRuntime().availableProcessors()));
+        AtomicInteger written = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "badge-sheets");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<Future<?>> sheets = new ArrayList<>();
+            for (int sheet = 0; sheet < sheetCount; sheet++) {
+                List<EmployeeDisplay> page = employees.subList(sheet * BADGES_PER_SHEET,
+                        Math.min(employees.size(), (sheet + 1) * BADGES_PER_SHEET));
+                Path file = dir.resolve(String.format("badges_%03d.png", sheet + 1));
+
+                sheets.add(pool.submit(() -> {
+                    ImageIO.write(renderSheet(page), "png", file.toFile());
+                    int done = written.incrementAndGet();
+                    if (progress != null) {
+                        progress.accept(done, sheetCount);
+                    }
+                    return null;
+                }));
+            }
+
+            for (Future<?> sheet : sheets) {
+                sheet.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Badge generation was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to render badges: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        BadgeResult result = new BadgeResult(employees.size(), sheetCount,
+                System.currentTimeMillis() - start, directory);
+        System.out.println("✓ Badge sheets generated: " + result.sheets + " sheet(s), " +
+                result.badges + " badge(s) in " + result.elapsedMillis + " ms");
+        return result;
+    }
+
+    private static BufferedImage renderSheet(List<EmployeeDisplay> employees) throws WriterException {
+        // Grayscale pages: a third of the memory of RGB and smaller PNGs
+        BufferedImage sheet = new BufferedImage(SHEET_WIDTH, SHEET_HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g2d = sheet.createGraphics();
+        g2d.setColor(Color.WHITE);
+        g2d.fillRect(0, 0, SHEET_WIDTH, SHEET_HEIGHT);
+
+        int left = (SHEET_WIDTH - COLUMNS * BADGE_WIDTH - (COLUMNS - 1) * GAP) / 2;
+        int top = (SHEET_HEIGHT - ROWS * BADGE_HEIGHT - (ROWS - 1) * GAP) / 2;
+
+        for (int i = 0; i < employees.size(); i++) {
+            int x = left + (i % COLUMNS) * (BADGE_WIDTH + GAP);
+            int y = top + (i / COLUMNS) * (BADGE_HEIGHT + GAP);
+            drawBadge(g2d, employees.get(i), x, y);
+        }
+
+        g2d.dispose();
+        return sheet;
+    }
+
+    private static void drawBadge(Graphics2D g2d, EmployeeDisplay employee, int x, int y) throws WriterException {
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+
+        // Cut line and header band
+        g2d.setColor(Color.LIGHT_GRAY);
+        g2d.setStroke(new BasicStroke(2));
+        g2d.drawRoundRect(x, y, BADGE_WIDTH, BADGE_HEIGHT, 24, 24);
+        g2d.setColor(HEADER_COLOR);
+        g2d.fillRect(x + 1, y + 12, BADGE_WIDTH - 1, 36);
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 20));
+        g2d.drawString("HR PAYROLL SYSTEM", x + 16, y + 38);
+
+        // QR code on the left
+        int qrTop = y + 56;
+        g2d.drawImage(QRCodeGenerator.generateQRImage(employee.getQrCode(), QR_SIZE, QR_SIZE),
+                x + 8, qrTop, null);
+
+        // Details on the right
+        int textLeft = x + QR_SIZE + 16;
+        int textWidth = BADGE_WIDTH - QR_SIZE - 28;
+        g2d.setColor(Color.BLACK);
+
+        g2d.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 22));
+        g2d.drawString(fit(g2d, employee.getName(), textWidth), textLeft, qrTop + 50);
+
+        g2d.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 17));
+        g2d.drawString(fit(g2d, employee.getPositionTitle(), textWidth), textLeft, qrTop + 90);
+        g2d.drawString(fit(g2d, employee.getDepartmentName(), textWidth), textLeft, qrTop + 116);
+
+        g2d.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 14));
+        g2d.drawString(fit(g2d, employee.getQrCode(), textWidth), textLeft, qrTop + 190);
+    }
+
+    // Shorten text with "..." until it fits the width
+    private static String fit(Graphics2D g2d, String text, int width) {
+        if (text == null) return "";
+        FontMetrics metrics = g2d.getFontMetrics();
+        if (metrics.stringWidth(text) <= width) return text;
+
+        String shortened = text;
+        while (!shortened.isEmpty() && metrics.stringWidth(shortened + "...") > width) {
+            shortened = shortened.substring(0, shortened.length() - 1);
+        }
+        return shortened + "...";
+    }
+
+    /**
+     * Outcome of a badge run
+     */
+    public static class BadgeResult {
+        public final int badges;
+        public final int sheets;
+        public final long elapsedMillis;
+        public final File directory;
+
+        public BadgeResult(int badges, int sheets, long elapsedMillis, File directory) {
+            this.badges = badges;
+            this.sheets = sheets;
+            this.elapsedMillis = elapsedMillis;
+            this.directory = directory;
+        }
+    }
+}
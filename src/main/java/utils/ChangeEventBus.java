@@ -0,0 +1,148 @@
+package utils;
+
+import javafx.application.Platform;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * In-process bus for "this data changed" events published by the DAOs
+ *
+ * DAO write methods publish an event after their statement succeeds.
+ * Events are collected for a short window and handed to subscribers as
+ * one batch, so a burst of writes (a queue of kiosk scans, an approval
+ * loop) becomes a single update for each open screen instead of one
+ * reload per row. Delivery happens on the "change-events" thread, or on
+ * the FX thread for {@link #subscribeOnFxThread}.
+ *
+ * Events describe what changed, not the new values: subscribers read
+ * whatever rows they need, so an event is never stale.
+ */
+public class ChangeEventBus {
+
+    private static final long BATCH_WINDOW_MS = 50;
+
+    private static final List<Consumer<List<ChangeEvent>>> subscribers = new CopyOnWriteArrayList<>();
+    private static final ConcurrentLinkedQueue<ChangeEvent> pending = new ConcurrentLinkedQueue<>();
+    private static final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    private static final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "change-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * What kind of record changed
+     */
+    public enum Type {
+        ATTENDANCE_RECORDED,
+        ATTENDANCE_UPDATED,
+        ATTENDANCE_DELETED,
+        ATTENDANCE_IMPORTED,   // bulk import: one event for the whole file, no record id
+        EMPLOYEE_ADDED,
+        EMPLOYEE_UPDATED,
+        EMPLOYEE_DELETED,
+        ADJUSTMENT_ADDED,
+        ADJUSTMENT_APPROVED,
+        ADJUSTMENT_REJECTED,
+        ADJUSTMENT_DELETED,
+        HOLD_CHANGED
+    }
+
+    /**
+     * Publish a change (called by DAOs after the write succeeded)
+     * @param employeeId employee the record belongs to, or 0 if not known
+     * @param date yyyy-MM-dd date the record is about, or null
+     */
+    public static void publish(Type type, int id, int employeeId, String date) {
+        pending.add(new ChangeEvent(type, id, employeeId, date));
+        if (flushScheduled.compareAndSet(false, true)) {
+            dispatcher.schedule(ChangeEventBus::flush, BATCH_WINDOW_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Receive every batch on the bus thread (caches, rollups)
+     */
+    public static Consumer<List<ChangeEvent>> subscribe(Consumer<List<ChangeEvent>> subscriber) {
+        subscribers.add(subscriber);
+        return subscriber;
+    }
+
+    /**
+     * Receive every batch on the FX thread (open views)
+     */
+    public static Consumer<List<ChangeEvent>> subscribeOnFxThread(Consumer<List<ChangeEvent>> subscriber) {
+        Consumer<List<ChangeEvent>> onFxThread = batch -> Platform.runLater(() -> subscriber.accept(batch));
+        subscribers.add(onFxThread);
+        return onFxThread;
+    }
+
+    /**
+     * Stop delivering to a subscriber (pass what subscribe returned)
+     */
+    public static void unsubscribe(Consumer<List<ChangeEvent>> subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    private static void flush() {
+        // Clear the flag first: anything published from here on schedules the next batch
+        flushScheduled.set(false);
+
+        List<ChangeEvent> batch = new ArrayList<>();
+        ChangeEvent event;
+        while ((event = pending.poll()) != null) {
+            batch.add(event);
+        }
+        if (batch.isEmpty()) return;
+
+        List<ChangeEvent> readOnly = Collections.unmodifiableList(batch);
+        for (Consumer<List<ChangeEvent>> subscriber : subscribers) {
+            try {
+                subscriber.accept(readOnly);
+            } catch (RuntimeException e) {
+                System.err.println("Change event subscriber failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * One change: the kind, the record's id, and the employee and day it concerns
+     */
+    public static class ChangeEvent {
+        public final Type type;
+        public final int id;
+        public final int employeeId;
+        public final String date;
+
+        public ChangeEvent(Type type, int id, int employeeId, String date) {
+            this.type = type;
+            this.id = id;
+            this.employeeId = employeeId;
+            this.date = date;
+        }
+
+        public boolean isAttendance() {
+            return type.name().startsWith("ATTENDANCE_");
+        }
+
+        public boolean isEmployee() {
+            return type.name().startsWith("EMPLOYEE_");
+        }
+
+        @Override
+        public String toString() {
+            return type + "#" + id + (employeeId > 0 ? " employee " + employeeId : "") +
+                    (date != null ? " " + date : "");
+        }
+    }
+}
@@ -3,7 +3,6 @@ package utils;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
 
 /**
  * Utility class for date and time operations
@@ -20,6 +19,13 @@ public class DateTimeHelper {
     public static final DateTimeFormatter DISPLAY_TIME_FORMATTER = DateTimeFormatter.ofPattern("hh:mm a");
     public static final DateTimeFormatter TIME_12HR_FORMATTER = DateTimeFormatter.ofPattern("hh:mm:ss a");
 
+    // Returned by the primitive parsers below for malformed input
+    public static final int INVALID_TIME = -1;
+    public static final int INVALID_DATE = Integer.MIN_VALUE;
+
+    private static final int LATE_CUTOFF_SECONDS = 8 * 3600 + 30 * 60; // 8:30 AM
+    private static final int DAYS_0000_TO_1970 = 719528;
+
     /**
      * Get current date as string (yyyy-MM-dd)
      */
@@ -52,65 +58,55 @@ public class DateTimeHelper {
      * Format date string for display
      */
     public static String formatDateForDisplay(String dateStr) {
-        try {
-            LocalDate date = LocalDate.parse(dateStr, DATE_FORMATTER);
-            return date.format(DISPLAY_DATE_FORMATTER);
-        } catch (Exception e) {
-            return dateStr;
-        }
+        LocalDate date = parseDate(dateStr);
+        return date != null ? date.format(DISPLAY_DATE_FORMATTER) : dateStr;
     }
 
     /**
      * Format time string for display (24hr to 12hr)
      */
     public static String formatTimeForDisplay(String timeStr) {
-        try {
-            LocalTime time = LocalTime.parse(timeStr, TIME_FORMATTER);
-            return time.format(DISPLAY_TIME_FORMATTER);
-        } catch (Exception e) {
-            return timeStr;
-        }
+        LocalTime time = parseTime(timeStr);
+        return time != null ? time.format(DISPLAY_TIME_FORMATTER) : timeStr;
     }
 
     /**
      * Check if time is late (after 8:30 AM)
      */
     public static boolean isLate(String timeInStr) {
-        try {
-            LocalTime timeIn = LocalTime.parse(timeInStr, TIME_FORMATTER);
-            LocalTime cutoff = LocalTime.of(8, 30); // 8:30 AM
-            return timeIn.isAfter(cutoff);
-        } catch (Exception e) {
-            return false;
-        }
+        return toSecondOfDay(timeInStr) > LATE_CUTOFF_SECONDS;
     }
 
     /**
      * Check if time is late with custom cutoff
      */
     public static boolean isLate(String timeInStr, int cutoffHour, int cutoffMinute) {
-        try {
-            LocalTime timeIn = LocalTime.parse(timeInStr, TIME_FORMATTER);
-            LocalTime cutoff = LocalTime.of(cutoffHour, cutoffMinute);
-            return timeIn.isAfter(cutoff);
-        } catch (Exception e) {
-            return false;
-        }
+        return toSecondOfDay(timeInStr) > cutoffHour * 3600 + cutoffMinute * 60;
     }
 
     /**
      * Calculate hours worked
      */
     public static double calculateHoursWorked(String timeInStr, String timeOutStr) {
-        try {
-            LocalTime timeIn = LocalTime.parse(timeInStr, TIME_FORMATTER);
-            LocalTime timeOut = LocalTime.parse(timeOutStr, TIME_FORMATTER);
-
-            long minutes = ChronoUnit.MINUTES.between(timeIn, timeOut);
-            return minutes / 60.0;
-        } catch (Exception e) {
+        int timeIn = toSecondOfDay(timeInStr);
+        int timeOut = toSecondOfDay(timeOutStr);
+        if (timeIn == INVALID_TIME || timeOut == INVALID_TIME) {
             return 0.0;
         }
+        return hoursBetween(timeIn, timeOut);
+    }
+
+    /**
+     * Hours between two seconds-of-day in whole minutes; a time out before
+     * the time in is on the next day (AttendanceDAO.HOURS_FROM_SECONDS is
+     * the same rule in SQL)
+     */
+    public static double hoursBetween(int inSeconds, int outSeconds) {
+        int worked = outSeconds - inSeconds;
+        if (worked < 0) {
+            worked += 24 * 3600;
+        }
+        return (worked / 60) / 60.0;
     }
 
     /**
@@ -171,26 +167,19 @@ public class DateTimeHelper {
      * Check if date is today
      */
     public static boolean isToday(String dateStr) {
-        try {
-            LocalDate date = LocalDate.parse(dateStr, DATE_FORMATTER);
-            return date.equals(LocalDate.now());
-        } catch (Exception e) {
-            return false;
-        }
+        return toEpochDay(dateStr) == LocalDate.now().toEpochDay();
     }
 
     /**
      * Check if date is in current month
      */
     public static boolean isCurrentMonth(String dateStr) {
-        try {
-            LocalDate date = LocalDate.parse(dateStr, DATE_FORMATTER);
-            LocalDate now = LocalDate.now();
-            return date.getYear() == now.getYear() &&
-                    date.getMonthValue() == now.getMonthValue();
-        } catch (Exception e) {
+        if (toEpochDay(dateStr) == INVALID_DATE) {
             return false;
         }
+        LocalDate now = LocalDate.now();
+        return digits(dateStr, 0, 4) == now.getYear() &&
+                digits(dateStr, 5, 2) == now.getMonthValue();
     }
 
     /**
@@ -210,21 +199,144 @@ public class DateTimeHelper {
      * Parse date string safely
      */
     public static LocalDate parseDate(String dateStr) {
-        try {
-            return LocalDate.parse(dateStr, DATE_FORMATTER);
-        } catch (Exception e) {
-            return null;
-        }
+        int epochDay = toEpochDay(dateStr);
+        return epochDay != INVALID_DATE ? LocalDate.ofEpochDay(epochDay) : null;
     }
 
     /**
      * Parse time string safely
      */
     public static LocalTime parseTime(String timeStr) {
-        try {
-            return LocalTime.parse(timeStr, TIME_FORMATTER);
-        } catch (Exception e) {
-            return null;
+        int seconds = toSecondOfDay(timeStr);
+        return seconds != INVALID_TIME ? LocalTime.ofSecondOfDay(seconds) : null;
+    }
+
+    /**
+     * Parse HH:mm:ss (or HH:mm) to seconds since midnight
+     * No allocation and no exceptions: malformed input returns INVALID_TIME
+     */
+    public static int toSecondOfDay(CharSequence time) {
+        if (time == null) return INVALID_TIME;
+
+        int length = time.length();
+        if ((length != 5 && length != 8) || time.charAt(2) != ':') {
+            return INVALID_TIME;
+        }
+        int hour = digits(time, 0, 2);
+        int minute = digits(time, 3, 2);
+        int second = 0;
+        if (length == 8) {
+            if (time.charAt(5) != ':') return INVALID_TIME;
+            second = digits(time, 6, 2);
+        }
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return INVALID_TIME;
+        }
+        return hour * 3600 + minute * 60 + second;
+    }
+
+    /**
+     * Parse yyyy-MM-dd to days since 1970-01-01 (same value as LocalDate.toEpochDay)
+     * No allocation and no exceptions: malformed input returns INVALID_DATE
+     */
+    public static int toEpochDay(CharSequence date) {
+        if (date == null || date.length() != 10 || date.charAt(4) != '-' || date.charAt(7) != '-') {
+            return INVALID_DATE;
+        }
+        int year = digits(date, 0, 4);
+        int month = digits(date, 5, 2);
+        int day = digits(date, 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return INVALID_DATE;
+        }
+
+        // Same arithmetic as LocalDate.toEpochDay, for years 0000-9999
+        int total = 365 * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * Format seconds since midnight as HH:mm:ss
+     */
+    public static String formatSecondOfDay(int seconds) {
+        char[] out = new char[8];
+        int hour = seconds / 3600;
+        int minute = (seconds / 60) % 60;
+        int second = seconds % 60;
+        out[0] = (char) ('0' + hour / 10);
+        out[1] = (char) ('0' + hour % 10);
+        out[2] = ':';
+        out[3] = (char) ('0' + minute / 10);
+        out[4] = (char) ('0' + minute % 10);
+        out[5] = ':';
+        out[6] = (char) ('0' + second / 10);
+        out[7] = (char) ('0' + second % 10);
+        return new String(out);
+    }
+
+    /**
+     * Format days since 1970-01-01 as yyyy-MM-dd
+     */
+    public static String formatEpochDay(int epochDay) {
+        // Civil-from-days: shift to a March-based year so leap days fall at the end
+        int z = epochDay + 719468;
+        int era = (z >= 0 ? z : z - 146096) / 146097;
+        int dayOfEra = z - era * 146097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int monthIndex = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * monthIndex + 2) / 5 + 1;
+        int month = monthIndex < 10 ? monthIndex + 3 : monthIndex - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        char[] out = new char[10];
+        out[0] = (char) ('0' + year / 1000 % 10);
+        out[1] = (char) ('0' + year / 100 % 10);
+        out[2] = (char) ('0' + year / 10 % 10);
+        out[3] = (char) ('0' + year % 10);
+        out[4] = '-';
+        out[5] = (char) ('0' + month / 10);
+        out[6] = (char) ('0' + month % 10);
+        out[7] = '-';
+        out[8] = (char) ('0' + day / 10);
+        out[9] = (char) ('0' + day % 10);
+        return new String(out);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    // Non-negative decimal value of count digits, or -1 if any is not a digit
+    private static int digits(CharSequence s, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
         }
+        return value;
     }
-}
\ No newline at end of file
+}
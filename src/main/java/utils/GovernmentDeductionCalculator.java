@@ -2,6 +2,8 @@ package utils;
 
 import database.DatabaseConnection;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Calculator for Philippine government deductions
@@ -16,46 +18,18 @@ import java.sql.*;
  */
 public class GovernmentDeductionCalculator {
 
+    // Centavos
+    static final long PHILHEALTH_CAP = 180_000;      // ₱1,800
+    static final long PAGIBIG_LOW_BRACKET = 150_000; // ₱1,500
+    static final long PAGIBIG_CAP = 10_000;          // ₱100
+
     /**
      * Calculate SSS contribution (employee share)
-     * Based on salary brackets stored in DB
+     * Based on salary brackets stored in DB; reads the brackets on every
+     * call, so loops should load a {@link RateTable} once and use it instead
      */
     public static double calculateSSS(double monthlySalary) {
-
-        if (monthlySalary <= 0) return 0.0;
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                     "SELECT employee_share FROM government_deductions " +
-                             "WHERE deduction_type = 'SSS' AND is_active = 1 " +
-                             "AND ? >= salary_range_min AND ? < salary_range_max " +
-                             "ORDER BY salary_range_min DESC LIMIT 1")) {
-
-            stmt.setDouble(1, monthlySalary);
-            stmt.setDouble(2, monthlySalary);
-
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getDouble("employee_share");
-            }
-
-            // Fallback: highest bracket
-            try (PreparedStatement maxStmt = conn.prepareStatement(
-                    "SELECT employee_share FROM government_deductions " +
-                            "WHERE deduction_type = 'SSS' AND is_active = 1 " +
-                            "ORDER BY salary_range_max DESC LIMIT 1")) {
-
-                ResultSet maxRs = maxStmt.executeQuery();
-                if (maxRs.next()) {
-                    return maxRs.getDouble("employee_share");
-                }
-            }
-
-        } catch (SQLException e) {
-            System.err.println("Error calculating SSS: " + e.getMessage());
-        }
-
-        return 0.0;
+        return Money.toPesos(RateTable.loadOrEmpty().sss(Money.ofPesos(monthlySalary)));
     }
 
     /**
@@ -63,34 +37,7 @@ public class GovernmentDeductionCalculator {
      * Employee share = 2% of salary (employer pays other 2%)
      */
     public static double calculatePhilHealth(double monthlySalary) {
-
-        if (monthlySalary <= 0) return 0.0;
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                     "SELECT employee_share FROM government_deductions " +
-                             "WHERE deduction_type = 'PHILHEALTH' AND is_active = 1 " +
-                             "AND ? >= salary_range_min AND ? < salary_range_max " +
-                             "LIMIT 1")) {
-
-            stmt.setDouble(1, monthlySalary);
-            stmt.setDouble(2, monthlySalary);
-
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                double fixed = rs.getDouble("employee_share");
-                if (fixed > 0) {
-                    return fixed;
-                }
-            }
-
-        } catch (SQLException e) {
-            System.err.println("Error calculating PhilHealth: " + e.getMessage());
-        }
-
-        // Default rule: 2% capped
-        double contribution = monthlySalary * 0.02;
-        return Math.min(contribution, 1800.0);
+        return Money.toPesos(RateTable.loadOrEmpty().philHealth(Money.ofPesos(monthlySalary)));
     }
 
     /**
@@ -100,18 +47,18 @@ public class GovernmentDeductionCalculator {
      *  - Maximum ₱100
      */
     public static double calculatePagIBIG(double monthlySalary) {
+        return Money.toPesos(calculatePagIBIGCentavos(Money.ofPesos(monthlySalary)));
+    }
 
+    /**
+     * Same as {@link #calculatePagIBIG(double)} for a salary in centavos
+     */
+    public static long calculatePagIBIGCentavos(long monthlySalary) {
 
-        if (monthlySalary <= 0) return 0.0;
-
-        double contribution;
-        if (monthlySalary <= 1500) {
-            contribution = monthlySalary * 0.01;
-        } else {
-            contribution = monthlySalary * 0.02;
-        }
+        if (monthlySalary <= 0) return 0;
 
-        return Math.min(contribution, 100.0);
+        long contribution = Money.percent(monthlySalary, monthlySalary <= PAGIBIG_LOW_BRACKET ? 100 : 200);
+        return Math.min(contribution, PAGIBIG_CAP);
     }
 
     /**
@@ -119,58 +66,207 @@ public class GovernmentDeductionCalculator {
      * Ensures deductions never exceed gross salary
      */
     public static GovernmentDeductions calculateAll(double monthlySalary) {
+        return RateTable.loadOrEmpty().calculate(Money.ofPesos(monthlySalary));
+    }
 
+    /**
+     * The active SSS and PhilHealth brackets, read once
+     *
+     * Batch payroll loads this once per run instead of querying the
+     * government_deductions table twice per employee. Bracket bounds and
+     * shares are held in centavos.
+     */
+    public static class RateTable {
+        // SSS brackets, highest minimum first (the first match wins)
+        private final long[] sssMin;
+        private final long[] sssMax;
+        private final long[] sssShare;
+        private final long sssTopShare; // used when no bracket matches
+
+        // PhilHealth brackets in table order; a zero share means "use the 2% rule"
+        private final long[] philHealthMin;
+        private final long[] philHealthMax;
+        private final long[] philHealthShare;
+
+        private RateTable(List<long[]> sss, long sssTopShare, List<long[]> philHealth) {
+            this.sssMin = column(sss, 0);
+            this.sssMax = column(sss, 1);
+            this.sssShare = column(sss, 2);
+            this.sssTopShare = sssTopShare;
+            this.philHealthMin = column(philHealth, 0);
+            this.philHealthMax = column(philHealth, 1);
+            this.philHealthShare = column(philHealth, 2);
+        }
+
+        /**
+         * Read the active brackets from the database
+         */
+        public static RateTable load() throws SQLException {
+            List<long[]> sss = new ArrayList<>();
+            List<long[]> philHealth = new ArrayList<>();
+            long sssTopShare = 0;
+            long sssTopMax = Long.MIN_VALUE;
+
+            String sql = "SELECT deduction_type, salary_range_min, salary_range_max, employee_share " +
+                    "FROM government_deductions " +
+                    "WHERE deduction_type IN ('SSS', 'PHILHEALTH') AND is_active = 1 " +
+                    // SSS: highest minimum first; PhilHealth: table order (first match wins)
+                    "ORDER BY deduction_type, " +
+                    "CASE WHEN deduction_type = 'SSS' THEN -salary_range_min ELSE id END, id";
+
+            try (Connection conn = DatabaseConnection.getConnection();
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+
+                while (rs.next()) {
+                    long[] bracket = {
+                            Money.ofPesos(rs.getDouble(2)),
+                            Money.ofPesos(rs.getDouble(3)),
+                            Money.ofPesos(rs.getDouble(4))
+                    };
+                    if ("SSS".equals(rs.getString(1))) {
+                        sss.add(bracket);
+                        if (bracket[1] > sssTopMax) {
+                            sssTopMax = bracket[1];
+                            sssTopShare = bracket[2];
+                        }
+                    } else {
+                        philHealth.add(bracket);
+                    }
+                }
+            }
+
+            return new RateTable(sss, sssTopShare, philHealth);
+        }
+
+        /**
+         * Load the brackets, or fall back to the built-in rules if the table cannot be read
+         */
+        public static RateTable loadOrEmpty() {
+            try {
+                return load();
+            } catch (SQLException e) {
+                System.err.println("Error loading deduction rates: " + e.getMessage());
+                return new RateTable(new ArrayList<>(), 0, new ArrayList<>());
+            }
+        }
+
+        /**
+         * SSS employee share for a monthly salary, in centavos
+         */
+        public long sss(long monthlySalary) {
+            if (monthlySalary <= 0) return 0;
+            for (int i = 0; i < sssMin.length; i++) {
+                if (monthlySalary >= sssMin[i] && monthlySalary < sssMax[i]) {
+                    return sssShare[i];
+                }
+            }
+            return sssTopShare;
+        }
+
+        /**
+         * PhilHealth employee share for a monthly salary, in centavos
+         */
+        public long philHealth(long monthlySalary) {
+            if (monthlySalary <= 0) return 0;
+
+            long fixed = fixedPhilHealth(monthlySalary);
+            if (fixed > 0) {
+                return fixed;
+            }
 
-        if (monthlySalary <= 0) {
-            return new GovernmentDeductions(0, 0, 0);
+            // Default rule: 2% capped
+            return Math.min(Money.percent(monthlySalary, 200), PHILHEALTH_CAP);
+        }
+
+        /**
+         * Fixed PhilHealth share of the salary's bracket, or 0 if the 2% rule applies
+         */
+        public long fixedPhilHealth(long monthlySalary) {
+            for (int i = 0; i < philHealthMin.length; i++) {
+                if (monthlySalary >= philHealthMin[i] && monthlySalary < philHealthMax[i]) {
+                    return philHealthShare[i];
+                }
+            }
+            return 0;
         }
 
-        double sss = calculateSSS(monthlySalary);
-        double philHealth = calculatePhilHealth(monthlySalary);
-        double pagIbig = calculatePagIBIG(monthlySalary);
+        /**
+         * All deductions for one salary, scaled down so they never exceed it
+         */
+        public GovernmentDeductions calculate(long monthlySalary) {
+            if (monthlySalary <= 0) {
+                return GovernmentDeductions.ofCentavos(0, 0, 0);
+            }
 
-        double total = sss + philHealth + pagIbig;
+            long[] shares = {
+                    sss(monthlySalary),
+                    philHealth(monthlySalary),
+                    calculatePagIBIGCentavos(monthlySalary)
+            };
 
+            // Scale down proportionally; the split adds up to the gross to the centavo
+            if (shares[0] + shares[1] + shares[2] > monthlySalary) {
+                Money.scaleToTotal(shares, monthlySalary);
+            }
 
-        if (total > monthlySalary) {
-            double factor = monthlySalary / total;
-            sss *= factor;
-            philHealth *= factor;
-            pagIbig *= factor;
+            return GovernmentDeductions.ofCentavos(shares[0], shares[1], shares[2]);
         }
 
-        return new GovernmentDeductions(sss, philHealth, pagIbig);
+        private static long[] column(List<long[]> rows, int index) {
+            long[] values = new long[rows.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = rows.get(i)[index];
+            }
+            return values;
+        }
     }
 
     /**
      * Data holder for deduction breakdown
+     * Amounts are kept in centavos; the peso fields are for display
      */
     public static class GovernmentDeductions {
+        public final long sssCentavos;
+        public final long philHealthCentavos;
+        public final long pagIbigCentavos;
+        public final long totalCentavos;
+
         public final double sss;
         public final double philHealth;
         public final double pagIbig;
         public final double total;
 
-        public GovernmentDeductions(double sss, double philHealth, double pagIbig) {
-            this.sss = round(sss);
-            this.philHealth = round(philHealth);
-            this.pagIbig = round(pagIbig);
-            this.total = round(this.sss + this.philHealth + this.pagIbig);
+        /**
+         * Breakdown from amounts in centavos (not pesos)
+         */
+        public static GovernmentDeductions ofCentavos(long sssCentavos, long philHealthCentavos,
+                                                      long pagIbigCentavos) {
+            return new GovernmentDeductions(sssCentavos, philHealthCentavos, pagIbigCentavos);
         }
 
-        private static double round(double value) {
-            return Math.round(value * 100.0) / 100.0;
+        private GovernmentDeductions(long sssCentavos, long philHealthCentavos, long pagIbigCentavos) {
+            this.sssCentavos = sssCentavos;
+            this.philHealthCentavos = philHealthCentavos;
+            this.pagIbigCentavos = pagIbigCentavos;
+            this.totalCentavos = sssCentavos + philHealthCentavos + pagIbigCentavos;
+
+            this.sss = Money.toPesos(sssCentavos);
+            this.philHealth = Money.toPesos(philHealthCentavos);
+            this.pagIbig = Money.toPesos(pagIbigCentavos);
+            this.total = Money.toPesos(totalCentavos);
         }
 
         public String getBreakdown() {
             return String.format(
                     "Government Deductions:\n" +
-                            "  SSS:        ₱%,.2f\n" +
-                            "  PhilHealth: ₱%,.2f\n" +
-                            "  Pag-IBIG:   ₱%,.2f\n" +
+                            "  SSS:        ₱%s\n" +
+                            "  PhilHealth: ₱%s\n" +
+                            "  Pag-IBIG:   ₱%s\n" +
                             "  ─────────────────\n" +
-                            "  TOTAL:      ₱%,.2f",
-                    sss, philHealth, pagIbig, total
+                            "  TOTAL:      ₱%s",
+                    Money.format(sssCentavos), Money.format(philHealthCentavos),
+                    Money.format(pagIbigCentavos), Money.format(totalCentavos)
             );
         }
     }
@@ -187,7 +283,7 @@ public class GovernmentDeductionCalculator {
             GovernmentDeductions d = calculateAll(salary);
             System.out.println(d.getBreakdown());
             System.out.println("Net Pay: ₱" +
-                    String.format("%,.2f", salary - d.total));
+                    Money.format(Money.ofPesos(salary) - d.totalCentavos));
         }
     }
 }
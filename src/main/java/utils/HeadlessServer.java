@@ -0,0 +1,438 @@
+package utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import dao.EmployeeDAO;
+import dao.PayrollDAO;
+import database.DatabaseConnection;
+import database.SchemaMigrator;
+import models.Employee;
+import models.Payroll;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Headless HTTP mode: attendance scans and payroll without the JavaFX UI
+ *
+ * Started from the same jar with "java -cp <jar> utils.HeadlessServer [port]"
+ * in the folder holding payroll.db (Main extends Application, so starting
+ * through it would bring up the JavaFX toolkit, which needs a display).
+ * Scans go through the same AttendanceScanner and ScanJournal as the
+ * kiosk screen, so they are answered once they are on disk and many
+ * devices can scan at once without waiting on SQLite's single writer.
+ * Payroll uses the same PayrollCalculator as the payroll screen.
+ *
+ *   GET  /health                               pending scans and replay lag
+ *   GET  /employees                            active employees (id, QR code, name)
+ *   POST /scan?qr=...[&at=2024-05-01T08:01:00]  time in or time out (at: device clock)
+ *   POST /payroll/calculate?year=..&month=..[&department=..]
+ *   GET  /payroll/export?year=..&month=..      processed payroll as CSV
+ *
+ * Parameters may also be sent as a form body. Requests are handled on a
+ * fixed pool of worker threads (-Dserver.threads, default 64).
+ *
+ * The server exposes every salary and QR code, so by default it listens
+ * on the loopback address only; -Dserver.bind=0.0.0.0 (or a LAN address)
+ * opens it to other machines. Every request must carry the shared token
+ * in an X-Api-Token header. The token is set with -Dserver.token; without
+ * one a random token is made at startup and printed. A scan's "at" must
+ * be within -Dserver.scanSkewMinutes (default 5) of the server clock and
+ * may not fall in a closed payroll period.
+ */
+public class HeadlessServer {
+
+    private static final int DEFAULT_PORT = 8080;
+    private static final int DEFAULT_THREADS = 64;
+    private static final int QUEUE_CAPACITY = 10_000;
+    private static final int DEFAULT_SCAN_SKEW_MINUTES = 5;
+    private static final String TOKEN_HEADER = "X-Api-Token";
+
+    private final EmployeeDAO employeeDAO = new EmployeeDAO();
+    private final PayrollDAO payrollDAO = new PayrollDAO();
+    private final PayrollCalculator payrollCalculator = new PayrollCalculator();
+    private final ScanJournal journal;
+    private final AttendanceScanner scanner;
+
+    private final HttpServer server;
+    private final ExecutorService workers;
+    private final byte[] token;
+    private final Duration scanSkew;
+
+    public HeadlessServer(InetAddress bindAddress, int port, int threads, String token,
+                          Duration scanSkew) throws IOException {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("An API token is required");
+        }
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+        this.scanSkew = scanSkew;
+        journal = ScanJournal.get();
+        scanner = new AttendanceScanner(journal);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+            Thread thread = new Thread(runnable, "http-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        server = HttpServer.create(new InetSocketAddress(bindAddress, port), QUEUE_CAPACITY);
+        server.setExecutor(workers);
+        route("/health", "GET", this::health);
+        route("/employees", "GET", this::employees);
+        route("/scan", "POST", this::scan);
+        route("/payroll/calculate", "POST", this::calculatePayroll);
+        route("/payroll/export", "GET", this::exportPayroll);
+    }
+
+    public void start() {
+        server.start();
+        System.out.println("✓ Headless server listening on " + server.getAddress().getAddress().getHostAddress() +
+                ":" + server.getAddress().getPort());
+    }
+
+    public void stop() {
+        server.stop(1);
+        workers.shutdown();
+    }
+
+    // ==================== HANDLERS ====================
+
+    private Response health(Map<String, String> params) {
+        return Response.json("{\"status\":\"ok\",\"pendingScans\":" + journal.getPendingCount() +
+                ",\"lagMillis\":" + journal.getLagMillis() +
+                ",\"lastReplayError\":" + quote(journal.getLastError()) + "}");
+    }
+
+    private Response employees(Map<String, String> params) throws SQLException {
+        StringBuilder json = new StringBuilder("[");
+        for (Employee emp : employeeDAO.getActiveEmployees()) {
+            if (json.length() > 1) json.append(',');
+            json.append("{\"id\":").append(emp.getId())
+                    .append(",\"qrCode\":").append(quote(emp.getQrCode()))
+                    .append(",\"name\":").append(quote(emp.getName())).append('}');
+        }
+        return Response.json(json.append(']').toString());
+    }
+
+    private Response scan(Map<String, String> params) throws SQLException, IOException {
+        String qrCode = required(params, "qr");
+        Employee employee = employeeDAO.getEmployeeByQRCode(qrCode);
+        if (employee == null) {
+            return Response.error(404, "No employee with QR code " + qrCode);
+        }
+        if (!"active".equals(employee.getStatus())) {
+            return Response.error(409, employee.getName() + " is not active");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime at;
+        try {
+            at = params.containsKey("at") ? LocalDateTime.parse(params.get("at")) : now;
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("at must look like 2024-05-01T08:01:00");
+        }
+        // A device clock may be a little off, but a scan cannot be back- or forward-dated
+        if (Duration.between(at, now).abs().compareTo(scanSkew) > 0) {
+            throw new IllegalArgumentException("at must be within " + scanSkew.toMinutes() +
+                    " minute(s) of the server clock (" + now.truncatedTo(ChronoUnit.SECONDS) + ")");
+        }
+        if (PayrollSnapshot.isClosed(YearMonth.from(at))) {
+            return Response.error(409, "Payroll for " + YearMonth.from(at) + " is closed");
+        }
+
+        AttendanceScanner.ScanResult result = scanner.scan(employee, at.toLocalDate(),
+                at.toLocalTime().truncatedTo(ChronoUnit.SECONDS));
+        return Response.json("{\"action\":" + quote(result.action.name()) +
+                ",\"employeeId\":" + employee.getId() +
+                ",\"name\":" + quote(employee.getName()) +
+                ",\"date\":" + quote(at.toLocalDate().toString()) +
+                ",\"time\":" + quote(result.time) +
+                ",\"status\":" + quote(result.status) +
+                ",\"shift\":" + quote(result.shiftName) +
+                ",\"hoursWorked\":" + String.format("%.2f", result.hoursWorked) + "}");
+    }
+
+    private Response calculatePayroll(Map<String, String> params) throws SQLException {
+        int year = intParam(params, "year");
+        int month = intParam(params, "month");
+        if (PayrollSnapshot.isClosed(year, month)) {
+            return Response.error(409, "Payroll for " + year + "-" + month + " is closed");
+        }
+
+        List<Employee> employees = params.containsKey("department")
+                ? employeeDAO.getEmployeesByDepartment(intParam(params, "department"))
+                : employeeDAO.getActiveEmployees();
+        PayrollCalculator.PeriodResult result = payrollCalculator.calculate(year, month, employees);
+
+        long totalGross = 0;
+        long totalDeductions = 0;
+        long totalNet = 0;
+        StringBuilder lines = new StringBuilder("[");
+        for (PayrollCalculator.Line line : result.lines) {
+            totalGross += line.grossCentavos;
+            totalDeductions += line.deductionsCentavos;
+            totalNet += line.netCentavos;
+
+            if (lines.length() > 1) lines.append(',');
+            lines.append("{\"employeeId\":").append(line.employee.getId())
+                    .append(",\"qrCode\":").append(quote(line.employee.getQrCode()))
+                    .append(",\"name\":").append(quote(line.employee.getName()))
+                    .append(",\"hours\":").append(String.format("%.2f", line.hoursWorked))
+                    .append(",\"hourlyRate\":").append(String.format("%.2f", line.hourlyRate))
+                    .append(",\"gross\":").append(pesos(line.grossCentavos))
+                    .append(",\"sss\":").append(pesos(line.sssCentavos))
+                    .append(",\"philHealth\":").append(pesos(line.philHealthCentavos))
+                    .append(",\"pagIbig\":").append(pesos(line.pagIbigCentavos))
+                    .append(",\"deductions\":").append(pesos(line.deductionsCentavos))
+                    .append(",\"adjustments\":").append(pesos(line.adjustmentCentavos))
+                    .append(",\"net\":").append(pesos(line.netCentavos))
+                    .append(",\"held\":").append(line.held)
+                    .append(",\"recalculated\":").append(line.recalculated).append('}');
+        }
+        lines.append(']');
+
+        return Response.json("{\"year\":" + year + ",\"month\":" + month +
+                ",\"employees\":" + result.lines.size() +
+                ",\"recalculated\":" + result.recalculated +
+                ",\"totalGross\":" + pesos(totalGross) +
+                ",\"totalDeductions\":" + pesos(totalDeductions) +
+                ",\"totalNet\":" + pesos(totalNet) +
+                ",\"lines\":" + lines + "}");
+    }
+
+    private Response exportPayroll(Map<String, String> params) throws SQLException, IOException {
+        int year = intParam(params, "year");
+        int month = intParam(params, "month");
+
+        // Closed periods come from their snapshot, like on the payroll screen
+        List<PayrollDAO.PayrollRow> rows = PayrollSnapshot.isClosed(year, month)
+                ? PayrollSnapshot.read(year, month)
+                : payrollDAO.getPayrollRowsForPeriod(month, year);
+
+        StringBuilder csv = new StringBuilder("qr_code,name,hours,hourly_rate,gross,sss,philhealth,pagibig," +
+                "deductions,adjustments,net,held\n");
+        for (PayrollDAO.PayrollRow row : rows) {
+            Payroll p = row.payroll;
+            csv.append(csvField(row.qrCode)).append(',')
+                    .append(csvField(row.employeeName)).append(',')
+                    .append(String.format("%.2f", p.getHoursWorked())).append(',')
+                    .append(String.format("%.2f", p.getHourlyRate())).append(',')
+                    .append(pesos(p.getBaseSalaryCentavos())).append(',')
+                    .append(pesos(p.getSssDeductionCentavos())).append(',')
+                    .append(pesos(p.getPhilHealthDeductionCentavos())).append(',')
+                    .append(pesos(p.getPagIbigDeductionCentavos())).append(',')
+                    .append(pesos(p.getTotalDeductionsCentavos())).append(',')
+                    .append(pesos(p.getTotalAdjustmentsCentavos())).append(',')
+                    .append(pesos(p.getFinalSalaryCentavos())).append(',')
+                    .append(p.isHeld()).append('\n');
+        }
+
+        Response response = new Response(200, "text/csv; charset=utf-8", csv.toString());
+        response.fileName = "payroll_" + year + "_" + String.format("%02d", month) + ".csv";
+        return response;
+    }
+
+    // ==================== PLUMBING ====================
+
+    @FunctionalInterface
+    private interface Handler {
+        Response handle(Map<String, String> params) throws Exception;
+    }
+
+    private void route(String path, String method, Handler handler) {
+        server.createContext(path, exchange -> {
+            Response response;
+            try {
+                if (!exchange.getRequestURI().getPath().equals(path)) {
+                    response = Response.error(404, "Not found");
+                } else if (!hasToken(exchange)) {
+                    response = Response.error(401, "Missing or wrong " + TOKEN_HEADER + " header");
+                } else if (!exchange.getRequestMethod().equals(method)) {
+                    response = Response.error(405, "Use " + method);
+                } else {
+                    response = handler.handle(readParams(exchange));
+                }
+            } catch (IllegalArgumentException e) {
+                response = Response.error(400, e.getMessage());
+            } catch (Exception e) {
+                System.err.println(method + " " + path + " failed: " + e.getMessage());
+                response = Response.error(500, e.getMessage());
+            }
+            send(exchange, response);
+        });
+    }
+
+    private boolean hasToken(HttpExchange exchange) {
+        String sent = exchange.getRequestHeaders().getFirst(TOKEN_HEADER);
+        // Constant-time comparison, so the token cannot be guessed from response times
+        return sent != null && MessageDigest.isEqual(token, sent.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", response.contentType);
+        if (response.fileName != null) {
+            exchange.getResponseHeaders().set("Content-Disposition",
+                    "attachment; filename=\"" + response.fileName + "\"");
+        }
+        exchange.sendResponseHeaders(response.status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    // Query string plus a form-encoded body
+    private static Map<String, String> readParams(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), params);
+        try (InputStream in = exchange.getRequestBody()) {
+            parseForm(new String(in.readAllBytes(), StandardCharsets.UTF_8), params);
+        }
+        return params;
+    }
+
+    private static void parseForm(String form, Map<String, String> params) {
+        if (form == null || form.isBlank()) return;
+        for (String pair : form.trim().split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value.trim();
+    }
+
+    private static int intParam(Map<String, String> params, String name) {
+        try {
+            return Integer.parseInt(required(params, name));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number");
+        }
+    }
+
+    private static String pesos(long centavos) {
+        return BigDecimal.valueOf(centavos, 2).toPlainString();
+    }
+
+    private static String quote(String value) {
+        if (value == null) return "null";
+        StringBuilder json = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"': json.append("\\\""); break;
+                case '\\': json.append("\\\\"); break;
+                case '\n': json.append("\\n"); break;
+                case '\r': json.append("\\r"); break;
+                case '\t': json.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    private static String csvField(String value) {
+        if (value == null) return "";
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    private static class Response {
+        final int status;
+        final String contentType;
+        final String body;
+        String fileName;
+
+        Response(int status, String contentType, String body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        static Response json(String body) {
+            return new Response(200, "application/json; charset=utf-8", body);
+        }
+
+        static Response error(int status, String message) {
+            return new Response(status, "application/json; charset=utf-8", "{\"error\":" + quote(message) + "}");
+        }
+    }
+
+    /**
+     * Run the server against ./payroll.db
+     * Usage: HeadlessServer [port]
+     *        (-Dserver.bind, -Dserver.token, -Dserver.threads, -Dserver.scanSkewMinutes)
+     */
+    public static void main(String[] args) throws Exception {
+        int port = DEFAULT_PORT;
+        for (String arg : args) {
+            if (arg.matches("\\d+")) {
+                port = Integer.parseInt(arg);
+            }
+        }
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            if (!SchemaMigrator.isSetUp(conn)) {
+                System.err.println("Database not set up: run database.DatabaseSetup first");
+                System.exit(1);
+            }
+            SchemaMigrator.migrate(conn);
+        }
+
+        String bind = System.getProperty("server.bind");
+        InetAddress bindAddress = bind != null ? InetAddress.getByName(bind) : InetAddress.getLoopbackAddress();
+
+        String token = System.getProperty("server.token");
+        if (token == null || token.isBlank()) {
+            byte[] random = new byte[24];
+            new SecureRandom().nextBytes(random);
+            token = Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+            System.out.println("No -Dserver.token given; clients must send " + TOKEN_HEADER + ": " + token);
+        }
+
+        HeadlessServer headless = new HeadlessServer(bindAddress, port,
+                Integer.getInteger("server.threads", DEFAULT_THREADS), token,
+                Duration.ofMinutes(Integer.getInteger("server.scanSkewMinutes", DEFAULT_SCAN_SKEW_MINUTES)));
+        Runtime.getRuntime().addShutdownHook(new Thread(headless::stop, "http-shutdown"));
+        headless.start();
+    }
+}
@@ -8,13 +8,18 @@ import javafx.stage.FileChooser;
 import javafx.stage.Window;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Utility class for handling employee profile pictures
@@ -25,6 +30,7 @@ public class ImageHelper {
     private static final String PROFILE_PICTURES_DIR = "profile_pictures";
     private static final long MAX_FILE_SIZE = 5 * 1024 * 1024; // 5MB
     private static final String[] ALLOWED_EXTENSIONS = {"jpg", "jpeg", "png", "gif"};
+    private static final int MAX_DIMENSION = 4000;
 
     // Default profile picture (placeholder)
     private static final String DEFAULT_PROFILE = "/images/default_profile.png";
@@ -40,10 +46,10 @@ public class ImageHelper {
     }
 
     /**
-     * Show file chooser and copy selected image to profile pictures folder
-     * @return relative path to saved image, or null if cancelled/failed
+     * Show file chooser and validate the selected image
+     * @return the selected file, or null if cancelled/invalid
      */
-    public static String selectAndSaveProfilePicture(Window ownerWindow, String employeeQrCode) {
+    public static File chooseProfilePicture(Window ownerWindow) {
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Select Profile Picture");
         fileChooser.getExtensionFilters().addAll(
@@ -64,21 +70,14 @@ public class ImageHelper {
             return null;
         }
 
-        // Copy file to profile pictures directory with unique name
-        try {
-            String extension = getFileExtension(selectedFile.getName());
-            String fileName = employeeQrCode + "_" + System.currentTimeMillis() + "." + extension;
-            Path targetPath = Paths.get(PROFILE_PICTURES_DIR, fileName);
-
-            Files.copy(selectedFile.toPath(), targetPath, StandardCopyOption.REPLACE_EXISTING);
-
-            System.out.println("✓ Profile picture saved: " + targetPath);
-            return targetPath.toString();
+        return selectedFile;
+    }
 
-        } catch (IOException e) {
-            DialogHelper.showError("Save Failed", "Could not save profile picture: " + e.getMessage());
-            return null;
-        }
+    /**
+     * Store a chosen photo as a downscaled profile picture (run off the FX thread)
+     */
+    public static ImageIngestor.IngestResult saveProfilePicture(File selectedFile) throws IOException {
+        return ImageIngestor.ingest(selectedFile);
     }
 
     /**
@@ -104,10 +103,22 @@ public class ImageHelper {
         }
     }
 
+    // Decoded once and shared; Image is immutable so every view can use it
+    private static volatile Image defaultProfileImage;
+
     /**
      * Get default profile placeholder image
      */
     public static Image getDefaultProfileImage() {
+        Image image = defaultProfileImage;
+        if (image == null) {
+            image = loadDefaultProfileImage();
+            defaultProfileImage = image;
+        }
+        return image;
+    }
+
+    private static Image loadDefaultProfileImage() {
         try {
             // Try to load default image from resources
             var stream = ImageHelper.class.getResourceAsStream(DEFAULT_PROFILE);
@@ -162,6 +173,7 @@ public class ImageHelper {
 
         try {
             File imageFile = new File(picturePath);
+            ThumbnailCache.evict(picturePath);
             if (imageFile.exists() && imageFile.delete()) {
                 System.out.println("✓ Profile picture deleted: " + picturePath);
                 return true;
@@ -172,6 +184,24 @@ public class ImageHelper {
         return false;
     }
 
+    /**
+     * Validate many image files at once (e.g. a bulk photo import), in parallel
+     * @return the rejected files with their error messages, in input order
+     */
+    public static Map<File, String> validateImageFiles(List<File> files) {
+        List<String> errors = files.parallelStream()
+                .map(ImageHelper::validateImageFile)
+                .collect(Collectors.toList());
+
+        Map<File, String> rejected = new LinkedHashMap<>();
+        for (int i = 0; i < files.size(); i++) {
+            if (errors.get(i) != null) {
+                rejected.put(files.get(i), errors.get(i));
+            }
+        }
+        return rejected;
+    }
+
     /**
      * Validate image file
      */
@@ -200,16 +230,29 @@ public class ImageHelper {
             return "Invalid file format. Allowed: JPG, PNG, GIF";
         }
 
-        // Try to read as image
-        try {
-            BufferedImage img = ImageIO.read(file);
-            if (img == null) {
+        // Read only the header: format and dimensions, no pixel decoding
+        try (ImageInputStream input = ImageIO.createImageInputStream(file)) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
                 return "File is not a valid image";
             }
 
-            // Check dimensions (optional)
-            if (img.getWidth() > 4000 || img.getHeight() > 4000) {
-                return "Image dimensions too large (max 4000x4000)";
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+
+                String format = reader.getFormatName().toLowerCase();
+                if (!format.equals("jpeg") && !format.equals("jpg") &&
+                        !format.equals("png") && !format.equals("gif")) {
+                    return "Invalid file format. Allowed: JPG, PNG, GIF";
+                }
+
+                // Check dimensions (optional)
+                if (reader.getWidth(0) > MAX_DIMENSION || reader.getHeight(0) > MAX_DIMENSION) {
+                    return "Image dimensions too large (max " + MAX_DIMENSION + "x" + MAX_DIMENSION + ")";
+                }
+            } finally {
+                reader.dispose();
             }
 
         } catch (IOException e) {
@@ -254,17 +297,24 @@ public class ImageHelper {
 
     /**
      * Load and prepare profile picture for ImageView
+     *
+     * Shows the placeholder right away and swaps in a cached thumbnail
+     * (sized to the view) once it has been loaded in the background.
      */
     public static void loadProfilePictureIntoView(ImageView imageView, String picturePath) {
-        Image image = loadProfilePicture(picturePath);
+        int size = (int) Math.ceil(Math.max(imageView.getFitWidth(), imageView.getFitHeight()));
 
-        // Resize to fit
-        if (imageView.getFitWidth() > 0 && imageView.getFitHeight() > 0) {
-            image = resizeImage(image, imageView.getFitWidth(), imageView.getFitHeight());
+        if (picturePath == null || picturePath.trim().isEmpty()) {
+            // A previous employee's thumbnail may still be loading into this view
+            ThumbnailCache.cancel(imageView);
+            imageView.setImage(getDefaultProfileImage());
+        } else if (size > 0) {
+            ThumbnailCache.loadInto(imageView, picturePath, size, getDefaultProfileImage());
+        } else {
+            ThumbnailCache.cancel(imageView);
+            imageView.setImage(loadProfilePicture(picturePath));
         }
 
-        imageView.setImage(image);
-
         // Make circular
         makeCircular(imageView);
     }
@@ -0,0 +1,185 @@
+package utils;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Turns an uploaded photo into the stored profile picture
+ *
+ * The upload is decoded once, scaled down to at most 512 px, saved as a
+ * JPEG named after the hash of its content, and the thumbnail sizes the
+ * screens use are written to the thumbnail cache at the same time. The
+ * same photo uploaded twice is stored once. Call it off the FX thread.
+ */
+public class ImageIngestor {
+
+    private static final Path PROFILE_PICTURES_DIR = Paths.get("profile_pictures");
+    private static final int MAX_DIMENSION = 512;
+    private static final int[] THUMBNAIL_SIZES = {120, 150}; // attendance panel, employee form
+    private static final float JPEG_QUALITY = 0.85f;
+
+    /**
+     * Store an uploaded photo as a normalized profile picture
+     */
+    public static IngestResult ingest(File upload) throws IOException {
+        long start = System.currentTimeMillis();
+        long originalBytes = upload.length();
+
+        String hash = contentHash(upload);
+        Path target = PROFILE_PICTURES_DIR.resolve(hash + ".jpg");
+
+        if (Files.exists(target)) {
+            long storedBytes = Files.size(target);
+            System.out.println("✓ Profile picture already stored: " + target);
+            return new IngestResult(target.toString(), originalBytes, storedBytes, true,
+                    System.currentTimeMillis() - start);
+        }
+
+        BufferedImage original = ImageIO.read(upload);
+        if (original == null) {
+            throw new IOException("File is not a valid image");
+        }
+
+        BufferedImage normalized = scaleToFit(original, MAX_DIMENSION);
+
+        Files.createDirectories(PROFILE_PICTURES_DIR);
+        Path temp = Files.createTempFile(PROFILE_PICTURES_DIR, hash, ".tmp");
+        try {
+            writeJpeg(normalized, temp.toFile());
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        // Scale the thumbnails from the normalized image so they match what a cache miss would produce
+        for (int size : THUMBNAIL_SIZES) {
+            ThumbnailCache.store(target.toString(), size, scaleToFit(normalized, size));
+        }
+
+        long storedBytes = Files.size(target);
+        IngestResult result = new IngestResult(target.toString(), originalBytes, storedBytes, false,
+                System.currentTimeMillis() - start);
+        System.out.println("✓ Profile picture saved: " + target + " (" + result.getSavingsText() + ")");
+        return result;
+    }
+
+    // Scale down (never up) to fit a size x size box, flattening transparency onto white
+    private static BufferedImage scaleToFit(BufferedImage source, int maxSize) {
+        double ratio = Math.min(1.0, Math.min(
+                (double) maxSize / source.getWidth(), (double) maxSize / source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+        // Halve repeatedly first; one big bilinear step skips pixels and looks jagged
+        BufferedImage current = source;
+        while (current.getWidth() / 2 >= width && current.getHeight() / 2 >= height) {
+            current = draw(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        return draw(current, width, height);
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = scaled.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g2d.setColor(Color.WHITE);
+        g2d.fillRect(0, 0, width, height);
+        g2d.drawImage(source, 0, 0, width, height, null);
+        g2d.dispose();
+        return scaled;
+    }
+
+    private static void writeJpeg(BufferedImage image, File file) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(file)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static String contentHash(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 not available", e);
+        }
+
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file.toPath()), digest)) {
+            byte[] buffer = new byte[64 * 1024];
+            while (in.read(buffer) != -1) {
+                // the digest is updated as the file is read
+            }
+        }
+
+        byte[] hash = digest.digest();
+        StringBuilder hex = new StringBuilder();
+        for (int i = 0; i < 16; i++) {
+            hex.append(String.format("%02x", hash[i]));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Outcome of storing one upload
+     */
+    public static class IngestResult {
+        public final String path;
+        public final long originalBytes;
+        public final long storedBytes;
+        public final boolean deduplicated; // an identical photo was already stored
+        public final long elapsedMillis;
+
+        public IngestResult(String path, long originalBytes, long storedBytes,
+                            boolean deduplicated, long elapsedMillis) {
+            this.path = path;
+            this.originalBytes = originalBytes;
+            this.storedBytes = storedBytes;
+            this.deduplicated = deduplicated;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public long getSavedBytes() {
+            return deduplicated ? originalBytes : Math.max(0, originalBytes - storedBytes);
+        }
+
+        public String getSavingsText() {
+            if (deduplicated) {
+                return "already stored, saved " + formatBytes(originalBytes);
+            }
+            return formatBytes(originalBytes) + " → " + formatBytes(storedBytes);
+        }
+
+        private static String formatBytes(long bytes) {
+            if (bytes < 1024) {
+                return bytes + " B";
+            } else if (bytes < 1024 * 1024) {
+                return String.format("%.1f KB", bytes / 1024.0);
+            }
+            return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package utils;
+
+/**
+ * Peso amounts as whole centavos in a {@code long}
+ *
+ * Payroll is computed in centavos so sums, percentages and the
+ * "deductions never exceed gross" split are exact. Amounts become doubles
+ * only at the edges (REAL columns, table cells), where a whole number of
+ * centavos converts back and forth without loss. Every method is static
+ * and works on primitives, so batch runs allocate nothing per employee.
+ */
+public final class Money {
+
+    public static final long CENTAVOS_PER_PESO = 100;
+
+    private Money() {
+    }
+
+    /**
+     * Pesos to centavos, rounding half away from zero
+     */
+    public static long ofPesos(double pesos) {
+        return pesos < 0 ? -Math.round(-pesos * 100.0) : Math.round(pesos * 100.0);
+    }
+
+    /**
+     * Centavos to pesos (exact for any realistic amount)
+     */
+    public static double toPesos(long centavos) {
+        return centavos / 100.0;
+    }
+
+    /**
+     * Amount × factor, rounded to the centavo (hours × rate, multipliers)
+     */
+    public static long times(long centavos, double factor) {
+        return ofPesos(toPesos(centavos) * factor);
+    }
+
+    /**
+     * Percentage of an amount given in basis points (200 = 2%), rounded half up
+     */
+    public static long percent(long centavos, int basisPoints) {
+        return scale(centavos, basisPoints, 10_000);
+    }
+
+    /**
+     * amount × numerator / denominator, rounded half away from zero
+     */
+    public static long scale(long centavos, long numerator, long denominator) {
+        long product = Math.multiplyExact(centavos, numerator);
+        long quotient = product / denominator;
+        long remainder = product % denominator;
+        if (Math.abs(remainder) * 2 >= Math.abs(denominator)) {
+            quotient += (product < 0) == (denominator < 0) ? 1 : -1;
+        }
+        return quotient;
+    }
+
+    /**
+     * Scale non-negative parts in place so they add up to exactly {@code target}
+     *
+     * Works on running totals: each part becomes the difference between
+     * consecutive scaled running totals, so every part is within a centavo of
+     * its exact share and no centavo is lost or made up.
+     */
+    public static void scaleToTotal(long[] parts, long target) {
+        long total = 0;
+        for (long part : parts) {
+            total += part;
+        }
+        if (total == target) return;
+        if (total == 0) {
+            parts[parts.length - 1] = target;
+            return;
+        }
+
+        long running = 0;
+        long previous = 0;
+        for (int i = 0; i < parts.length; i++) {
+            running += parts[i];
+            long scaled = Math.multiplyExact(running, target) / total;
+            parts[i] = scaled - previous;
+            previous = scaled;
+        }
+    }
+
+    /**
+     * Format as "1,234.56" (no currency sign)
+     */
+    public static String format(long centavos) {
+        return String.format("%,.2f", toPesos(centavos));
+    }
+}
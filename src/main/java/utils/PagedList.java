@@ -0,0 +1,213 @@
+package utils;
+
+import javafx.collections.ObservableListBase;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.ToIntFunction;
+
+/**
+ * Read-only list for TableView that loads rows one page at a time
+ *
+ * Pages are fetched with keyset queries (WHERE id > ? ORDER BY id LIMIT ?),
+ * the next page is prefetched in the background, and only a bounded number
+ * of pages are kept in memory. TableView only asks for visible rows, so
+ * opening a table costs one page no matter how many rows exist. The list
+ * can't be sorted, so a TableView showing it needs a sort policy that
+ * refuses to sort it.
+ */
+public class PagedList<T> extends ObservableListBase<T> {
+
+    /**
+     * Loads up to {@code limit} rows whose key is greater than {@code afterKey}
+     */
+    @FunctionalInterface
+    public interface PageLoader<T> {
+        List<T> loadAfter(int afterKey, int limit) throws SQLException;
+    }
+
+    private static final int UNKNOWN_KEY = Integer.MIN_VALUE;
+
+    private final PageLoader<T> loader;
+    private final ToIntFunction<T> keyOf;
+    private final int totalCount;
+    private final int pageSize;
+
+    // Last key of the page before each page (pageStartKeys[0] = 0)
+    private final int[] pageStartKeys;
+
+    // Access-ordered, evicts the least recently used page
+    private final Map<Integer, List<T>> pageCache;
+    private final Set<Integer> prefetching = new HashSet<>();
+
+    private final ExecutorService prefetcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "page-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PagedList(PageLoader<T> loader, ToIntFunction<T> keyOf,
+                     int totalCount, int pageSize, int maxCachedPages) {
+        this.loader = loader;
+        this.keyOf = keyOf;
+        this.totalCount = totalCount;
+        this.pageSize = pageSize;
+
+        int pageCount = (totalCount + pageSize - 1) / pageSize;
+        this.pageStartKeys = new int[Math.max(pageCount, 1)];
+        Arrays.fill(pageStartKeys, UNKNOWN_KEY);
+        this.pageStartKeys[0] = 0;
+
+        this.pageCache = new LinkedHashMap<>(maxCachedPages + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > maxCachedPages;
+            }
+        };
+    }
+
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= totalCount) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + totalCount);
+        }
+
+        int page = index / pageSize;
+        List<T> rows = getPage(page);
+        prefetch(page + 1);
+
+        int offset = index % pageSize;
+        // Rows may have been deleted since the count was taken
+        return offset < rows.size() ? rows.get(offset) : null;
+    }
+
+    @Override
+    public int size() {
+        return totalCount;
+    }
+
+    /**
+     * Stop the background prefetcher (call when the list is replaced)
+     */
+    public void dispose() {
+        prefetcher.shutdownNow();
+    }
+
+    /**
+     * Drop the cached page holding the row with this key so the table reads
+     * it again (for a row that was updated; adds and deletes change the
+     * count, so those need a new list). Call on the FX thread.
+     */
+    public void invalidate(int key) {
+        int page = -1;
+        synchronized (pageCache) {
+            for (Map.Entry<Integer, List<T>> entry : pageCache.entrySet()) {
+                for (T row : entry.getValue()) {
+                    if (keyOf.applyAsInt(row) == key) {
+                        page = entry.getKey();
+                        break;
+                    }
+                }
+                if (page >= 0) break;
+            }
+            if (page < 0) return; // not loaded: it will be read fresh anyway
+            pageCache.remove(page);
+        }
+
+        int from = page * pageSize;
+        int to = Math.min(totalCount, from + pageSize);
+        beginChange();
+        for (int i = from; i < to; i++) {
+            nextUpdate(i);
+        }
+        endChange();
+    }
+
+    /**
+     * Number of pages currently held in memory
+     */
+    public int getCachedPageCount() {
+        synchronized (pageCache) {
+            return pageCache.size();
+        }
+    }
+
+    private List<T> getPage(int page) {
+        synchronized (pageCache) {
+            List<T> cached = pageCache.get(page);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        try {
+            // Jumping ahead: walk forward from the nearest page whose start key is known
+            int known = page;
+            while (startKeyOf(known) == UNKNOWN_KEY) {
+                known--;
+            }
+            List<T> rows = null;
+            for (int p = known; p <= page; p++) {
+                rows = loadPage(p);
+            }
+            return rows;
+        } catch (SQLException e) {
+            System.err.println("Failed to load page " + page + ": " + e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    private List<T> loadPage(int page) throws SQLException {
+        synchronized (pageCache) {
+            List<T> cached = pageCache.get(page);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        List<T> rows = loader.loadAfter(startKeyOf(page), pageSize);
+
+        synchronized (pageCache) {
+            if (!rows.isEmpty() && page + 1 < pageStartKeys.length) {
+                pageStartKeys[page + 1] = keyOf.applyAsInt(rows.get(rows.size() - 1));
+            }
+            pageCache.put(page, rows);
+        }
+        return rows;
+    }
+
+    private void prefetch(int page) {
+        synchronized (pageCache) {
+            if (page >= pageStartKeys.length || pageStartKeys[page] == UNKNOWN_KEY
+                    || pageCache.containsKey(page) || !prefetching.add(page)) {
+                return;
+            }
+        }
+
+        prefetcher.execute(() -> {
+            try {
+                loadPage(page);
+            } catch (SQLException e) {
+                System.err.println("Failed to prefetch page " + page + ": " + e.getMessage());
+            } finally {
+                synchronized (pageCache) {
+                    prefetching.remove(page);
+                }
+            }
+        });
+    }
+
+    private int startKeyOf(int page) {
+        synchronized (pageCache) {
+            return pageStartKeys[page];
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * A period's payroll inputs and results as parallel primitive arrays
+ *
+ * Row i of every array belongs to the same employee. The gross, deduction
+ * and net steps are each one straight loop over plain arrays with no
+ * objects, boxing or database calls inside, which the JIT can unroll and
+ * vectorize. Money is in centavos (see Money).
+ */
+public class PayrollBatch {
+
+    private int size;
+
+    // Inputs
+    private int[] employeeIds;
+    private double[] hours;
+    private double[] hourlyRates;  // pesos per hour
+    private long[] adjustments;
+
+    // Results
+    private long[] gross;
+    private long[] sss;
+    private long[] philHealth;
+    private long[] pagIbig;
+    private long[] deductions;
+    private long[] net;
+
+    public PayrollBatch(int capacity) {
+        int initial = Math.max(16, capacity);
+        employeeIds = new int[initial];
+        hours = new double[initial];
+        hourlyRates = new double[initial];
+        adjustments = new long[initial];
+    }
+
+    /**
+     * Add one employee's inputs
+     * @return the row index of the employee
+     */
+    public int add(int employeeId, double hoursWorked, double hourlyRate, long adjustmentCentavos) {
+        if (size == employeeIds.length) {
+            int grown = size * 2;
+            employeeIds = Arrays.copyOf(employeeIds, grown);
+            hours = Arrays.copyOf(hours, grown);
+            hourlyRates = Arrays.copyOf(hourlyRates, grown);
+            adjustments = Arrays.copyOf(adjustments, grown);
+        }
+        employeeIds[size] = employeeId;
+        hours[size] = hoursWorked;
+        hourlyRates[size] = hourlyRate;
+        adjustments[size] = adjustmentCentavos;
+        return size++;
+    }
+
+    /**
+     * Run gross, deductions and net for every row
+     */
+    public void compute(GovernmentDeductionCalculator.RateTable rates) {
+        int n = size;
+        if (gross == null || gross.length < n) {
+            gross = new long[n];
+            sss = new long[n];
+            philHealth = new long[n];
+            pagIbig = new long[n];
+            deductions = new long[n];
+            net = new long[n];
+        }
+
+        grossPay(hours, hourlyRates, gross, n);
+        percentageShares(gross, philHealth, pagIbig, n);
+        bracketShares(rates, gross, sss, philHealth, n);
+        totals(gross, sss, philHealth, pagIbig, deductions, n);
+        capToGross(gross, sss, philHealth, pagIbig, deductions, n);
+        netPay(gross, deductions, adjustments, net, n);
+    }
+
+    public int size() { return size; }
+    public int getEmployeeId(int row) { return employeeIds[row]; }
+    public double getHours(int row) { return hours[row]; }
+    public double getHourlyRate(int row) { return hourlyRates[row]; }
+    public long getAdjustment(int row) { return adjustments[row]; }
+    public long getGross(int row) { return gross[row]; }
+    public long getSss(int row) { return sss[row]; }
+    public long getPhilHealth(int row) { return philHealth[row]; }
+    public long getPagIbig(int row) { return pagIbig[row]; }
+    public long getDeductions(int row) { return deductions[row]; }
+    public long getNet(int row) { return net[row]; }
+
+    // ==================== KERNELS ====================
+
+    // gross = hours × rate, rounded to the centavo (same as Money.ofPesos for non-negative pay)
+    private static void grossPay(double[] hours, double[] rates, long[] gross, int n) {
+        for (int i = 0; i < n; i++) {
+            gross[i] = Math.round(hours[i] * rates[i] * 100.0);
+        }
+    }
+
+    // PhilHealth 2% (capped) and Pag-IBIG 1%/2% (capped), rounded half up; zero pay gives zero
+    private static void percentageShares(long[] gross, long[] philHealth, long[] pagIbig, int n) {
+        long philHealthCap = GovernmentDeductionCalculator.PHILHEALTH_CAP;
+        long pagIbigCap = GovernmentDeductionCalculator.PAGIBIG_CAP;
+        long pagIbigLow = GovernmentDeductionCalculator.PAGIBIG_LOW_BRACKET;
+
+        for (int i = 0; i < n; i++) {
+            long g = Math.max(gross[i], 0);
+            philHealth[i] = Math.min((g * 200 + 5_000) / 10_000, philHealthCap);
+            long pagIbigRate = g <= pagIbigLow ? 100 : 200;
+            pagIbig[i] = Math.min((g * pagIbigRate + 5_000) / 10_000, pagIbigCap);
+        }
+    }
+
+    // SSS bracket lookup and fixed PhilHealth brackets (a handful of rows, scanned per employee)
+    private static void bracketShares(GovernmentDeductionCalculator.RateTable rates,
+                                      long[] gross, long[] sss, long[] philHealth, int n) {
+        for (int i = 0; i < n; i++) {
+            long g = gross[i];
+            sss[i] = rates.sss(g);
+            if (g > 0) {
+                long fixed = rates.fixedPhilHealth(g);
+                if (fixed > 0) {
+                    philHealth[i] = fixed;
+                }
+            }
+        }
+    }
+
+    private static void totals(long[] gross, long[] sss, long[] philHealth, long[] pagIbig,
+                               long[] deductions, int n) {
+        for (int i = 0; i < n; i++) {
+            deductions[i] = sss[i] + philHealth[i] + pagIbig[i];
+        }
+    }
+
+    // Deductions never exceed gross: rare, so handled row by row after the straight loops
+    private static void capToGross(long[] gross, long[] sss, long[] philHealth, long[] pagIbig,
+                                   long[] deductions, int n) {
+        long[] shares = new long[3];
+        for (int i = 0; i < n; i++) {
+            if (deductions[i] <= gross[i]) continue;
+
+            shares[0] = sss[i];
+            shares[1] = philHealth[i];
+            shares[2] = pagIbig[i];
+            Money.scaleToTotal(shares, Math.max(gross[i], 0));
+            sss[i] = shares[0];
+            philHealth[i] = shares[1];
+            pagIbig[i] = shares[2];
+            deductions[i] = shares[0] + shares[1] + shares[2];
+        }
+    }
+
+    private static void netPay(long[] gross, long[] deductions, long[] adjustments, long[] net, int n) {
+        for (int i = 0; i < n; i++) {
+            net[i] = gross[i] - deductions[i] + adjustments[i];
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package utils;
+
+import dao.AttendanceMonthlyDAO;
+import dao.PayrollAdjustmentDAO;
+import dao.PayrollDAO;
+import dao.PayrollDirtyDAO;
+import dao.PositionDAO;
+import dao.SalaryHoldDAO;
+import models.Employee;
+import models.Payroll;
+import models.Position;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A period's payroll for a list of employees, recomputing only what changed
+ *
+ * Employees with saved payroll whose inputs have not changed since it was
+ * saved (see PayrollDirtyDAO) reuse the saved figures; the rest are run
+ * through one PayrollBatch. Shared by the payroll screen and the headless
+ * server. Nothing is saved here.
+ */
+public class PayrollCalculator {
+
+    private final AttendanceMonthlyDAO attendanceMonthlyDAO = new AttendanceMonthlyDAO();
+    private final PositionDAO positionDAO = new PositionDAO();
+    private final PayrollDAO payrollDAO = new PayrollDAO();
+    private final PayrollDirtyDAO payrollDirtyDAO = new PayrollDirtyDAO();
+    private final SalaryHoldDAO salaryHoldDAO = new SalaryHoldDAO();
+    private final PayrollAdjustmentDAO adjustmentDAO = new PayrollAdjustmentDAO();
+
+    /**
+     * Payroll lines for the active employees on the list who were hired by the end of the period
+     * Lines come back in the order of the employee list.
+     */
+    public PeriodResult calculate(int year, int month, List<Employee> employees) throws SQLException {
+        YearMonth payrollPeriod = YearMonth.of(year, month);
+        LocalDate payrollEnd = payrollPeriod.atEndOfMonth();
+        String startDate = payrollPeriod.atDay(1).toString();
+        String endDate = payrollEnd.toString();
+
+        // Before the inputs: marks made after this may or may not be reflected, so saving keeps them
+        long dirtyThrough = payrollDirtyDAO.getLatestSeq();
+
+        // Everything needed for the clean employees, in one query each
+        Map<Integer, AttendanceMonthlyDAO.MonthlySummary> monthlyAttendance =
+                attendanceMonthlyDAO.getMonthlySummaries(year, month);
+        Map<Integer, Position> positions = new HashMap<>();
+        for (Position pos : positionDAO.getAllPositions()) {
+            positions.put(pos.getId(), pos);
+        }
+        Map<Integer, Payroll> savedPayroll = new HashMap<>();
+        for (Payroll payroll : payrollDAO.getPayrollByPeriod(month, year)) {
+            savedPayroll.put(payroll.getEmployeeId(), payroll);
+        }
+        Set<Integer> dirty = payrollDirtyDAO.getDirtyEmployeeIds(year, month);
+        Set<Integer> held = salaryHoldDAO.getHeldEmployeeIds();
+        Map<Integer, Double> adjustments = adjustmentDAO.getTotalAdjustmentsByEmployee(startDate, endDate);
+
+        // Lines in employee order; changed employees are filled in after the batch runs
+        Line[] lines = new Line[employees.size()];
+        PayrollBatch batch = new PayrollBatch(dirty.size());
+        Employee[] batchEmployees = new Employee[employees.size()];
+        int[] batchSlots = new int[employees.size()];
+        String[] batchNotes = new String[employees.size()];
+
+        for (int slot = 0; slot < employees.size(); slot++) {
+            Employee emp = employees.get(slot);
+            if (!"active".equals(emp.getStatus())) continue;
+
+            LocalDate hireDate = LocalDate.parse(emp.getHireDate());
+            if (hireDate.isAfter(payrollEnd)) continue;
+
+            Position pos = positions.get(emp.getPositionId());
+            if (pos == null) continue;
+
+            AttendanceMonthlyDAO.MonthlySummary summary = monthlyAttendance.get(emp.getId());
+            double totalHours = summary != null ? summary.totalHours : 0.0;
+            double hourlyRate = pos.getHourlyRate();
+
+            Payroll saved = savedPayroll.get(emp.getId());
+            if (saved != null && !dirty.contains(emp.getId())) {
+                // Inputs unchanged since it was saved - reuse the stored result
+                long adjustment = saved.getFinalSalaryCentavos() - saved.getBaseSalaryCentavos()
+                        + saved.getTotalDeductionsCentavos();
+                lines[slot] = new Line(emp, totalHours, hourlyRate, saved.getBaseSalaryCentavos(),
+                        saved.getSssDeductionCentavos(), saved.getPhilHealthDeductionCentavos(),
+                        saved.getPagIbigDeductionCentavos(), saved.getTotalDeductionsCentavos(),
+                        adjustment, saved.getFinalSalaryCentavos(), held.contains(emp.getId()),
+                        saved.getNotes(), false);
+                continue;
+            }
+
+            // Changed since it was saved: recalculate with the rest of the batch
+            int row = batch.add(emp.getId(), totalHours, hourlyRate,
+                    Money.ofPesos(adjustments.getOrDefault(emp.getId(), 0.0)));
+            batchEmployees[row] = emp;
+            batchSlots[row] = slot;
+            batchNotes[row] = saved != null ? saved.getNotes() : "";
+        }
+
+        // Gross, government deductions and net for every changed employee at once
+        batch.compute(GovernmentDeductionCalculator.RateTable.load());
+        for (int row = 0; row < batch.size(); row++) {
+            Employee emp = batchEmployees[row];
+            lines[batchSlots[row]] = new Line(emp, batch.getHours(row), batch.getHourlyRate(row),
+                    batch.getGross(row), batch.getSss(row), batch.getPhilHealth(row), batch.getPagIbig(row),
+                    batch.getDeductions(row), batch.getAdjustment(row), batch.getNet(row),
+                    held.contains(emp.getId()), batchNotes[row], true);
+        }
+
+        List<Line> result = new ArrayList<>();
+        for (Line line : lines) {
+            if (line != null) {
+                result.add(line);
+            }
+        }
+        return new PeriodResult(result, batch.size(), dirtyThrough);
+    }
+
+    /**
+     * One employee's payroll for the period; money in centavos
+     */
+    public static class Line {
+        public final Employee employee;
+        public final double hoursWorked;
+        public final double hourlyRate;
+        public final long grossCentavos;
+        public final long sssCentavos;
+        public final long philHealthCentavos;
+        public final long pagIbigCentavos;
+        public final long deductionsCentavos;
+        public final long adjustmentCentavos;
+        public final long netCentavos;
+        public final boolean held;
+        public final String notes;
+        public final boolean recalculated;   // false = reused from the saved payroll
+
+        public Line(Employee employee, double hoursWorked, double hourlyRate, long grossCentavos,
+                    long sssCentavos, long philHealthCentavos, long pagIbigCentavos, long deductionsCentavos,
+                    long adjustmentCentavos, long netCentavos, boolean held, String notes, boolean recalculated) {
+            this.employee = employee;
+            this.hoursWorked = hoursWorked;
+            this.hourlyRate = hourlyRate;
+            this.grossCentavos = grossCentavos;
+            this.sssCentavos = sssCentavos;
+            this.philHealthCentavos = philHealthCentavos;
+            this.pagIbigCentavos = pagIbigCentavos;
+            this.deductionsCentavos = deductionsCentavos;
+            this.adjustmentCentavos = adjustmentCentavos;
+            this.netCentavos = netCentavos;
+            this.held = held;
+            this.notes = notes;
+            this.recalculated = recalculated;
+        }
+    }
+
+    /**
+     * The lines of a period, how many of them had to be recalculated, and the
+     * newest change mark they include (pass it to PayrollDAO.savePeriod)
+     */
+    public static class PeriodResult {
+        public final List<Line> lines;
+        public final int recalculated;
+        public final long dirtyThrough;
+
+        public PeriodResult(List<Line> lines, int recalculated, long dirtyThrough) {
+            this.lines = lines;
+            this.recalculated = recalculated;
+            this.dirtyThrough = dirtyThrough;
+        }
+    }
+}
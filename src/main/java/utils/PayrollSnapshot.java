@@ -0,0 +1,374 @@
+package utils;
+
+import dao.PayrollDAO;
+import dao.PayrollDirtyDAO;
+import database.DatabaseConnection;
+import models.Payroll;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Immutable snapshots of closed payroll periods
+ *
+ * Closing a period writes its saved payroll to snapshots/payroll-YYYY-MM.snap:
+ * a small header, then every column stored one after another (all employee
+ * IDs, then all hours, ...), deflate-compressed and protected by a CRC32.
+ * Snapshots are memory-mapped for reading and never rewritten, so history
+ * and reports for closed months do not touch the live database.
+ */
+public class PayrollSnapshot {
+
+    private static final String SNAPSHOT_DIR = "snapshots";
+    private static final byte[] MAGIC = "PAYSNAP1".getBytes(StandardCharsets.US_ASCII);
+    private static final int HEADER_SIZE = MAGIC.length + 4 * 3 + 8 + 4 * 2;
+    private static final int MAX_CACHED = 24;
+
+    // Decoded snapshots, most recently used last (files never change once written)
+    private static final Map<YearMonth, List<PayrollDAO.PayrollRow>> cache =
+            new LinkedHashMap<>(MAX_CACHED + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<YearMonth, List<PayrollDAO.PayrollRow>> eldest) {
+                    return size() > MAX_CACHED;
+                }
+            };
+
+    /**
+     * Snapshot file of a period
+     */
+    public static Path pathFor(int year, int month) {
+        return Paths.get(SNAPSHOT_DIR, String.format("payroll-%04d-%02d.snap", year, month));
+    }
+
+    /**
+     * Check if a period has been closed
+     */
+    public static boolean isClosed(int year, int month) {
+        return Files.exists(pathFor(year, month));
+    }
+
+    public static boolean isClosed(YearMonth period) {
+        return isClosed(period.getYear(), period.getMonthValue());
+    }
+
+    /**
+     * Fail a write that would change a closed period's payroll inputs
+     * DAOs call it inside the write's transaction, after the write itself:
+     * the write lock is held by then, so a period cannot close in between.
+     */
+    public static void requireOpen(int year, int month) throws SQLException {
+        requireOpen(YearMonth.of(year, month) + "-01");
+    }
+
+    /**
+     * requireOpen for the period containing a yyyy-MM-dd date (null = no period)
+     */
+    public static void requireOpen(String date) throws SQLException {
+        if (date == null || date.length() < 7) return;
+        YearMonth period = YearMonth.parse(date.substring(0, 7));
+        if (isClosed(period)) {
+            throw new SQLException("Payroll for " + period + " is closed and can no longer change");
+        }
+    }
+
+    /**
+     * All closed periods, oldest first
+     */
+    public static List<YearMonth> closedPeriods() throws IOException {
+        List<YearMonth> periods = new ArrayList<>();
+        Path dir = Paths.get(SNAPSHOT_DIR);
+        if (!Files.isDirectory(dir)) {
+            return periods;
+        }
+
+        try (Stream<Path> files = Files.list(dir)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.matches("payroll-\\d{4}-\\d{2}\\.snap"))
+                    .forEach(name -> periods.add(YearMonth.parse(name.substring(8, 15))));
+        }
+        Collections.sort(periods);
+        return periods;
+    }
+
+    /**
+     * Close a period: write its saved payroll to a read-only snapshot
+     *
+     * Refused while any employee's saved payroll for the period is out of
+     * date. The database write lock is held from that check until the
+     * snapshot is in place, so no input can change in between; writes that
+     * were waiting for the lock then find the period closed.
+     * @return the snapshot file
+     */
+    public static Path closePeriod(int year, int month) throws SQLException, IOException {
+        Path target = pathFor(year, month);
+        if (Files.exists(target)) {
+            throw new IllegalStateException(YearMonth.of(year, month) + " is already closed");
+        }
+
+        try (Connection lock = DatabaseConnection.getConnection();
+             Statement stmt = lock.createStatement()) {
+            stmt.execute("BEGIN IMMEDIATE");
+            try {
+                int stale = PayrollDirtyDAO.countDirty(lock, year, month);
+                if (stale > 0) {
+                    throw new IllegalStateException(stale + " employee(s) have attendance, adjustments, holds or rates that " +
+                            "changed since payroll for " + YearMonth.of(year, month) + " was processed.\n" +
+                            "Calculate and Process All again before closing.");
+                }
+                return writeSnapshot(target, year, month);
+            } finally {
+                stmt.execute("ROLLBACK");
+            }
+        }
+    }
+
+    private static Path writeSnapshot(Path target, int year, int month) throws SQLException, IOException {
+        List<PayrollDAO.PayrollRow> rows = new PayrollDAO().getPayrollRowsForPeriod(month, year);
+        if (rows.isEmpty()) {
+            throw new IllegalStateException("No processed payroll for " + YearMonth.of(year, month));
+        }
+
+        byte[] columns = encodeColumns(rows);
+        byte[] compressed = deflate(columns);
+        CRC32 crc = new CRC32();
+        crc.update(compressed);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.put(MAGIC);
+        header.putInt(year);
+        header.putInt(month);
+        header.putInt(rows.size());
+        header.putLong(crc.getValue());
+        header.putInt(columns.length);
+        header.putInt(compressed.length);
+        header.flip();
+
+        // Write next to the target and move into place so a crash never leaves half a snapshot
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), "payroll-", ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.write(new ByteBuffer[]{header, ByteBuffer.wrap(compressed)});
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        target.toFile().setReadOnly();
+
+        System.out.println("✓ Closed " + YearMonth.of(year, month) + ": " + rows.size() +
+                " row(s), " + (HEADER_SIZE + compressed.length) + " bytes");
+        return target;
+    }
+
+    /**
+     * Read a closed period's payroll
+     */
+    public static List<PayrollDAO.PayrollRow> read(int year, int month) throws IOException {
+        YearMonth period = YearMonth.of(year, month);
+        synchronized (cache) {
+            List<PayrollDAO.PayrollRow> cached = cache.get(period);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        List<PayrollDAO.PayrollRow> rows;
+        Path file = pathFor(year, month);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            rows = decode(file, mapped, year, month);
+        }
+
+        rows = Collections.unmodifiableList(rows);
+        synchronized (cache) {
+            cache.put(period, rows);
+        }
+        return rows;
+    }
+
+    private static List<PayrollDAO.PayrollRow> decode(Path file, ByteBuffer buffer, int year, int month)
+            throws IOException {
+        if (buffer.remaining() < HEADER_SIZE) {
+            throw new IOException("Snapshot too short: " + file);
+        }
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a payroll snapshot: " + file);
+        }
+        if (buffer.getInt() != year || buffer.getInt() != month) {
+            throw new IOException("Snapshot period does not match its file name: " + file);
+        }
+        int rowCount = buffer.getInt();
+        long expectedCrc = buffer.getLong();
+        int columnsLength = buffer.getInt();
+        int compressedLength = buffer.getInt();
+        if (buffer.remaining() != compressedLength) {
+            throw new IOException("Snapshot truncated: " + file);
+        }
+
+        ByteBuffer compressed = buffer.slice();
+        CRC32 crc = new CRC32();
+        crc.update(compressed.duplicate());
+        if (crc.getValue() != expectedCrc) {
+            throw new IOException("Snapshot checksum mismatch: " + file);
+        }
+
+        ByteBuffer columns = ByteBuffer.allocate(columnsLength);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            while (columns.hasRemaining() && !inflater.finished()) {
+                if (inflater.inflate(columns) == 0 && inflater.needsInput()) {
+                    break;
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt snapshot: " + file, e);
+        } finally {
+            inflater.end();
+        }
+        if (columns.hasRemaining()) {
+            throw new IOException("Snapshot data incomplete: " + file);
+        }
+        columns.flip();
+
+        return decodeColumns(columns, rowCount, year, month);
+    }
+
+    private static byte[] encodeColumns(List<PayrollDAO.PayrollRow> rows) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(rows.size() * 128);
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        for (PayrollDAO.PayrollRow row : rows) out.writeInt(row.payroll.getEmployeeId());
+        for (PayrollDAO.PayrollRow row : rows) out.writeInt(row.payroll.getLateCount());
+        for (PayrollDAO.PayrollRow row : rows) out.writeInt(row.payroll.getAbsentCount());
+        for (PayrollDAO.PayrollRow row : rows) out.writeBoolean(row.payroll.isHeld());
+        for (PayrollDAO.PayrollRow row : rows) out.writeDouble(row.payroll.getHoursWorked());
+        for (PayrollDAO.PayrollRow row : rows) out.writeDouble(row.payroll.getHourlyRate());
+        for (PayrollDAO.PayrollRow row : rows) out.writeDouble(row.payroll.getBaseSalary());
+        for (PayrollDAO.PayrollRow row : rows) out.writeDouble(row.payroll.getTotalDeductions());
+        for (PayrollDAO.PayrollRow row : rows) out.writeDouble(row.payroll.getSssDeduction());
+        for (PayrollDAO.PayrollRow row : rows) out.writeDouble(row.payroll.getPhilHealthDeduction());
+        for (PayrollDAO.PayrollRow row : rows) out.writeDouble(row.payroll.getPagIbigDeduction());
+        for (PayrollDAO.PayrollRow row : rows) out.writeDouble(row.payroll.getTotalAdjustments());
+        for (PayrollDAO.PayrollRow row : rows) out.writeDouble(row.payroll.getFinalSalary());
+        for (PayrollDAO.PayrollRow row : rows) writeString(out, row.qrCode);
+        for (PayrollDAO.PayrollRow row : rows) writeString(out, row.employeeName);
+        for (PayrollDAO.PayrollRow row : rows) writeString(out, row.payroll.getDateProcessed());
+        for (PayrollDAO.PayrollRow row : rows) writeString(out, row.payroll.getNotes());
+
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static List<PayrollDAO.PayrollRow> decodeColumns(ByteBuffer in, int n, int year, int month) {
+        int[] employeeIds = new int[n];
+        int[] lateCounts = new int[n];
+        int[] absentCounts = new int[n];
+        boolean[] held = new boolean[n];
+        for (int i = 0; i < n; i++) employeeIds[i] = in.getInt();
+        for (int i = 0; i < n; i++) lateCounts[i] = in.getInt();
+        for (int i = 0; i < n; i++) absentCounts[i] = in.getInt();
+        for (int i = 0; i < n; i++) held[i] = in.get() != 0;
+
+        double[] hours = readDoubles(in, n);
+        double[] rates = readDoubles(in, n);
+        double[] base = readDoubles(in, n);
+        double[] deductions = readDoubles(in, n);
+        double[] sss = readDoubles(in, n);
+        double[] philHealth = readDoubles(in, n);
+        double[] pagIbig = readDoubles(in, n);
+        double[] adjustments = readDoubles(in, n);
+        double[] finalSalary = readDoubles(in, n);
+
+        String[] qrCodes = readStrings(in, n);
+        String[] names = readStrings(in, n);
+        String[] processedDates = readStrings(in, n);
+        String[] notes = readStrings(in, n);
+
+        List<PayrollDAO.PayrollRow> rows = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Payroll payroll = new Payroll(0, employeeIds[i], month, year, base[i], deductions[i],
+                    finalSalary[i], lateCounts[i], absentCounts[i], processedDates[i], notes[i]);
+            payroll.setHoursWorked(hours[i]);
+            payroll.setHourlyRate(rates[i]);
+            payroll.setSssDeduction(sss[i]);
+            payroll.setPhilHealthDeduction(philHealth[i]);
+            payroll.setPagIbigDeduction(pagIbig[i]);
+            payroll.setTotalAdjustments(adjustments[i]);
+            payroll.setHeld(held[i]);
+            rows.add(new PayrollDAO.PayrollRow(payroll, qrCodes[i], names[i], held[i]));
+        }
+        return rows;
+    }
+
+    private static double[] readDoubles(ByteBuffer in, int n) {
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) values[i] = in.getDouble();
+        return values;
+    }
+
+    private static String[] readStrings(ByteBuffer in, int n) {
+        String[] values = new String[n];
+        for (int i = 0; i < n; i++) {
+            int length = in.getInt();
+            if (length >= 0) {
+                byte[] utf8 = new byte[length];
+                in.get(utf8);
+                values[i] = new String(utf8, StandardCharsets.UTF_8);
+            }
+        }
+        return values;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(chunk);
+                out.write(chunk, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+}
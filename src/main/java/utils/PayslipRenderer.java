@@ -0,0 +1,301 @@
+package utils;
+
+import dao.EmployeeDAO;
+import dao.PayrollAdjustmentDAO;
+import dao.PayrollDAO;
+import dao.SalaryHoldDAO;
+import models.EmployeeDisplay;
+import models.Payroll;
+import models.PayrollAdjustment;
+import models.SalaryHold;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.TextStyle;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Payslip text layout and bulk PDF rendering for a whole period
+ *
+ * Bulk rendering loads the period's payroll rows, employee details,
+ * approved adjustments and active holds up front (one query each), renders
+ * the PDFs on a pool of worker threads and streams them, in completion
+ * order, into a zip file or a directory from a single writer.
+ */
+public class PayslipRenderer {
+
+    private static final DateTimeFormatter PROCESSED_FORMAT =
+            DateTimeFormatter.ofPattern("MMM dd, yyyy hh:mm a");
+
+    private static final int WORKERS = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private static final int MAX_IN_FLIGHT = WORKERS * 4; // bounds rendered PDFs waiting to be written
+
+    private final PayrollDAO payrollDAO = new PayrollDAO();
+    private final EmployeeDAO employeeDAO = new EmployeeDAO();
+    private final PayrollAdjustmentDAO adjustmentDAO = new PayrollAdjustmentDAO();
+    private final SalaryHoldDAO salaryHoldDAO = new SalaryHoldDAO();
+
+    /**
+     * Lay out one employee's payslip as text
+     */
+    public static String formatPayslip(String periodLabel, EmployeeDisplay employee, Payroll payroll,
+                                       List<PayrollAdjustment> adjustments, SalaryHold hold,
+                                       String processed) {
+        StringBuilder sb = new StringBuilder(2048);
+
+        sb.append("═══════════════════════════════════════════════\n");
+        sb.append("           HR PAYROLL SYSTEM\n");
+        sb.append("              EMPLOYEE PAYSLIP\n");
+        sb.append(String.format("               %s\n", periodLabel));
+        sb.append("═══════════════════════════════════════════════\n\n");
+
+        sb.append("EMPLOYEE INFORMATION\n");
+        sb.append("─────────────────────────────────────────────\n");
+        sb.append(String.format("Name:             %s\n", employee.getName()));
+        sb.append(String.format("QR Code:          %s\n", employee.getQrCode()));
+        sb.append(String.format("Position:         %s\n", employee.getPositionTitle()));
+        sb.append(String.format("Department:       %s\n\n", employee.getDepartmentName()));
+
+        sb.append("COMPENSATION BREAKDOWN\n");
+        sb.append("─────────────────────────────────────────────\n");
+        sb.append(String.format("Hourly Rate:      ₱%.2f per hour\n", payroll.getHourlyRate()));
+        sb.append(String.format("Hours Worked:     %.2f hours\n", payroll.getHoursWorked()));
+        sb.append(String.format("Gross Pay:        ₱%,.2f\n", payroll.getBaseSalary()));
+        sb.append(String.format("                  (%.2f hrs × ₱%.2f/hr)\n\n",
+                payroll.getHoursWorked(), payroll.getHourlyRate()));
+
+        sb.append("GOVERNMENT DEDUCTIONS\n");
+        sb.append("─────────────────────────────────────────────\n");
+        sb.append(String.format("SSS:              -₱%,.2f\n", payroll.getSssDeduction()));
+        sb.append(String.format("PhilHealth:       -₱%,.2f\n", payroll.getPhilHealthDeduction()));
+        sb.append(String.format("Pag-IBIG:         -₱%,.2f\n", payroll.getPagIbigDeduction()));
+        sb.append(String.format("Total Deductions: -₱%,.2f\n\n", payroll.getTotalDeductions()));
+
+        sb.append("ADJUSTMENTS\n");
+        sb.append("─────────────────────────────────────────────\n");
+
+        if (adjustments.isEmpty()) {
+            sb.append("None\n\n");
+        } else {
+            for (PayrollAdjustment adj : adjustments) {
+                sb.append(String.format("%s %-12s  %s\n",
+                        adj.getTypeEmoji(),
+                        adj.getAdjustmentType() + ":",
+                        adj.getFormattedAmount()));
+                sb.append(String.format("  Reason: %s\n", adj.getReason()));
+                sb.append(String.format("  Date: %s\n", adj.getDateApproved()));
+            }
+            sb.append(String.format("\nTotal Adjustments: ₱%,.2f\n\n", payroll.getTotalAdjustments()));
+        }
+
+        if (hold != null) {
+            sb.append(" SALARY HOLD NOTICE\n");
+            sb.append("─────────────────────────────────────────────\n");
+            sb.append("Status:           HELD\n");
+            sb.append(String.format("Since:            %s\n", hold.getHoldDate()));
+            sb.append(String.format("Reason:           %s\n\n", hold.getReason()));
+        }
+
+        sb.append("═══════════════════════════════════════════════\n");
+        sb.append(String.format("NET PAY:          ₱%,.2f\n", payroll.getFinalSalary()));
+        sb.append("═══════════════════════════════════════════════\n\n");
+
+        sb.append(String.format("Processed: %s\n", processed));
+        sb.append("This is a computer-generated payslip.\n");
+
+        return sb.toString();
+    }
+
+    /**
+     * Timestamp shown at the bottom of payslips generated now
+     */
+    public static String processedNow() {
+        return LocalDateTime.now().format(PROCESSED_FORMAT);
+    }
+
+    /**
+     * Render every saved payslip of the period into one zip file
+     */
+    public RenderResult renderToZip(int year, int month, File zipFile,
+                                    BiConsumer<Integer, Integer> progress) throws SQLException, IOException {
+        try (ZipOutputStream zip = new ZipOutputStream(
+                new BufferedOutputStream(new FileOutputStream(zipFile), 1 << 16))) {
+            return render(year, month, zipFile, progress, (name, pdf) -> {
+                zip.putNextEntry(new ZipEntry(name));
+                zip.write(pdf);
+                zip.closeEntry();
+            });
+        }
+    }
+
+    /**
+     * Render every saved payslip of the period as separate files in a directory
+     */
+    public RenderResult renderToDirectory(int year, int month, File directory,
+                                          BiConsumer<Integer, Integer> progress) throws SQLException, IOException {
+        Path dir = directory.toPath();
+        Files.createDirectories(dir);
+        return render(year, month, directory, progress, (name, pdf) -> Files.write(dir.resolve(name), pdf));
+    }
+
+    /**
+     * The hold notice for a payroll row: none unless the row was processed as held
+     * (for a closed period that is the snapshot's status). If that hold has since
+     * been released, its details come from the employee's most recent hold.
+     */
+    private SalaryHold holdFor(PayrollDAO.PayrollRow row, Map<Integer, SalaryHold> activeHolds)
+            throws SQLException {
+        if (!row.payroll.isHeld()) {
+            return null;
+        }
+        int employeeId = row.payroll.getEmployeeId();
+        SalaryHold hold = activeHolds.get(employeeId);
+        if (hold == null) {
+            List<SalaryHold> history = salaryHoldDAO.getHoldsByEmployee(employeeId);
+            hold = history.isEmpty() ? null : history.get(0); // newest first
+        }
+        return hold;
+    }
+
+    private RenderResult render(int year, int month, File output, BiConsumer<Integer, Integer> progress,
+                                PayslipSink sink) throws SQLException, IOException {
+        long start = System.currentTimeMillis();
+
+        // Everything the payslips need, loaded once
+        List<PayrollDAO.PayrollRow> rows = PayrollSnapshot.isClosed(year, month)
+                ? PayrollSnapshot.read(year, month)
+                : payrollDAO.getPayrollRowsForPeriod(month, year);
+
+        Map<Integer, EmployeeDisplay> employees = new HashMap<>();
+        for (EmployeeDisplay employee : employeeDAO.getAllEmployeeDisplays()) {
+            employees.put(employee.getId(), employee);
+        }
+
+        YearMonth yearMonth = YearMonth.of(year, month);
+        Map<Integer, List<PayrollAdjustment>> adjustments = adjustmentDAO.getApprovedAdjustmentsByEmployee(
+                yearMonth.atDay(1).toString(), yearMonth.atEndOfMonth().toString());
+
+        // Hold details for the notice; whether a payslip is held comes from its payroll row
+        Map<Integer, SalaryHold> holds = new HashMap<>();
+        for (SalaryHold hold : salaryHoldDAO.getAllActiveHolds()) {
+            holds.putIfAbsent(hold.getEmployeeId(), hold); // newest first
+        }
+
+        String periodLabel = Month.of(month).getDisplayName(TextStyle.FULL, Locale.ENGLISH) + " " + year;
+        String processed = processedNow();
+        String period = yearMonth.toString();
+
+        ExecutorService pool = Executors.newFixedThreadPool(WORKERS, runnable -> {
+            Thread thread = new Thread(runnable, "payslip-render");
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletionService<RenderedPayslip> completion = new ExecutorCompletionService<>(pool);
+
+        int total = rows.size();
+        int submitted = 0;
+        int written = 0;
+
+        try {
+            while (written < total) {
+                while (submitted < total && submitted - written < MAX_IN_FLIGHT) {
+                    PayrollDAO.PayrollRow row = rows.get(submitted++);
+                    int employeeId = row.payroll.getEmployeeId();
+                    EmployeeDisplay employee = employees.getOrDefault(employeeId, new EmployeeDisplay(
+                            employeeId, row.qrCode, row.employeeName, "Unknown", "Unknown", "",
+                            row.payroll.getHourlyRate()));
+                    List<PayrollAdjustment> employeeAdjustments =
+                            adjustments.getOrDefault(employeeId, Collections.emptyList());
+                    SalaryHold hold = holdFor(row, holds);
+
+                    completion.submit(() -> new RenderedPayslip(
+                            fileName(employee, period),
+                            PdfWriter.textToPdf(formatPayslip(periodLabel, employee, row.payroll,
+                                    employeeAdjustments, hold, processed))));
+                }
+
+                RenderedPayslip payslip = completion.take().get();
+                sink.write(payslip.fileName, payslip.pdf);
+                written++;
+
+                if (progress != null) {
+                    progress.accept(written, total);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Payslip rendering was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to render payslip: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        RenderResult result = new RenderResult(written, System.currentTimeMillis() - start, output);
+        System.out.println("✓ Rendered " + result.count + " payslip(s) for " + period +
+                " in " + result.elapsedMillis + " ms");
+        return result;
+    }
+
+    private static String fileName(EmployeeDisplay employee, String period) {
+        String code = employee.getQrCode() != null && !employee.getQrCode().isBlank()
+                ? employee.getQrCode()
+                : "EMP" + employee.getId();
+        return "payslip_" + period + "_" + code.replaceAll("[^A-Za-z0-9_-]", "_") + ".pdf";
+    }
+
+    // Receives rendered PDFs one at a time, on the thread that started the render
+    private interface PayslipSink {
+        void write(String fileName, byte[] pdf) throws IOException;
+    }
+
+    private static class RenderedPayslip {
+        final String fileName;
+        final byte[] pdf;
+
+        RenderedPayslip(String fileName, byte[] pdf) {
+            this.fileName = fileName;
+            this.pdf = pdf;
+        }
+    }
+
+    /**
+     * Outcome of a bulk render
+     */
+    public static class RenderResult {
+        public final int count;
+        public final long elapsedMillis;
+        public final File output;
+
+        public RenderResult(int count, long elapsedMillis, File output) {
+            this.count = count;
+            this.elapsedMillis = elapsedMillis;
+            this.output = output;
+        }
+
+        public double getPayslipsPerSecond() {
+            return elapsedMillis == 0 ? count : count * 1000.0 / elapsedMillis;
+        }
+    }
+}
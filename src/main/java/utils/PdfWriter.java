@@ -0,0 +1,178 @@
+package utils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Minimal PDF writer for monospaced text documents (payslips, reports)
+ *
+ * Lays the text out in 10pt Courier on Letter pages, starting a new page
+ * when one fills up. Characters outside the WinAnsi font are replaced
+ * (box-drawing lines become '=' / '-', the peso sign becomes "PHP",
+ * emoji are dropped) since no fonts are embedded.
+ */
+public class PdfWriter {
+
+    private static final int PAGE_WIDTH = 612;
+    private static final int PAGE_HEIGHT = 792;
+    private static final int MARGIN = 48;
+    private static final int FONT_SIZE = 10;
+    private static final int LEADING = 12;
+    private static final int LINES_PER_PAGE = (PAGE_HEIGHT - 2 * MARGIN) / LEADING;
+
+    /**
+     * Render plain text (one line per '\n') as a PDF document
+     */
+    public static byte[] textToPdf(String text) {
+        String[] lines = text.split("\n", -1);
+        int pageCount = Math.max(1, (lines.length + LINES_PER_PAGE - 1) / LINES_PER_PAGE);
+
+        // Objects: 1 catalog, 2 page tree, 3 font, then a page and its content stream per page
+        PdfBuffer out = new PdfBuffer(2048 + text.length() * 2);
+        List<Integer> offsets = new ArrayList<>();
+
+        out.ascii("%PDF-1.4\n%âãÏÓ\n");
+
+        offsets.add(out.size());
+        out.ascii("1 0 obj\n<< /Type /Catalog /Pages 2 0 R >>\nendobj\n");
+
+        offsets.add(out.size());
+        StringBuilder kids = new StringBuilder();
+        for (int i = 0; i < pageCount; i++) {
+            kids.append(4 + i * 2).append(" 0 R ");
+        }
+        out.ascii("2 0 obj\n<< /Type /Pages /Kids [" + kids + "] /Count " + pageCount + " >>\nendobj\n");
+
+        offsets.add(out.size());
+        out.ascii("3 0 obj\n<< /Type /Font /Subtype /Type1 /BaseFont /Courier " +
+                "/Encoding /WinAnsiEncoding >>\nendobj\n");
+
+        for (int page = 0; page < pageCount; page++) {
+            int pageObj = 4 + page * 2;
+            int contentObj = pageObj + 1;
+
+            offsets.add(out.size());
+            out.ascii(pageObj + " 0 obj\n<< /Type /Page /Parent 2 0 R " +
+                    "/MediaBox [0 0 " + PAGE_WIDTH + " " + PAGE_HEIGHT + "] " +
+                    "/Resources << /Font << /F1 3 0 R >> >> " +
+                    "/Contents " + contentObj + " 0 R >>\nendobj\n");
+
+            byte[] content = pageContent(lines, page * LINES_PER_PAGE,
+                    Math.min(lines.length, (page + 1) * LINES_PER_PAGE));
+
+            offsets.add(out.size());
+            out.ascii(contentObj + " 0 obj\n<< /Length " + content.length + " >>\nstream\n");
+            out.write(content, 0, content.length);
+            out.ascii("\nendstream\nendobj\n");
+        }
+
+        int xref = out.size();
+        out.ascii("xref\n0 " + (offsets.size() + 1) + "\n0000000000 65535 f \n");
+        for (int offset : offsets) {
+            out.ascii(String.format("%010d 00000 n \n", offset));
+        }
+        out.ascii("trailer\n<< /Size " + (offsets.size() + 1) + " /Root 1 0 R >>\n" +
+                "startxref\n" + xref + "\n%%EOF\n");
+
+        return out.toByteArray();
+    }
+
+    private static byte[] pageContent(String[] lines, int from, int to) {
+        PdfBuffer content = new PdfBuffer((to - from) * 64 + 64);
+        content.ascii("BT\n/F1 " + FONT_SIZE + " Tf\n" + LEADING + " TL\n" +
+                MARGIN + " " + (PAGE_HEIGHT - MARGIN - FONT_SIZE) + " Td\n");
+
+        for (int i = from; i < to; i++) {
+            content.write('(');
+            appendEncoded(content, lines[i]);
+            content.ascii(") Tj T*\n");
+        }
+        content.ascii("ET");
+        return content.toByteArray();
+    }
+
+    // Write a line as a WinAnsi string literal, escaping and substituting as needed
+    private static void appendEncoded(PdfBuffer out, String line) {
+        for (int i = 0; i < line.length(); ) {
+            int cp = line.codePointAt(i);
+            i += Character.charCount(cp);
+
+            switch (cp) {
+                case '\r':
+                    break;
+                case '(':
+                case ')':
+                case '\\':
+                    out.write('\\');
+                    out.write(cp);
+                    break;
+                case '\t':
+                    out.ascii("    ");
+                    break;
+                case '₱': // peso sign
+                    out.ascii("PHP ");
+                    break;
+                case '═': // double horizontal
+                    out.write('=');
+                    break;
+                case '─': // light horizontal
+                case '–':
+                case '—':
+                    out.write('-');
+                    break;
+                case '•': // bullet
+                    out.write(0x95);
+                    break;
+                case '‘':
+                case '’':
+                    out.write('\'');
+                    break;
+                case '“':
+                case '”':
+                    out.write('"');
+                    break;
+                case '\uFE0F': // emoji variation selector
+                    break;
+                default:
+                    if (cp >= 0x20 && cp < 0x7F || cp >= 0xA0 && cp <= 0xFF) {
+                        out.write(cp);
+                    } else if (cp < 0x2000 || Character.isLetterOrDigit(cp)) {
+                        out.write('?');
+                    }
+                    // Symbols and emoji have no WinAnsi glyph; leave them out
+            }
+        }
+    }
+
+    // ByteArrayOutputStream without the synchronized writes, plus ASCII helpers
+    private static class PdfBuffer extends ByteArrayOutputStream {
+        PdfBuffer(int size) {
+            super(size);
+        }
+
+        @Override
+        public void write(int b) {
+            if (count == buf.length) {
+                buf = Arrays.copyOf(buf, buf.length * 2);
+            }
+            buf[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (count + len > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, count + len));
+            }
+            System.arraycopy(b, off, buf, count, len);
+            count += len;
+        }
+
+        void ascii(String s) {
+            byte[] bytes = s.getBytes(StandardCharsets.ISO_8859_1);
+            write(bytes, 0, bytes.length);
+        }
+    }
+}
@@ -1,13 +1,33 @@
 package utils;
 
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+
 import javax.imageio.ImageIO;
-import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class QRCodeGenerator {
 
+    private static final int MAX_CACHED_IMAGES = 256;
+
+    // Rendered PNGs by text and size (LRU)
+    private static final Map<String, byte[]> pngCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+            return size() > MAX_CACHED_IMAGES;
+        }
+    };
+
     /**
      * Generate unique QR code text for employee
      * Format: EMP-YEAR-ID-FIRSTNAME
@@ -36,61 +56,49 @@ public class QRCodeGenerator {
     }
 
     /**
-     * Generate QR code image as byte array (PLACEHOLDER VERSION)
-     * Creates a simple text-based image instead of actual QR code
+     * Generate QR code image as PNG bytes
+     * Rendered images are cached by text and size, so reopening a form is free
      */
     public static byte[] generateQRImageBytes(String qrText, int width, int height) {
-        try {
-            // Create a simple image with the QR text
-            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-            Graphics2D g2d = image.createGraphics();
-
-            // White background
-            g2d.setColor(Color.WHITE);
-            g2d.fillRect(0, 0, width, height);
-
-            // Black border
-            g2d.setColor(Color.BLACK);
-            g2d.setStroke(new BasicStroke(3));
-            g2d.drawRect(2, 2, width-4, height-4);
-
-            // Draw QR code placeholder pattern (simple grid)
-            g2d.setColor(Color.BLACK);
-            int cellSize = 10;
-            for (int i = 0; i < width/cellSize; i++) {
-                for (int j = 0; j < height/cellSize; j++) {
-                    if ((i + j) % 2 == 0) {
-                        g2d.fillRect(i * cellSize, j * cellSize, cellSize-1, cellSize-1);
-                    }
-                }
+        String key = qrText + "|" + width + "x" + height;
+        synchronized (pngCache) {
+            byte[] cached = pngCache.get(key);
+            if (cached != null) {
+                return cached.clone();
             }
+        }
 
-            // Draw text in center
-            g2d.setColor(Color.WHITE);
-            g2d.fillRect(width/4, height/2 - 20, width/2, 40);
-            g2d.setColor(Color.BLACK);
-            g2d.setFont(new Font("Arial", Font.BOLD, 12));
-            FontMetrics fm = g2d.getFontMetrics();
-            int textWidth = fm.stringWidth(qrText);
-            int x = (width - textWidth) / 2;
-            int y = (height / 2) + 5;
-            g2d.drawString(qrText, x, y);
-
-            g2d.dispose();
-
-            // Convert to byte array
+        try {
             ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            ImageIO.write(image, "PNG", outputStream);
-            return outputStream.toByteArray();
+            ImageIO.write(generateQRImage(qrText, width, height), "PNG", outputStream);
+            byte[] png = outputStream.toByteArray();
 
-        } catch (IOException e) {
-            System.err.println("Failed to generate QR placeholder: " + e.getMessage());
+            synchronized (pngCache) {
+                pngCache.put(key, png);
+            }
+            return png.clone();
+
+        } catch (WriterException | IOException e) {
+            System.err.println("Failed to generate QR code: " + e.getMessage());
             return null;
         }
     }
 
     /**
-     * Save QR code to file (PLACEHOLDER VERSION)
+     * Encode text as a QR code image (black modules on white, small quiet zone)
+     */
+    public static BufferedImage generateQRImage(String qrText, int width, int height) throws WriterException {
+        Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+        hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.M);
+        hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
+        hints.put(EncodeHintType.MARGIN, 1);
+
+        BitMatrix matrix = new QRCodeWriter().encode(qrText, BarcodeFormat.QR_CODE, width, height, hints);
+        return MatrixToImageWriter.toBufferedImage(matrix);
+    }
+
+    /**
+     * Save QR code to file
      */
     public static void saveQRCodeToFile(String qrText, String filePath, int width, int height) {
         try {
@@ -100,7 +108,7 @@ public class QRCodeGenerator {
                         java.nio.file.Paths.get(filePath),
                         imageBytes
                 );
-                System.out.println("QR Code placeholder saved to: " + filePath);
+                System.out.println("QR Code saved to: " + filePath);
             }
         } catch (IOException e) {
             System.err.println("Failed to save QR code: " + e.getMessage());
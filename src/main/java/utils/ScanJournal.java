@@ -0,0 +1,466 @@
+package utils;
+
+import dao.AttendanceDAO;
+import models.Attendance;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Durable kiosk journal: scans are accepted here first, then applied to the database
+ *
+ * Every time in / time out is appended to journal/scans.log and fsynced
+ * before the kiosk confirms it, so a locked or slow database never loses
+ * or delays a scan. Appends from scans that arrive together share one
+ * fsync. A background replayer applies the journaled scans to the
+ * database in order; while the database is busy it backs off and retries
+ * the same scan, so order is kept.
+ *
+ * Replaying is idempotent (a time in is skipped if the employee already
+ * has a record that day, a time out only fills an empty time out), so the
+ * applied position in journal/scans.applied does not need to be fsynced
+ * and a crash at any point is safe. Scans the database rejects for good
+ * (e.g. the employee was deleted) go to journal/scans.rejected.
+ */
+public class ScanJournal {
+
+    private static final Path JOURNAL_DIR = Paths.get("journal");
+    private static final Path LOG_FILE = JOURNAL_DIR.resolve("scans.log");
+    private static final Path APPLIED_FILE = JOURNAL_DIR.resolve("scans.applied");
+    private static final Path REJECTED_FILE = JOURNAL_DIR.resolve("scans.rejected");
+
+    private static final long COMPACT_BYTES = 1 << 20;   // start a new log once everything in a 1 MB one is applied
+    private static final int PROGRESS_EVERY = 100;       // scans applied between progress saves under steady load
+    private static final long MIN_BACKOFF_MS = 100;
+    private static final long MAX_BACKOFF_MS = 5_000;
+
+    // SQLite result codes for "try again later"
+    private static final int SQLITE_BUSY = 5;
+    private static final int SQLITE_LOCKED = 6;
+
+    private static ScanJournal instance;
+
+    private final FileChannel log;
+    private final LinkedBlockingQueue<PendingAppend> appendQueue = new LinkedBlockingQueue<>();
+    private final ConcurrentLinkedDeque<Scan> unapplied = new ConcurrentLinkedDeque<>();
+    // The same scans by employee-day (immutable lists), so reading one day does not walk the queue
+    private final ConcurrentHashMap<String, List<Scan>> unappliedByDay = new ConcurrentHashMap<>();
+    private final Semaphore replayWakeup = new Semaphore(0);
+    private final AttendanceDAO attendanceDAO = new AttendanceDAO();
+
+    private long nextSeq;
+    private volatile long appliedSeq;
+    private volatile String lastError;
+
+    /**
+     * The kiosk's journal, opened (and replaying anything left over) on first use
+     */
+    public static synchronized ScanJournal get() throws IOException {
+        if (instance == null) {
+            instance = new ScanJournal();
+        }
+        return instance;
+    }
+
+    private ScanJournal() throws IOException {
+        Files.createDirectories(JOURNAL_DIR);
+        appliedSeq = readAppliedSeq();
+
+        long lastSeq = appliedSeq;
+        for (Scan scan : readLog()) {
+            lastSeq = Math.max(lastSeq, scan.seq);
+            if (scan.seq > appliedSeq) {
+                addUnapplied(scan);
+            }
+        }
+        nextSeq = lastSeq + 1;
+
+        log = FileChannel.open(LOG_FILE, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+
+        startThread(this::writeLoop, "scan-journal-writer");
+        startThread(this::replayLoop, "scan-journal-replay");
+
+        if (!unapplied.isEmpty()) {
+            System.out.println("✓ Scan journal: " + unapplied.size() + " scan(s) waiting to be applied");
+        }
+    }
+
+    /**
+     * Journal a time in; returns once the scan is on disk
+     */
+    public Scan recordTimeIn(int employeeId, String date, String time, String status, int shiftId)
+            throws IOException {
+        return append(new Scan(0, System.currentTimeMillis(), Scan.TIME_IN, employeeId, date, time, status, shiftId));
+    }
+
+    /**
+     * Journal a time out; returns once the scan is on disk
+     */
+    public Scan recordTimeOut(int employeeId, String date, String time) throws IOException {
+        return append(new Scan(0, System.currentTimeMillis(), Scan.TIME_OUT, employeeId, date, time, "", 0));
+    }
+
+    /**
+     * The employee's record for the day as it will be once pending scans are applied
+     */
+    public Attendance getRecord(int employeeId, String date) throws SQLException {
+        // Pending scans first: one applied between the two reads then shows up in the database row
+        List<Scan> pending = unappliedByDay.getOrDefault(dayKey(employeeId, date), List.of());
+        Attendance record = attendanceDAO.getAttendanceByEmployeeAndDate(employeeId, date);
+
+        for (Scan scan : pending) {
+            if (scan.isTimeIn() && record == null) {
+                record = new Attendance(employeeId, date, scan.time, null, scan.status);
+            } else if (!scan.isTimeIn() && record != null
+                    && (record.getTimeOut() == null || record.getTimeOut().isEmpty())) {
+                record.setTimeOut(scan.time);
+            }
+        }
+        return record;
+    }
+
+    /**
+     * Scans accepted but not yet in the database
+     */
+    public int getPendingCount() {
+        return unapplied.size() + appendQueue.size();
+    }
+
+    /**
+     * How long the oldest pending scan has been waiting, in ms (0 if none)
+     */
+    public long getLagMillis() {
+        Scan oldest = unapplied.peekFirst();
+        return oldest == null ? 0 : Math.max(0, System.currentTimeMillis() - oldest.acceptedAt);
+    }
+
+    /**
+     * Why the last replay attempt failed, or null if it succeeded
+     */
+    public String getLastError() {
+        return lastError;
+    }
+
+    // ==================== WRITING ====================
+
+    private Scan append(Scan scan) throws IOException {
+        PendingAppend pending = new PendingAppend(scan);
+        appendQueue.add(pending);
+        try {
+            return pending.done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while journaling the scan", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Could not journal the scan: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    // Group commit: everything queued while the previous fsync ran is written and fsynced together
+    private void writeLoop() {
+        List<PendingAppend> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(appendQueue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            appendQueue.drainTo(batch);
+
+            List<Scan> written = new ArrayList<>(batch.size());
+            try {
+                synchronized (log) {
+                    StringBuilder lines = new StringBuilder();
+                    for (PendingAppend pending : batch) {
+                        Scan scan = pending.scan.withSeq(nextSeq++);
+                        written.add(scan);
+                        lines.append(scan.toLine()).append('\n');
+                    }
+                    ByteBuffer bytes = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+                    while (bytes.hasRemaining()) {
+                        log.write(bytes);
+                    }
+                    log.force(false);
+                    // Still under the lock, so saveProgress never sees them written but not yet unapplied
+                    for (Scan scan : written) {
+                        addUnapplied(scan);
+                    }
+                }
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).done.complete(written.get(i));
+                }
+                replayWakeup.release();
+            } catch (IOException e) {
+                for (PendingAppend pending : batch) {
+                    pending.done.completeExceptionally(e);
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    // ==================== REPLAYING ====================
+
+    private void replayLoop() {
+        long backoff = MIN_BACKOFF_MS;
+        int sinceSaved = 0;
+        while (true) {
+            try {
+                if (unapplied.isEmpty()) {
+                    replayWakeup.tryAcquire(1, TimeUnit.SECONDS);
+                    continue;
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            Scan scan = unapplied.peekFirst();
+            try {
+                apply(scan);
+                lastError = null;
+                backoff = MIN_BACKOFF_MS;
+            } catch (SQLException e) {
+                if (isTransient(e)) {
+                    // Database busy: retry the same scan later so order is kept
+                    lastError = e.getMessage();
+                    sleep(backoff);
+                    backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+                    continue;
+                }
+                reject(scan, e.getMessage());
+            }
+
+            removeApplied(scan);
+            appliedSeq = scan.seq;
+            if (unapplied.isEmpty() || ++sinceSaved >= PROGRESS_EVERY) {
+                saveProgress();
+                sinceSaved = 0;
+            }
+        }
+    }
+
+    private void apply(Scan scan) throws SQLException {
+        Attendance existing = attendanceDAO.getAttendanceByEmployeeAndDate(scan.employeeId, scan.date);
+
+        if (scan.isTimeIn()) {
+            if (existing != null) return; // already applied, or scanned twice
+
+            Attendance attendance = new Attendance(scan.employeeId, scan.date, scan.time, null, scan.status);
+            attendanceDAO.addAttendance(attendance, scan.shiftId);
+        } else {
+            if (existing == null) {
+                throw new SQLException("No time in on " + scan.date + " for employee #" + scan.employeeId);
+            }
+            if (existing.getTimeOut() != null && !existing.getTimeOut().isEmpty()) return; // already applied
+
+            existing.setTimeOut(scan.time);
+            attendanceDAO.updateAttendance(existing);
+        }
+    }
+
+    private void addUnapplied(Scan scan) {
+        unappliedByDay.compute(dayKey(scan.employeeId, scan.date), (key, scans) -> {
+            List<Scan> updated = scans != null ? new ArrayList<>(scans) : new ArrayList<>(1);
+            updated.add(scan);
+            return List.copyOf(updated);
+        });
+        unapplied.add(scan);
+    }
+
+    private void removeApplied(Scan scan) {
+        unapplied.pollFirst();
+        unappliedByDay.computeIfPresent(dayKey(scan.employeeId, scan.date), (key, scans) -> {
+            List<Scan> updated = new ArrayList<>(scans);
+            updated.remove(scan);
+            return updated.isEmpty() ? null : List.copyOf(updated);
+        });
+    }
+
+    private static String dayKey(int employeeId, String date) {
+        return employeeId + "|" + date;
+    }
+
+    private static boolean isTransient(SQLException e) {
+        int code = e.getErrorCode() & 0xFF; // extended codes carry the primary code in the low byte
+        return code == SQLITE_BUSY || code == SQLITE_LOCKED;
+    }
+
+    private void reject(Scan scan, String reason) {
+        System.err.println("Scan #" + scan.seq + " rejected: " + reason);
+        try {
+            Files.writeString(REJECTED_FILE, scan.toLine() + "\t" + reason + "\n", StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("Failed to save rejected scan: " + e.getMessage());
+        }
+    }
+
+    // Record how far replay got; start a fresh log once a large one is fully applied
+    private void saveProgress() {
+        try {
+            long saved = appliedSeq;
+            Path tmp = APPLIED_FILE.resolveSibling("scans.applied.tmp");
+            Files.writeString(tmp, Long.toString(saved), StandardCharsets.UTF_8);
+            Files.move(tmp, APPLIED_FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            synchronized (log) {
+                // Only when every scan written so far is applied and recorded as applied
+                if (saved == nextSeq - 1 && unapplied.isEmpty() && log.size() > COMPACT_BYTES) {
+                    log.truncate(0);
+                    log.force(true);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to save scan journal progress: " + e.getMessage());
+        }
+    }
+
+    // ==================== READING ====================
+
+    private static long readAppliedSeq() throws IOException {
+        if (!Files.exists(APPLIED_FILE)) return 0;
+        try {
+            return Long.parseLong(Files.readString(APPLIED_FILE, StandardCharsets.UTF_8).trim());
+        } catch (NumberFormatException e) {
+            return 0; // replay is idempotent, so starting over is safe
+        }
+    }
+
+    private static List<Scan> readLog() throws IOException {
+        List<Scan> scans = new ArrayList<>();
+        if (!Files.exists(LOG_FILE)) return scans;
+
+        byte[] bytes = Files.readAllBytes(LOG_FILE);
+        int complete = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] != '\n') continue;
+
+            String line = new String(bytes, complete, i - complete, StandardCharsets.UTF_8);
+            Scan scan = Scan.parse(line);
+            if (scan != null) {
+                scans.add(scan);
+            } else if (!line.isEmpty()) {
+                System.err.println("Scan journal: skipping damaged line: " + line);
+            }
+            complete = i + 1;
+        }
+
+        if (complete < bytes.length) {
+            // A write cut short by a crash was never confirmed; drop it so the next append starts on a new line
+            try (FileChannel channel = FileChannel.open(LOG_FILE, StandardOpenOption.WRITE)) {
+                channel.truncate(complete);
+                channel.force(false);
+            }
+        }
+        return scans;
+    }
+
+    private static void startThread(Runnable body, String name) {
+        Thread thread = new Thread(body, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class PendingAppend {
+        final Scan scan;
+        final CompletableFuture<Scan> done = new CompletableFuture<>();
+
+        PendingAppend(Scan scan) {
+            this.scan = scan;
+        }
+    }
+
+    /**
+     * One journaled scan
+     * Stored as one tab-separated line ending in a CRC32 of the rest of the line.
+     */
+    public static class Scan {
+        public static final String TIME_IN = "IN";
+        public static final String TIME_OUT = "OUT";
+
+        public final long seq;
+        public final long acceptedAt;
+        public final String type;
+        public final int employeeId;
+        public final String date;
+        public final String time;
+        public final String status;
+        public final int shiftId;
+
+        public Scan(long seq, long acceptedAt, String type, int employeeId, String date, String time,
+                    String status, int shiftId) {
+            this.seq = seq;
+            this.acceptedAt = acceptedAt;
+            this.type = type;
+            this.employeeId = employeeId;
+            this.date = date;
+            this.time = time;
+            this.status = status;
+            this.shiftId = shiftId;
+        }
+
+        public boolean isTimeIn() {
+            return TIME_IN.equals(type);
+        }
+
+        Scan withSeq(long newSeq) {
+            return new Scan(newSeq, acceptedAt, type, employeeId, date, time, status, shiftId);
+        }
+
+        String toLine() {
+            String body = seq + "\t" + acceptedAt + "\t" + type + "\t" + employeeId + "\t" +
+                    date + "\t" + time + "\t" + status + "\t" + shiftId;
+            return body + "\t" + Long.toHexString(checksum(body));
+        }
+
+        static Scan parse(String line) {
+            int lastTab = line.lastIndexOf('\t');
+            if (lastTab < 0) return null;
+
+            String body = line.substring(0, lastTab);
+            try {
+                if (Long.parseLong(line.substring(lastTab + 1), 16) != checksum(body)) return null;
+
+                String[] f = body.split("\t", -1);
+                if (f.length != 8) return null;
+                return new Scan(Long.parseLong(f[0]), Long.parseLong(f[1]), f[2], Integer.parseInt(f[3]),
+                        f[4], f[5], f[6], Integer.parseInt(f[7]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        private static long checksum(String body) {
+            CRC32 crc = new CRC32();
+            crc.update(body.getBytes(StandardCharsets.UTF_8));
+            return crc.getValue();
+        }
+    }
+}
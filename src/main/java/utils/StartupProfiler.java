@@ -0,0 +1,92 @@
+package utils;
+
+import javafx.scene.Scene;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Startup timeline from JVM start to an interactive login screen
+ *
+ * Main marks each phase as it finishes; the timeline is printed once the
+ * login screen can be used. The first frame is checked against a target
+ * (-Dstartup.budget.ms, default 1500 ms). With -Dstartup.check=true the
+ * application exits right after startup with status 1 if the target was
+ * missed or the database check failed, so a build machine with a display
+ * can guard against regressions (StartupProfilerTest covers the check).
+ */
+public class StartupProfiler {
+
+    private static final long JVM_START = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private static final long DEFAULT_BUDGET_MS = 1500;
+    private static final boolean CHECK_MODE = Boolean.getBoolean("startup.check");
+
+    private static final List<String> phases = new ArrayList<>();
+    private static long lastMark = JVM_START;
+    private static long firstFrameMillis = -1;
+
+    /**
+     * Record that a phase just finished
+     */
+    public static synchronized void mark(String phase) {
+        long now = System.currentTimeMillis();
+        phases.add(String.format("  %-28s %6d ms  (+%d)", phase, now - JVM_START, now - lastMark));
+        lastMark = now;
+    }
+
+    /**
+     * Mark "first frame" on the scene's first pulse, then run {@code onShown}
+     */
+    public static void markFirstFrame(Scene scene, Runnable onShown) {
+        Runnable[] listener = new Runnable[1];
+        listener[0] = () -> {
+            scene.removePostLayoutPulseListener(listener[0]);
+            mark("first frame");
+            recordFirstFrame(System.currentTimeMillis() - JVM_START);
+            onShown.run();
+        };
+        scene.addPostLayoutPulseListener(listener[0]);
+    }
+
+    static synchronized void recordFirstFrame(long millisSinceJvmStart) {
+        firstFrameMillis = millisSinceJvmStart;
+    }
+
+    // Forget everything recorded so far (tests)
+    static synchronized void reset() {
+        phases.clear();
+        lastMark = JVM_START;
+        firstFrameMillis = -1;
+    }
+
+    /**
+     * Print the timeline once startup is complete
+     * @return true if the first frame met its target (-Dstartup.budget.ms)
+     */
+    public static synchronized boolean report() {
+        long budget = Long.getLong("startup.budget.ms", DEFAULT_BUDGET_MS);
+        boolean withinBudget = firstFrameMillis >= 0 && firstFrameMillis <= budget;
+
+        System.out.println("Startup timeline (since JVM start):");
+        for (String phase : phases) {
+            System.out.println(phase);
+        }
+        if (firstFrameMillis < 0) {
+            System.out.println("⚠ First frame was not recorded");
+        } else if (withinBudget) {
+            System.out.println("✓ First frame in " + firstFrameMillis + " ms (target " + budget + " ms)");
+        } else {
+            System.out.println("⚠ First frame in " + firstFrameMillis + " ms, over the " +
+                    budget + " ms target");
+        }
+        return withinBudget;
+    }
+
+    /**
+     * Whether the app should exit after startup to report pass/fail (-Dstartup.check=true)
+     */
+    public static boolean isCheckMode() {
+        return CHECK_MODE;
+    }
+}
@@ -0,0 +1,215 @@
+package utils;
+
+import javafx.application.Platform;
+import javafx.embed.swing.SwingFXUtils;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Two-level cache of scaled profile picture thumbnails
+ *
+ * Level 1 keeps recently shown thumbnails in memory (LRU by path and size).
+ * Level 2 keeps pre-scaled PNGs in profile_pictures/thumbnails, so an
+ * original photo is decoded at most once per size. Loads run on background
+ * threads; the view shows a placeholder until its thumbnail is ready.
+ */
+public class ThumbnailCache {
+
+    private static final Path THUMBNAIL_DIR = Paths.get("profile_pictures", "thumbnails");
+    private static final int MAX_MEMORY_ENTRIES = 128;
+
+    // Key of the request an ImageView is currently waiting for (ignores late results)
+    private static final String PENDING_KEY = "thumbnail.pending";
+
+    private static final Map<String, Image> memory = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Image> eldest) {
+            return size() > MAX_MEMORY_ENTRIES;
+        }
+    };
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+    private static final ExecutorService loader = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "thumbnail-loader-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Show the thumbnail of {@code picturePath} in the view, loading it in the background if needed
+     */
+    public static void loadInto(ImageView view, String picturePath, int size, Image placeholder) {
+        File original = new File(picturePath);
+        String key = memoryKey(original, size);
+
+        Image cached = getCached(key);
+        if (cached != null) {
+            cancel(view);
+            view.setImage(cached);
+            return;
+        }
+
+        view.getProperties().put(PENDING_KEY, key);
+        view.setImage(placeholder);
+
+        loader.execute(() -> {
+            Image thumbnail = load(original, size, key);
+            Platform.runLater(() -> {
+                // The view moved on to another employee while this was loading
+                if (!key.equals(view.getProperties().get(PENDING_KEY))) return;
+
+                view.getProperties().remove(PENDING_KEY);
+                if (thumbnail != null) {
+                    view.setImage(thumbnail);
+                }
+            });
+        });
+    }
+
+    /**
+     * Forget a load still running for the view, so it does not replace an
+     * image set some other way (call before setting the view's image directly)
+     */
+    public static void cancel(ImageView view) {
+        view.getProperties().remove(PENDING_KEY);
+    }
+
+    /**
+     * Load a thumbnail on the calling thread (memory, then disk, then the original)
+     * @return the thumbnail, or null if the picture cannot be read
+     */
+    public static Image get(String picturePath, int size) {
+        File original = new File(picturePath);
+        String key = memoryKey(original, size);
+
+        Image cached = getCached(key);
+        return cached != null ? cached : load(original, size, key);
+    }
+
+    /**
+     * Save an already scaled thumbnail to the disk cache (used when a picture is uploaded)
+     */
+    public static void store(String picturePath, int size, BufferedImage thumbnail) throws IOException {
+        Files.createDirectories(THUMBNAIL_DIR);
+        Path temp = Files.createTempFile(THUMBNAIL_DIR, "thumb", ".tmp");
+        ImageIO.write(thumbnail, "png", temp.toFile());
+        Files.move(temp, diskFile(new File(picturePath), size),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Drop every cached thumbnail of a picture (memory and disk)
+     */
+    public static void evict(String picturePath) {
+        String prefix = new File(picturePath).getAbsolutePath() + "|";
+        synchronized (memory) {
+            Iterator<String> keys = memory.keySet().iterator();
+            while (keys.hasNext()) {
+                if (keys.next().startsWith(prefix)) {
+                    keys.remove();
+                }
+            }
+        }
+
+        if (!Files.isDirectory(THUMBNAIL_DIR)) return;
+        try (DirectoryStream<Path> thumbnails = Files.newDirectoryStream(
+                THUMBNAIL_DIR, hash(new File(picturePath).getAbsolutePath()) + "_*")) {
+            for (Path thumbnail : thumbnails) {
+                Files.deleteIfExists(thumbnail);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to remove thumbnails: " + e.getMessage());
+        }
+    }
+
+    private static Image load(File original, int size, String key) {
+        if (!original.exists()) {
+            System.out.println("Profile picture not found: " + original.getPath());
+            return null;
+        }
+
+        Path diskFile = diskFile(original, size);
+        try {
+            Image thumbnail;
+            if (Files.exists(diskFile)) {
+                thumbnail = new Image(diskFile.toUri().toString());
+            } else {
+                // Decode straight to the target size instead of the full original
+                thumbnail = new Image(original.toURI().toString(), size, size, true, true);
+                if (!thumbnail.isError()) {
+                    saveToDisk(thumbnail, original, size);
+                }
+            }
+
+            if (thumbnail.isError()) {
+                System.err.println("Error loading profile picture: " + original.getPath());
+                return null;
+            }
+
+            synchronized (memory) {
+                memory.put(key, thumbnail);
+            }
+            return thumbnail;
+
+        } catch (Exception e) {
+            System.err.println("Error loading profile picture: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void saveToDisk(Image thumbnail, File original, int size) {
+        try {
+            store(original.getPath(), size, SwingFXUtils.fromFXImage(thumbnail, null));
+        } catch (IOException e) {
+            System.err.println("Failed to cache thumbnail: " + e.getMessage());
+        }
+    }
+
+    private static Image getCached(String key) {
+        synchronized (memory) {
+            return memory.get(key);
+        }
+    }
+
+    // A replaced original (new size or timestamp) gets a new key, so stale thumbnails are never served
+    private static String memoryKey(File original, int size) {
+        return original.getAbsolutePath() + "|" + size + "|" + original.lastModified() + "|" + original.length();
+    }
+
+    private static Path diskFile(File original, int size) {
+        return THUMBNAIL_DIR.resolve(hash(original.getAbsolutePath()) + "_" + size + "_" +
+                Long.toHexString(original.lastModified() ^ original.length()) + ".png");
+    }
+
+    private static String hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                hex.append(String.format("%02x", digest[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(value.hashCode());
+        }
+    }
+}
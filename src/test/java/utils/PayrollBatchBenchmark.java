@@ -0,0 +1,69 @@
+package utils;
+
+import java.util.Random;
+
+/**
+ * Benchmark: PayrollBatch kernels vs. one deductions object per employee
+ *
+ * Lives with the test sources so it is not shipped; run it from
+ * target/test-classes after mvn test-compile.
+ *
+ * Usage: PayrollBatchBenchmark [employees] (uses the rate table in payroll.db)
+ */
+public class PayrollBatchBenchmark {
+
+    public static void main(String[] args) {
+        int employees = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        GovernmentDeductionCalculator.RateTable rates = GovernmentDeductionCalculator.RateTable.loadOrEmpty();
+
+        Random random = new Random(42);
+        double[] hours = new double[employees];
+        double[] rateInput = new double[employees];
+        long[] adjustmentInput = new long[employees];
+        for (int i = 0; i < employees; i++) {
+            hours[i] = random.nextInt(200 * 60) / 60.0;
+            rateInput[i] = 40 + random.nextInt(600);
+            adjustmentInput[i] = random.nextInt(10) == 0 ? random.nextInt(200_000) - 100_000 : 0;
+        }
+
+        // The old loop read the deduction table for every employee; time a sample and scale it up
+        int sample = Math.min(employees, 2_000);
+        long start = System.nanoTime();
+        for (int i = 0; i < sample; i++) {
+            GovernmentDeductionCalculator.calculateAll(hours[i] * rateInput[i]);
+        }
+        double perRowWithQueries = (System.nanoTime() - start) / 1e6 * employees / sample;
+        System.out.printf("Per-row with table lookups: %.0f ms (from %,d rows)%n", perRowWithQueries, sample);
+
+        PayrollBatch batch = new PayrollBatch(employees);
+        for (int i = 0; i < employees; i++) {
+            batch.add(i + 1, hours[i], rateInput[i], adjustmentInput[i]);
+        }
+
+        for (int round = 1; round <= 10; round++) {
+            // One deductions object per employee, rates already in memory
+            start = System.nanoTime();
+            long objectNet = 0;
+            for (int i = 0; i < employees; i++) {
+                long grossPay = Money.ofPesos(hours[i] * rateInput[i]);
+                GovernmentDeductionCalculator.GovernmentDeductions d = rates.calculate(grossPay);
+                objectNet += grossPay - d.totalCentavos + adjustmentInput[i];
+            }
+            long objectNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            batch.compute(rates);
+            long batchNanos = System.nanoTime() - start;
+
+            long batchNet = 0;
+            for (int i = 0; i < employees; i++) {
+                batchNet += batch.getNet(i);
+            }
+            if (objectNet != batchNet) {
+                throw new IllegalStateException("Batch and per-row totals differ: " + batchNet + " vs " + objectNet);
+            }
+            System.out.printf("Round %d: per-row objects %.1f ms, batch %.1f ms, net ₱%s%n",
+                    round, objectNanos / 1e6, batchNanos / 1e6, Money.format(batchNet));
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package utils;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Load test for HeadlessServer: many kiosks scanning at once, with payroll runs mixed in
+ *
+ * Each client thread sends scans for random employees on random days of
+ * a test year (using the "at" parameter, so the days are independent of
+ * today), and every Nth request is a payroll calculation for one of that
+ * year's months. Prints throughput, latency percentiles and status counts.
+ * It writes attendance, so point it at a server running on a copy of the
+ * database, started with -Dserver.scanSkewMinutes large enough to accept
+ * the test year. Pass the server's token with -Dserver.token. It lives
+ * with the test sources so it is not shipped; run it from
+ * target/test-classes after mvn test-compile.
+ *
+ * Usage: ServerLoadClient [base-url] [clients] [requests] [payroll-every] [year]
+ */
+public class ServerLoadClient {
+
+    private static final Pattern QR_CODE = Pattern.compile("\"qrCode\":\"((?:[^\"\\\\]|\\\\.)*)\"");
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        int payrollEvery = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+        int year = args.length > 4 ? Integer.parseInt(args[4]) : 2040;
+
+        String token = System.getProperty("server.token", "");
+
+        HttpClient http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        String employees = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/employees"))
+                        .header("X-Api-Token", token).build(),
+                HttpResponse.BodyHandlers.ofString()).body();
+        List<String> qrCodes = new ArrayList<>();
+        Matcher qr = QR_CODE.matcher(employees);
+        while (qr.find()) {
+            qrCodes.add(qr.group(1));
+        }
+        if (qrCodes.isEmpty()) {
+            System.err.println("No active employees on " + baseUrl);
+            System.exit(1);
+        }
+        System.out.println("Load test: " + clients + " clients, " + requests + " requests, " +
+                qrCodes.size() + " employees, payroll every " + payrollEvery + " requests");
+
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+        LongAdder failures = new LongAdder();
+        CountDownLatch done = new CountDownLatch(clients);
+
+        long start = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            Random random = new Random(c);
+            Thread client = new Thread(() -> {
+                try {
+                    int i;
+                    while ((i = next.getAndIncrement()) < requests) {
+                        HttpRequest request = payrollEvery > 0 && i % payrollEvery == payrollEvery - 1
+                                ? payrollRequest(baseUrl, token, year, 1 + random.nextInt(12))
+                                : scanRequest(baseUrl, token, qrCodes.get(random.nextInt(qrCodes.size())), year, random);
+
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+                            statusCounts.computeIfAbsent(response.statusCode(), code -> new LongAdder()).increment();
+                        } catch (Exception e) {
+                            failures.increment();
+                        }
+                        latencies[i] = System.nanoTime() - sent;
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "load-client-" + c);
+            client.start();
+        }
+        done.await();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Arrays.sort(latencies);
+        System.out.printf("%d requests in %.2f s: %.0f requests/s%n", requests, seconds, requests / seconds);
+        System.out.printf("Latency p50 %.1f ms, p95 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                percentile(latencies, 50), percentile(latencies, 95), percentile(latencies, 99),
+                latencies[requests - 1] / 1e6);
+        System.out.println("Status codes: " + statusCounts + (failures.sum() > 0 ? ", failed: " + failures.sum() : ""));
+    }
+
+    private static HttpRequest scanRequest(String baseUrl, String token, String qrCode, int year, Random random) {
+        LocalDate day = LocalDate.ofYearDay(year, 1 + random.nextInt(365));
+        int minute = 6 * 60 + random.nextInt(14 * 60);
+        String at = day + "T" + String.format("%02d:%02d:%02d", minute / 60, minute % 60, random.nextInt(60));
+        String form = "qr=" + URLEncoder.encode(qrCode, StandardCharsets.UTF_8) +
+                "&at=" + at;
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/scan"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .header("X-Api-Token", token)
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+    }
+
+    private static HttpRequest payrollRequest(String baseUrl, String token, int year, int month) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/payroll/calculate?year=" + year + "&month=" + month))
+                .header("X-Api-Token", token)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    private static double percentile(long[] sorted, int percent) {
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(sorted.length * percent / 100.0) - 1);
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+}
@@ -0,0 +1,60 @@
+package utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The startup budget check that -Dstartup.check=true turns into an exit status
+ */
+class StartupProfilerTest {
+
+    @BeforeEach
+    void setUp() {
+        StartupProfiler.reset();
+        System.clearProperty("startup.budget.ms");
+    }
+
+    @AfterEach
+    void tearDown() {
+        StartupProfiler.reset();
+        System.clearProperty("startup.budget.ms");
+    }
+
+    @Test
+    void passesWithinTheDefaultBudget() {
+        StartupProfiler.recordFirstFrame(1200);
+        assertTrue(StartupProfiler.report());
+    }
+
+    @Test
+    void failsOverTheDefaultBudget() {
+        StartupProfiler.recordFirstFrame(1501);
+        assertFalse(StartupProfiler.report());
+    }
+
+    @Test
+    void failsWhenNoFrameWasRecorded() {
+        assertFalse(StartupProfiler.report());
+    }
+
+    @Test
+    void usesTheConfiguredBudget() {
+        System.setProperty("startup.budget.ms", "500");
+        StartupProfiler.recordFirstFrame(600);
+        assertFalse(StartupProfiler.report());
+
+        System.setProperty("startup.budget.ms", "800");
+        assertTrue(StartupProfiler.report());
+    }
+
+    @Test
+    void budgetIsInclusive() {
+        System.setProperty("startup.budget.ms", "700");
+        StartupProfiler.recordFirstFrame(700);
+        assertTrue(StartupProfiler.report());
+    }
+}